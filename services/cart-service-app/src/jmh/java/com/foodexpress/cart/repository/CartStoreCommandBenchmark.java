@@ -0,0 +1,200 @@
+package com.foodexpress.cart.repository;
+
+import com.foodexpress.cart.entity.Cart;
+import com.foodexpress.cart.entity.CartItem;
+import com.foodexpress.cart.repository.codec.BinaryCartCodec;
+import com.foodexpress.cart.repository.codec.JsonCartCodec;
+import com.foodexpress.cart.repository.impl.RedisCartStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.jedis.JedisConnectionFactory;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisKeyValueAdapter;
+import org.springframework.data.redis.core.RedisKeyValueTemplate;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.convert.KeyspaceConfiguration;
+import org.springframework.data.redis.core.convert.MappingConfiguration;
+import org.springframework.data.redis.core.index.IndexConfiguration;
+import org.springframework.data.redis.core.index.SimpleIndexDefinition;
+import org.springframework.data.redis.core.mapping.RedisMappingContext;
+import org.springframework.data.redis.repository.support.RedisRepositoryFactory;
+import org.springframework.data.repository.CrudRepository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Redis commands and latency per cart request: the old Spring Data repository, with its userId
+ * secondary index, against the key-per-user {@link CartStore}
+ *
+ * Needs a scratch Redis (-Dredis.host, -Dredis.port; localhost:6379 by default) and writes carts for
+ * users bench-0 .. bench-N into it. Commands per request come from INFO total_commands_processed and
+ * are printed after every iteration, so keep the server otherwise idle while it runs.
+ * Keep the json result (-rf json -rff, see the benchmark profile in pom.xml) and the printed counts
+ * together when quoting numbers. RedisCartStoreTest pins the store's side of the count, one command
+ * per request, without a server.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CartStoreCommandBenchmark {
+
+    private static final String RESTAURANT_ID = "r1";
+
+    /**
+     * The repository as it was: @RedisHash("cart") with @Indexed userId, rebuilt without the annotations
+     */
+    public interface LegacyCartRepository extends CrudRepository<Cart, String> {
+        Optional<Cart> findByUserId(String userId);
+    }
+
+    @Param({"10000"})
+    private int users;
+
+    private JedisConnectionFactory connectionFactory;
+    private StringRedisTemplate redisTemplate;
+    private RedisKeyValueAdapter legacyAdapter;
+    private LegacyCartRepository legacyRepository;
+    private CartStore cartStore;
+
+    private int next;
+    private long requests;
+    private long commandsBefore;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        connectionFactory = new JedisConnectionFactory(new RedisStandaloneConfiguration(
+                System.getProperty("redis.host", "localhost"), Integer.getInteger("redis.port", 6379)));
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+
+        redisTemplate = new StringRedisTemplate(connectionFactory);
+        JsonCartCodec jsonCodec = new JsonCartCodec();
+        cartStore = new RedisCartStore(connectionFactory, jsonCodec, List.of(jsonCodec, new BinaryCartCodec()),
+                "binary", "carts:", "carts-by-expiry", 30, 10, 60_000, 50, "cart-invalidations", Optional.empty());
+
+        RedisTemplate<byte[], byte[]> binaryTemplate = new RedisTemplate<>();
+        binaryTemplate.setConnectionFactory(connectionFactory);
+        binaryTemplate.afterPropertiesSet();
+
+        IndexConfiguration indexes = new IndexConfiguration();
+        indexes.addIndexDefinition(new SimpleIndexDefinition("cart", "userId"));
+        KeyspaceConfiguration keyspaces = new KeyspaceConfiguration();
+        keyspaces.addKeyspaceSettings(new KeyspaceConfiguration.KeyspaceSettings(Cart.class, "cart"));
+        RedisMappingContext mappingContext = new RedisMappingContext(new MappingConfiguration(indexes, keyspaces));
+        legacyAdapter = new RedisKeyValueAdapter(binaryTemplate, mappingContext);
+        legacyAdapter.afterPropertiesSet();
+        legacyRepository = new RedisRepositoryFactory(new RedisKeyValueTemplate(legacyAdapter, mappingContext))
+                .getRepository(LegacyCartRepository.class);
+
+        for (int i = 0; i < users; i++) {
+            String userId = "bench-" + i;
+            legacyRepository.save(withItem(newCart(userId), item("m0")));
+            cartStore.addItem(userId, RESTAURANT_ID, "Restaurant-" + RESTAURANT_ID, 1L, item("m0"));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        legacyAdapter.destroy();
+        connectionFactory.destroy();
+    }
+
+    @Setup(Level.Iteration)
+    public void startCounting() {
+        requests = 0;
+        commandsBefore = commandsProcessed();
+    }
+
+    @TearDown(Level.Iteration)
+    public void report(BenchmarkParams params) {
+        // The INFO call that took the first reading is counted in the second one
+        long commands = commandsProcessed() - commandsBefore - 1;
+        System.out.printf("%n%s: %.2f Redis commands per request%n",
+                params.getBenchmark(), (double) commands / Math.max(requests, 1));
+    }
+
+    /**
+     * addToCart before: index lookup for the user's cart, change it in the JVM, save the hash and its indexes
+     */
+    @Benchmark
+    public Cart legacyAddItem() {
+        String userId = nextUser();
+        Cart cart = legacyRepository.findByUserId(userId).orElseGet(() -> newCart(userId));
+        return legacyRepository.save(withItem(cart, item("m" + (next % 5))));
+    }
+
+    @Benchmark
+    public Cart storeAddItem() {
+        return cartStore.addItem(nextUser(), RESTAURANT_ID, "Restaurant-" + RESTAURANT_ID, 1L, item("m" + (next % 5)));
+    }
+
+    @Benchmark
+    public Optional<Cart> legacyGetCart() {
+        return legacyRepository.findByUserId(nextUser());
+    }
+
+    @Benchmark
+    public Optional<Cart> storeGetCart() {
+        return cartStore.findByUserId(nextUser());
+    }
+
+    private String nextUser() {
+        requests++;
+        next = (next + 1) % users;
+        return "bench-" + next;
+    }
+
+    private long commandsProcessed() {
+        Properties stats = redisTemplate.execute((RedisCallback<Properties>) connection ->
+                connection.serverCommands().info("stats"));
+        return Long.parseLong(stats.getProperty("total_commands_processed"));
+    }
+
+    private static Cart newCart(String userId) {
+        return Cart.builder()
+                .id(userId)
+                .userId(userId)
+                .restaurantId(RESTAURANT_ID)
+                .restaurantName("Restaurant-" + RESTAURANT_ID)
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+
+    private static Cart withItem(Cart cart, CartItem item) {
+        cart.addItem(item);
+        cart.setExpiresAt(LocalDateTime.now().plusMinutes(30));
+        return cart;
+    }
+
+    private static CartItem item(String menuItemId) {
+        return CartItem.builder()
+                .menuItemId(menuItemId)
+                .itemName("Item " + menuItemId)
+                .price(new BigDecimal("149.00"))
+                .quantity(1)
+                .subtotal(new BigDecimal("149.00"))
+                .build();
+    }
+}
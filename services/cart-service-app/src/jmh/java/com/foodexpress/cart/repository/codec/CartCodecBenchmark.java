@@ -0,0 +1,153 @@
+package com.foodexpress.cart.repository.codec;
+
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.foodexpress.cart.entity.Cart;
+import com.foodexpress.cart.entity.CartItem;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.core.convert.Bucket;
+import org.springframework.data.redis.core.convert.MappingRedisConverter;
+import org.springframework.data.redis.core.convert.RedisData;
+import org.springframework.data.redis.core.mapping.RedisMappingContext;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bytes per cart and encode / decode time of the cart value formats:
+ * the flattened @RedisHash the carts started as, GenericJackson2JsonRedisSerializer (class names
+ * in every value), and the two {@link CartCodec}s. Sizes are printed once per trial.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CartCodecBenchmark {
+
+    private static final long NOW = 1760000000000L;
+
+    @Param({"1", "5", "20"})
+    private int items;
+
+    private final JsonCartCodec jsonCodec = new JsonCartCodec();
+    private final BinaryCartCodec binaryCodec = new BinaryCartCodec();
+    private final GenericJackson2JsonRedisSerializer genericJson = new GenericJackson2JsonRedisSerializer();
+    private final MappingRedisConverter hashConverter = new MappingRedisConverter(new RedisMappingContext());
+
+    private StoredCart storedCart;
+    private Cart cart;
+    private byte[] json;
+    private byte[] binary;
+    private byte[] genericJsonValue;
+    private Map<byte[], byte[]> hash;
+
+    @Setup
+    public void setUp() {
+        hashConverter.afterPropertiesSet();
+        genericJson.configure(mapper -> mapper.registerModule(new JavaTimeModule()));
+
+        List<StoredItem> storedItems = new ArrayList<>();
+        List<CartItem> cartItems = new ArrayList<>();
+        for (int i = 0; i < items; i++) {
+            String menuItemId = String.format("665f1c2e9b1d4a3f8c0e%04x", i);
+            long price = 9900 + i * 1500;
+            storedItems.add(new StoredItem(menuItemId, "Menu item number " + i, price, 1 + i % 3, null, null));
+            cartItems.add(CartItem.builder()
+                    .menuItemId(menuItemId)
+                    .itemName("Menu item number " + i)
+                    .price(BigDecimal.valueOf(price, 2))
+                    .quantity(1 + i % 3)
+                    .subtotal(BigDecimal.valueOf(price * (1 + i % 3), 2))
+                    .build());
+        }
+        storedCart = new StoredCart("1042", "665f1c2e9b1d4a3f8c0e7a21", "Restaurant-665f1c2e9b1d4a3f8c0e7a21", 17L,
+                storedItems, storedItems.stream().mapToLong(item -> item.price() * item.quantity()).sum(),
+                storedItems.stream().mapToInt(StoredItem::quantity).sum(), 12L, NOW, NOW + 60_000, NOW + 1_860_000);
+        cart = Cart.builder()
+                .id("1042")
+                .userId("1042")
+                .restaurantId(storedCart.restaurantId())
+                .restaurantName(storedCart.restaurantName())
+                .menuVersion(17L)
+                .items(cartItems)
+                .createdAt(toDateTime(NOW))
+                .expiresAt(toDateTime(NOW + 1_860_000))
+                .build();
+        cart.recalculateTotal();
+
+        json = jsonCodec.encode(storedCart);
+        binary = binaryCodec.encode(storedCart);
+        genericJsonValue = genericJson.serialize(cart);
+        RedisData redisData = new RedisData();
+        hashConverter.write(cart, redisData);
+        hash = redisData.getBucket().rawMap();
+
+        int hashBytes = hash.entrySet().stream().mapToInt(entry -> entry.getKey().length + entry.getValue().length).sum();
+        System.out.printf("%n%d items: @RedisHash %d bytes in %d fields, GenericJackson2Json %d, json codec %d, binary codec %d%n",
+                items, hashBytes, hash.size(), genericJsonValue.length, json.length, binary.length);
+    }
+
+    @Benchmark
+    public Map<byte[], byte[]> redisHashEncode() {
+        RedisData redisData = new RedisData();
+        hashConverter.write(cart, redisData);
+        return redisData.getBucket().rawMap();
+    }
+
+    @Benchmark
+    public Cart redisHashDecode() {
+        return hashConverter.read(Cart.class, new RedisData(Bucket.newBucketFromRawMap(hash)));
+    }
+
+    @Benchmark
+    public byte[] genericJsonEncode() {
+        return genericJson.serialize(cart);
+    }
+
+    @Benchmark
+    public Object genericJsonDecode() {
+        return genericJson.deserialize(genericJsonValue);
+    }
+
+    @Benchmark
+    public byte[] jsonEncode() {
+        return jsonCodec.encode(storedCart);
+    }
+
+    @Benchmark
+    public StoredCart jsonDecode() {
+        return jsonCodec.decode(json);
+    }
+
+    @Benchmark
+    public byte[] binaryEncode() {
+        return binaryCodec.encode(storedCart);
+    }
+
+    @Benchmark
+    public StoredCart binaryDecode() {
+        return binaryCodec.decode(binary);
+    }
+
+    private static LocalDateTime toDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+}
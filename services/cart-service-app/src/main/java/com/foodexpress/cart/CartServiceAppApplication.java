@@ -3,11 +3,11 @@ package com.foodexpress.cart;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cloud.openfeign.EnableFeignClients;
-import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
 @EnableFeignClients
-@EnableJpaAuditing
+@EnableScheduling
 public class CartServiceAppApplication {
 
 	public static void main(String[] args) {
@@ -1,19 +1,45 @@
 package com.foodexpress.cart.client;
 
 import com.foodexpress.cart.dto.common.ApiResponse;
+import com.foodexpress.cart.dto.request.MenuItemBatchRequest;
+import com.foodexpress.cart.dto.response.MenuItemPriceResponse;
+import com.foodexpress.cart.dto.response.MenuSnapshotResponse;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
 
-@FeignClient(name = "restaurant-service")
+import java.util.List;
+
+@FeignClient(name = "restaurant-service-app")
 public interface RestaurantServiceClient {
 
     @GetMapping("/api/v1/restaurants/{id}")
-    ApiResponse<Object> getRestaurantById(@PathVariable("id") Long id);
+    ApiResponse<Object> getRestaurantById(@PathVariable("id") String id);
 
-    @GetMapping("/api/v1/restaurants/{restaurantId}/menu/items/{itemId}")
+    @GetMapping("/api/v1/restaurants/{restaurantId}/menu-items/{itemId}")
     ApiResponse<Object> getMenuItem(
-            @PathVariable("restaurantId") Long restaurantId,
-            @PathVariable("itemId") Long itemId
+            @PathVariable("restaurantId") String restaurantId,
+            @PathVariable("itemId") String itemId
+    );
+
+    /**
+     * Name, price and availability of several items in one call; unknown IDs are left out
+     */
+    @PostMapping("/api/v1/restaurants/{restaurantId}/menu-items/batch")
+    ApiResponse<List<MenuItemPriceResponse>> getMenuItems(
+            @PathVariable("restaurantId") String restaurantId,
+            @RequestBody MenuItemBatchRequest request
+    );
+
+    /**
+     * Price table of the current menu version; left out when knownVersion is already current
+     */
+    @GetMapping("/api/v1/restaurants/{restaurantId}/menu-items/snapshot")
+    ApiResponse<MenuSnapshotResponse> getMenuSnapshot(
+            @PathVariable("restaurantId") String restaurantId,
+            @RequestParam(value = "knownVersion", required = false) Long knownVersion
     );
-}
\ No newline at end of file
+}
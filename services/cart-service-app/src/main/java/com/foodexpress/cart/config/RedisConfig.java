@@ -1,5 +1,8 @@
 package com.foodexpress.cart.config;
 
+import com.foodexpress.cart.repository.impl.CartNearCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
@@ -8,6 +11,8 @@ import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
@@ -50,4 +55,16 @@ public class RedisConfig {
                 .cacheDefaults(config)
                 .build();
     }
+
+    @Bean
+    @ConditionalOnProperty(name = "cart.near-cache.enabled", havingValue = "true")
+    public RedisMessageListenerContainer cartInvalidationListenerContainer(
+            RedisConnectionFactory connectionFactory,
+            CartNearCache cartNearCache,
+            @Value("${cart.store.invalidation-channel:cart-invalidations}") String invalidationChannel) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(cartNearCache, new ChannelTopic(invalidationChannel));
+        return container;
+    }
 }
\ No newline at end of file
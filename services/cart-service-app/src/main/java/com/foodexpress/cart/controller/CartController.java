@@ -78,6 +78,28 @@ public class CartController {
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * Validate cart prices before checkout
+     * POST /api/v1/cart/validate
+     */
+    @PostMapping("/validate")
+    public ResponseEntity<ApiResponse<CartResponse>> validateCart(
+            @RequestHeader("X-User-Id") String userId) {
+
+        String traceId = getTraceId();
+        log.info("Validate cart request for user: {}, TraceId: {}", userId, traceId);
+
+        CartResponse cartResponse = cartService.validateCart(userId);
+
+        ApiResponse<CartResponse> response = ApiResponse.success(
+                cartResponse,
+                "Cart validated successfully",
+                traceId
+        );
+
+        return ResponseEntity.ok(response);
+    }
+
     /**
      * Update cart item
      * PUT /api/v1/cart/items/{itemId}
@@ -6,8 +6,9 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
-import java.math.BigDecimal;
-
+/**
+ * Item name and price are not taken from the client; they come from the restaurant's menu snapshot
+ */
 @Data
 @Builder
 @NoArgsConstructor
@@ -20,14 +21,6 @@ public class AddToCartRequest {
     @NotNull(message = "Menu item ID is required")
     private String menuItemId;
 
-    @NotBlank(message = "Item name is required")
-    @Size(max = 255, message = "Item name must not exceed 255 characters")
-    private String itemName;
-
-    @NotNull(message = "Price is required")
-    @DecimalMin(value = "0.0", inclusive = false, message = "Price must be greater than 0")
-    private BigDecimal price;
-
     @NotNull(message = "Quantity is required")
     @Min(value = 1, message = "Quantity must be at least 1")
     @Max(value = 99, message = "Quantity cannot exceed 99")
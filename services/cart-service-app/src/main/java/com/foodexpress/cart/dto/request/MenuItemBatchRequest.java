@@ -0,0 +1,17 @@
+package com.foodexpress.cart.dto.request;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MenuItemBatchRequest {
+
+    private List<String> itemIds;
+}
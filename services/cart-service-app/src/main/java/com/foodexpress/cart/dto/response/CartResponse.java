@@ -27,6 +27,9 @@ public class CartResponse {
     @JsonProperty("restaurant_name")
     private String restaurantName;
 
+    @JsonProperty("menu_version")
+    private Long menuVersion;
+
     private List<CartItemResponse> items;
 
     @JsonProperty("total_amount")
@@ -35,6 +38,10 @@ public class CartResponse {
     @JsonProperty("total_items")
     private Integer totalItems;
 
+    // Only set by checkout validation: true if any price or item changed since it was added
+    @JsonProperty("prices_changed")
+    private Boolean pricesChanged;
+
     @JsonProperty("expires_at")
     private LocalDateTime expiresAt;
 
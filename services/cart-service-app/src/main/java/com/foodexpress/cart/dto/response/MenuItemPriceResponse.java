@@ -0,0 +1,26 @@
+package com.foodexpress.cart.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Name, price and availability of a menu item, as returned by restaurant-service's batch lookup
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MenuItemPriceResponse {
+
+    private String id;
+
+    private String name;
+
+    private BigDecimal price;
+
+    private Boolean isAvailable;
+}
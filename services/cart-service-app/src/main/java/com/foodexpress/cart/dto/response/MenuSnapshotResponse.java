@@ -0,0 +1,36 @@
+package com.foodexpress.cart.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+/**
+ * Price table of a restaurant's menu at one menu version, as published by restaurant-service
+ * Only orderable items are listed; items is null when unchanged is set
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MenuSnapshotResponse {
+
+    private String restaurantId;
+
+    private Long menuVersion;
+
+    private boolean unchanged;
+
+    private Map<String, Item> items;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Item {
+        private String name;
+        private BigDecimal price;
+    }
+}
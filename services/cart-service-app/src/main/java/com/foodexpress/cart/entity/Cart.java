@@ -4,9 +4,6 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
-import org.springframework.data.annotation.Id;
-import org.springframework.data.redis.core.RedisHash;
-import org.springframework.data.redis.core.index.Indexed;
 
 import java.io.Serializable;
 import java.math.BigDecimal;
@@ -15,25 +12,28 @@ import java.util.ArrayList;
 import java.util.List;
 
 /**
- * Redis Hash for Cart
- * Key pattern: cart:{userId}
+ * Cart of one user
+ * Stored by CartStore as a single value under carts:{userId}, so it needs no secondary index
  */
-@RedisHash("cart")
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 public class Cart implements Serializable {
 
-    @Id
     private String id; // This will be the userId
 
-    @Indexed
     private String userId; // Storing as String for consistency, though originally Long
 
     private String restaurantId; // String (Mongo ID)
     private String restaurantName;
 
+    // Menu version of the restaurant the item names and prices were taken from
+    private Long menuVersion;
+
+    // Bumped on every write; a replace only succeeds against the revision it was read at
+    private Long revision;
+
     @Builder.Default
     private List<CartItem> items = new ArrayList<>();
 
@@ -48,13 +48,14 @@ public class Cart implements Serializable {
 
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+    private LocalDateTime expiresAt;
 
     // Helper methods
     public void addItem(CartItem item) {
         // Check if item already exists
         boolean exists = false;
         for (CartItem existingItem : items) {
-            if (existingItem.getItemId().equals(item.getItemId())) {
+            if (existingItem.getMenuItemId().equals(item.getMenuItemId())) {
                 existingItem.setQuantity(existingItem.getQuantity() + item.getQuantity());
                 existingItem.setSubtotal(existingItem.getPrice().multiply(BigDecimal.valueOf(existingItem.getQuantity())));
                 exists = true;
@@ -68,13 +69,13 @@ public class Cart implements Serializable {
     }
 
     public void removeItem(String itemId) {
-        items.removeIf(item -> item.getItemId().equals(itemId));
+        items.removeIf(item -> item.getMenuItemId().equals(itemId));
         recalculateTotal();
     }
 
     public void updateItemQuantity(String itemId, Integer quantity) {
         for (CartItem item : items) {
-            if (item.getItemId().equals(itemId)) {
+            if (item.getMenuItemId().equals(itemId)) {
                 item.setQuantity(quantity);
                 item.setSubtotal(item.getPrice().multiply(BigDecimal.valueOf(quantity)));
                 break;
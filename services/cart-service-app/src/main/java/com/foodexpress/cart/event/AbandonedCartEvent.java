@@ -0,0 +1,61 @@
+package com.foodexpress.cart.event;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Published to the abandoned-cart Kafka topic (keyed by user ID) when a non-empty cart
+ * expires without being checked out; carries the cart's last state for reminders
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AbandonedCartEvent {
+
+    @JsonProperty("user_id")
+    private String userId;
+
+    @JsonProperty("restaurant_id")
+    private String restaurantId;
+
+    @JsonProperty("restaurant_name")
+    private String restaurantName;
+
+    private List<Item> items;
+
+    @JsonProperty("total_amount")
+    private BigDecimal totalAmount;
+
+    @JsonProperty("total_items")
+    private Integer totalItems;
+
+    @JsonProperty("last_updated_at")
+    private LocalDateTime lastUpdatedAt;
+
+    @JsonProperty("expired_at")
+    private LocalDateTime expiredAt;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Item {
+
+        @JsonProperty("menu_item_id")
+        private String menuItemId;
+
+        @JsonProperty("item_name")
+        private String itemName;
+
+        private BigDecimal price;
+
+        private Integer quantity;
+    }
+}
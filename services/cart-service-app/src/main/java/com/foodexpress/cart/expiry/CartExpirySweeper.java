@@ -0,0 +1,155 @@
+package com.foodexpress.cart.expiry;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.foodexpress.cart.entity.Cart;
+import com.foodexpress.cart.event.AbandonedCartEvent;
+import com.foodexpress.cart.repository.CartStore;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Ends carts whose expiry has passed and announces the abandoned ones
+ *
+ * Carts are indexed by expiry, so a sweep only touches carts that are actually due. Each claimed
+ * cart that still has items is published as an {@link AbandonedCartEvent}, and only deleted once
+ * Kafka has acknowledged it; if publishing fails the claim lapses and a later sweep tries again,
+ * so an event may be published more than once but is not lost while the cart key lives.
+ * The cart keys carry a native TTL a little longer than the expiry, so memory is reclaimed even
+ * if no instance is sweeping.
+ */
+@Component
+@Slf4j
+public class CartExpirySweeper {
+
+    private final CartStore cartStore;
+    private final KafkaTemplate<String, String> kafkaTemplate;
+    private final ObjectMapper objectMapper;
+    private final String topic;
+    private final int batchSize;
+    private final Duration publishTimeout;
+    private final Counter abandonedCarts;
+    private final Counter emptyCarts;
+    private final Counter failedPublishes;
+
+    public CartExpirySweeper(CartStore cartStore,
+                             KafkaTemplate<String, String> kafkaTemplate,
+                             ObjectMapper objectMapper,
+                             MeterRegistry meterRegistry,
+                             @Value("${cart.expiry.abandoned-topic:abandoned-cart}") String topic,
+                             @Value("${cart.expiry.sweep-batch-size:500}") int batchSize,
+                             @Value("${cart.expiry.publish-timeout:10s}") Duration publishTimeout) {
+        this.cartStore = cartStore;
+        this.kafkaTemplate = kafkaTemplate;
+        this.objectMapper = objectMapper;
+        this.topic = topic;
+        this.batchSize = batchSize;
+        this.publishTimeout = publishTimeout;
+        this.abandonedCarts = meterRegistry.counter("cart.expired", "abandoned", "true");
+        this.emptyCarts = meterRegistry.counter("cart.expired", "abandoned", "false");
+        this.failedPublishes = meterRegistry.counter("cart.expired.publish.failed");
+    }
+
+    @Scheduled(fixedDelayString = "${cart.expiry.sweep-interval-ms:30000}")
+    public void sweep() {
+        List<String> claimed;
+        do {
+            claimed = cartStore.claimExpired(batchSize);
+            expire(claimed);
+        } while (claimed.size() == batchSize);
+    }
+
+    private void expire(List<String> userIds) {
+        LocalDateTime now = LocalDateTime.now();
+
+        // Send the whole batch first, so the acknowledgements are awaited together rather than one by one
+        Map<String, Cart> carts = new LinkedHashMap<>();
+        Map<String, CompletableFuture<?>> sends = new HashMap<>();
+        for (String userId : userIds) {
+            // Straight from Redis: a near-cached copy could be an older revision than the one deleteExpired checks
+            Cart cart = cartStore.findStoredByUserId(userId).orElse(null);
+            if (cart != null && cart.getExpiresAt() != null && cart.getExpiresAt().isAfter(now)) {
+                continue; // Written since it was claimed, which also moved it in the expiry index
+            }
+            carts.put(userId, cart);
+            if (cart != null && !cart.getItems().isEmpty()) {
+                send(cart).ifPresent(send -> sends.put(userId, send));
+            }
+        }
+
+        carts.forEach((userId, cart) -> {
+            CompletableFuture<?> send = sends.get(userId);
+            if (send != null && !acknowledged(userId, send)) {
+                failedPublishes.increment();
+                return; // Left claimed: the next sweep after the lease publishes it again
+            }
+            if (!cartStore.deleteExpired(userId, cart)) {
+                return;
+            }
+            if (cart != null && !cart.getItems().isEmpty()) {
+                abandonedCarts.increment();
+                log.debug("Cart of user: {} expired with {} items", userId, cart.getTotalItems());
+            } else {
+                emptyCarts.increment();
+            }
+        });
+    }
+
+    private Optional<CompletableFuture<?>> send(Cart cart) {
+        String payload;
+        try {
+            payload = objectMapper.writeValueAsString(toEvent(cart));
+        } catch (JsonProcessingException e) {
+            // Would fail the same way on every retry, so the cart is ended without its event
+            log.error("Could not serialize abandoned cart of user: {}", cart.getUserId(), e);
+            return Optional.empty();
+        }
+        return Optional.of(kafkaTemplate.send(topic, cart.getUserId(), payload));
+    }
+
+    private boolean acknowledged(String userId, CompletableFuture<?> send) {
+        try {
+            send.get(publishTimeout.toMillis(), TimeUnit.MILLISECONDS);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (ExecutionException | TimeoutException e) {
+            log.warn("Could not publish abandoned cart of user: {}, retrying after the claim lease", userId, e);
+            return false;
+        }
+    }
+
+    private AbandonedCartEvent toEvent(Cart cart) {
+        return AbandonedCartEvent.builder()
+                .userId(cart.getUserId())
+                .restaurantId(cart.getRestaurantId())
+                .restaurantName(cart.getRestaurantName())
+                .items(cart.getItems().stream()
+                        .map(item -> new AbandonedCartEvent.Item(item.getMenuItemId(), item.getItemName(),
+                                item.getPrice(), item.getQuantity()))
+                        .toList())
+                .totalAmount(cart.getTotalAmount())
+                .totalItems(cart.getTotalItems())
+                .lastUpdatedAt(cart.getUpdatedAt())
+                .expiredAt(cart.getExpiresAt())
+                .build();
+    }
+}
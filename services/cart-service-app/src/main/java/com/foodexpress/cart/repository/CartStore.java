@@ -0,0 +1,63 @@
+package com.foodexpress.cart.repository;
+
+import com.foodexpress.cart.entity.Cart;
+import com.foodexpress.cart.entity.CartItem;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Cart storage where every mutation is a single atomic operation on the server
+ * Each method is one round trip: the change, the same-restaurant and max-items rules, the totals
+ * and the expiry refresh happen together, and the resulting cart comes back in the same reply,
+ * so concurrent requests of the same user can't overwrite each other's changes
+ */
+public interface CartStore {
+
+    Optional<Cart> findByUserId(String userId);
+
+    /**
+     * Read the cart as stored in Redis, bypassing the near cache
+     * For readers that act on the exact revision, such as the expiry sweep
+     */
+    Optional<Cart> findStoredByUserId(String userId);
+
+    /**
+     * Add the item, or add its quantity to the same item already in the cart
+     * Creates the cart if needed; an empty cart takes the item's restaurant
+     *
+     * @param menuVersion menu version the item was priced from
+     */
+    Cart addItem(String userId, String restaurantId, String restaurantName, Long menuVersion, CartItem item);
+
+    Cart updateItemQuantity(String userId, String menuItemId, int quantity);
+
+    Cart removeItem(String userId, String menuItemId);
+
+    /**
+     * Overwrite items, prices and menu version of a cart read earlier
+     * Empty if the cart changed since it was read (its revision moved on); read it again and retry
+     */
+    Optional<Cart> replace(Cart cart);
+
+    /**
+     * Store a cart built elsewhere (e.g. migrated from the old layout), keeping its expiry
+     * Does nothing and returns false if the user already has a cart or the given one has expired
+     */
+    boolean insertIfAbsent(Cart cart);
+
+    void deleteByUserId(String userId);
+
+    /**
+     * Claim up to limit users whose cart expiry has passed and return their ids
+     * A claimed user is skipped by other sweeps until the claim lease runs out; one whose cart was not
+     * ended with {@link #deleteExpired} by then is claimed again
+     */
+    List<String> claimExpired(int limit);
+
+    /**
+     * End a claimed cart, as read before by the sweep, and drop the user from the expiry index
+     * Pass null when the user had no cart. Returns false, keeping the cart, if it was written since it was read
+     */
+    boolean deleteExpired(String userId, Cart expired);
+}
@@ -0,0 +1,417 @@
+package com.foodexpress.cart.repository.codec;
+
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Carts as a schema version byte followed by MessagePack, so scripts/cart.lua can read and write
+ * them with the cmsgpack library built into Redis
+ *
+ * Schema 1 writes a cart and each of its items as a map from small integer tags to values, leaving
+ * out absent fields; field names are implied by the tags below and never stored. Integers take the
+ * smallest MessagePack width that holds them (1 byte up to 127, 5 bytes for an amount up to
+ * ~4 crore), money is in paise and times are epoch milliseconds. The reader also accepts the
+ * array form (tag = position) that cmsgpack produces when no field is missing, and skips
+ * tags it doesn't know, so fields can be added within a schema version.
+ */
+@Component
+public class BinaryCartCodec implements CartCodec {
+
+    public static final String NAME = "binary";
+
+    /**
+     * First byte of every value; bump it for changes older readers can't skip over
+     */
+    static final byte SCHEMA_V1 = 0x01;
+
+    // Cart tags
+    private static final int USER_ID = 1;
+    private static final int RESTAURANT_ID = 2;
+    private static final int RESTAURANT_NAME = 3;
+    private static final int MENU_VERSION = 4;
+    private static final int ITEMS = 5;
+    private static final int TOTAL_AMOUNT = 6;
+    private static final int TOTAL_ITEMS = 7;
+    private static final int REVISION = 8;
+    private static final int CREATED_AT = 9;
+    private static final int UPDATED_AT = 10;
+    private static final int EXPIRES_AT = 11;
+
+    // Item tags
+    private static final int MENU_ITEM_ID = 1;
+    private static final int ITEM_NAME = 2;
+    private static final int PRICE = 3;
+    private static final int QUANTITY = 4;
+    private static final int IMAGE_URL = 5;
+    private static final int CUSTOMIZATIONS = 6;
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public boolean canDecode(byte[] value) {
+        return value.length > 0 && value[0] == SCHEMA_V1;
+    }
+
+    @Override
+    public byte[] encode(StoredCart cart) {
+        Writer out = new Writer();
+        out.writeByte(SCHEMA_V1);
+
+        List<StoredItem> items = cart.items() != null ? cart.items() : List.of();
+        out.writeMapHeader(count(cart.userId(), cart.restaurantId(), cart.restaurantName(), cart.menuVersion(), items,
+                cart.totalAmount(), cart.totalItems(), cart.revision(), cart.createdAt(), cart.updatedAt(), cart.expiresAt()));
+        out.writeField(USER_ID, cart.userId());
+        out.writeField(RESTAURANT_ID, cart.restaurantId());
+        out.writeField(RESTAURANT_NAME, cart.restaurantName());
+        out.writeField(MENU_VERSION, cart.menuVersion());
+        out.writeInt(ITEMS);
+        out.writeArrayHeader(items.size());
+        for (StoredItem item : items) {
+            out.writeMapHeader(count(item.menuItemId(), item.itemName(), item.price(), item.quantity(),
+                    item.imageUrl(), item.customizations()));
+            out.writeField(MENU_ITEM_ID, item.menuItemId());
+            out.writeField(ITEM_NAME, item.itemName());
+            out.writeField(PRICE, item.price());
+            out.writeField(QUANTITY, (long) item.quantity());
+            out.writeField(IMAGE_URL, item.imageUrl());
+            out.writeField(CUSTOMIZATIONS, item.customizations());
+        }
+        out.writeField(TOTAL_AMOUNT, cart.totalAmount());
+        out.writeField(TOTAL_ITEMS, cart.totalItems() != null ? cart.totalItems().longValue() : null);
+        out.writeField(REVISION, cart.revision());
+        out.writeField(CREATED_AT, cart.createdAt());
+        out.writeField(UPDATED_AT, cart.updatedAt());
+        out.writeField(EXPIRES_AT, cart.expiresAt());
+        return out.toByteArray();
+    }
+
+    @Override
+    public StoredCart decode(byte[] value) {
+        if (!canDecode(value)) {
+            throw new IllegalStateException("Stored cart has an unsupported schema version: " + (value.length > 0 ? value[0] : "none"));
+        }
+        Reader in = new Reader(value, 1);
+
+        Object[] fields = in.readFields(EXPIRES_AT);
+        List<StoredItem> items = new ArrayList<>();
+        if (fields[ITEMS] instanceof List<?> list) {
+            for (Object element : list) {
+                Object[] item = (Object[]) element;
+                items.add(new StoredItem((String) item[MENU_ITEM_ID], (String) item[ITEM_NAME],
+                        item[PRICE] != null ? (Long) item[PRICE] : 0, item[QUANTITY] != null ? ((Long) item[QUANTITY]).intValue() : 0,
+                        (String) item[IMAGE_URL], (String) item[CUSTOMIZATIONS]));
+            }
+        }
+
+        return new StoredCart((String) fields[USER_ID], (String) fields[RESTAURANT_ID], (String) fields[RESTAURANT_NAME],
+                (Long) fields[MENU_VERSION], items.isEmpty() ? null : items, (Long) fields[TOTAL_AMOUNT],
+                fields[TOTAL_ITEMS] != null ? ((Long) fields[TOTAL_ITEMS]).intValue() : null, (Long) fields[REVISION],
+                (Long) fields[CREATED_AT], (Long) fields[UPDATED_AT], (Long) fields[EXPIRES_AT]);
+    }
+
+    private static int count(Object... values) {
+        int present = 0;
+        for (Object value : values) {
+            if (value != null) {
+                present++;
+            }
+        }
+        return present;
+    }
+
+    /**
+     * The subset of MessagePack the schema needs: maps, arrays, integers and UTF-8 strings
+     */
+    private static final class Writer {
+
+        private byte[] buffer = new byte[128];
+        private int length;
+
+        void writeField(int tag, String value) {
+            if (value != null) {
+                writeInt(tag);
+                writeString(value);
+            }
+        }
+
+        void writeField(int tag, Long value) {
+            if (value != null) {
+                writeInt(tag);
+                writeInt(value);
+            }
+        }
+
+        void writeMapHeader(int size) {
+            if (size < 16) {
+                writeByte(0x80 | size);
+            } else {
+                writeByte(0xde);
+                writeShort(size);
+            }
+        }
+
+        void writeArrayHeader(int size) {
+            if (size < 16) {
+                writeByte(0x90 | size);
+            } else if (size < 0x10000) {
+                writeByte(0xdc);
+                writeShort(size);
+            } else {
+                writeByte(0xdd);
+                writeUnsignedInt(size);
+            }
+        }
+
+        void writeInt(long value) {
+            if (value >= 0) {
+                if (value < 0x80) {
+                    writeByte((int) value);
+                } else if (value < 0x100) {
+                    writeByte(0xcc);
+                    writeByte((int) value);
+                } else if (value < 0x10000) {
+                    writeByte(0xcd);
+                    writeShort((int) value);
+                } else if (value < 0x100000000L) {
+                    writeByte(0xce);
+                    writeUnsignedInt(value);
+                } else {
+                    writeByte(0xd3);
+                    writeLong(value);
+                }
+            } else if (value >= -32) {
+                writeByte((int) value & 0xff);
+            } else if (value >= Byte.MIN_VALUE) {
+                writeByte(0xd0);
+                writeByte((int) value & 0xff);
+            } else if (value >= Short.MIN_VALUE) {
+                writeByte(0xd1);
+                writeShort((int) value & 0xffff);
+            } else if (value >= Integer.MIN_VALUE) {
+                writeByte(0xd2);
+                writeUnsignedInt(value & 0xffffffffL);
+            } else {
+                writeByte(0xd3);
+                writeLong(value);
+            }
+        }
+
+        void writeString(String value) {
+            byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+            if (utf8.length < 32) {
+                writeByte(0xa0 | utf8.length);
+            } else if (utf8.length < 0x100) {
+                writeByte(0xd9);
+                writeByte(utf8.length);
+            } else if (utf8.length < 0x10000) {
+                writeByte(0xda);
+                writeShort(utf8.length);
+            } else {
+                writeByte(0xdb);
+                writeUnsignedInt(utf8.length);
+            }
+            ensureCapacity(utf8.length);
+            System.arraycopy(utf8, 0, buffer, length, utf8.length);
+            length += utf8.length;
+        }
+
+        void writeByte(int value) {
+            ensureCapacity(1);
+            buffer[length++] = (byte) value;
+        }
+
+        private void writeShort(int value) {
+            writeByte(value >>> 8);
+            writeByte(value);
+        }
+
+        private void writeUnsignedInt(long value) {
+            writeShort((int) (value >>> 16) & 0xffff);
+            writeShort((int) value & 0xffff);
+        }
+
+        private void writeLong(long value) {
+            writeUnsignedInt(value >>> 32);
+            writeUnsignedInt(value & 0xffffffffL);
+        }
+
+        private void ensureCapacity(int extra) {
+            if (length + extra > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, length + extra));
+            }
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buffer, length);
+        }
+    }
+
+    /**
+     * Reads what {@link Writer} and cmsgpack write: integers as Long (floats with no fraction included,
+     * as Lua numbers are doubles), strings and binaries as String, arrays as List, tagged maps as Object[]
+     */
+    private static final class Reader {
+
+        private final byte[] buffer;
+        private int position;
+
+        Reader(byte[] buffer, int position) {
+            this.buffer = buffer;
+            this.position = position;
+        }
+
+        /**
+         * Read a tagged map, or an array in tag order, into an array indexed by tag; unknown tags are skipped
+         */
+        Object[] readFields(int maxTag) {
+            Object[] fields = new Object[maxTag + 1];
+            int format = readByte();
+            if (isMap(format)) {
+                int size = containerSize(format);
+                for (int i = 0; i < size; i++) {
+                    Object tag = readValue();
+                    Object value = readValue();
+                    if (tag instanceof Long index && index > 0 && index <= maxTag) {
+                        fields[index.intValue()] = value;
+                    }
+                }
+            } else if (isArray(format)) {
+                int size = containerSize(format);
+                for (int i = 1; i <= size; i++) {
+                    Object value = readValue();
+                    if (i <= maxTag) {
+                        fields[i] = value;
+                    }
+                }
+            } else {
+                throw malformed();
+            }
+            return fields;
+        }
+
+        private Object readValue() {
+            int format = readByte();
+            if (format <= 0x7f) {
+                return (long) format;
+            }
+            if (format >= 0xe0) {
+                return (long) (byte) format;
+            }
+            if (format >= 0xa0 && format <= 0xbf) {
+                return readString(format & 0x1f);
+            }
+            if (isArray(format)) {
+                int size = containerSize(format);
+                List<Object> values = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    values.add(readElement());
+                }
+                return values;
+            }
+            if (isMap(format)) {
+                // Only items are nested maps, and those are tagged
+                position--;
+                return readFields(CUSTOMIZATIONS);
+            }
+            return switch (format) {
+                case 0xc0 -> null;
+                case 0xc2 -> Boolean.FALSE;
+                case 0xc3 -> Boolean.TRUE;
+                case 0xc4, 0xd9 -> readString(readByte());
+                case 0xc5, 0xda -> readString(readShort());
+                case 0xc6, 0xdb -> readString(readLength());
+                case 0xca -> toLong(Float.intBitsToFloat((int) readUnsignedInt()));
+                case 0xcb -> toLong(Double.longBitsToDouble(readLong()));
+                case 0xcc -> (long) readByte();
+                case 0xcd -> (long) readShort();
+                case 0xce -> readUnsignedInt();
+                case 0xcf, 0xd3 -> readLong();
+                case 0xd0 -> (long) (byte) readByte();
+                case 0xd1 -> (long) (short) readShort();
+                case 0xd2 -> (long) (int) readUnsignedInt();
+                default -> throw malformed();
+            };
+        }
+
+        /**
+         * Array elements are items: tagged maps, or arrays in tag order
+         */
+        private Object readElement() {
+            int format = buffer[position] & 0xff;
+            if (isMap(format) || isArray(format)) {
+                return readFields(CUSTOMIZATIONS);
+            }
+            return readValue();
+        }
+
+        private static boolean isMap(int format) {
+            return (format >= 0x80 && format <= 0x8f) || format == 0xde || format == 0xdf;
+        }
+
+        private static boolean isArray(int format) {
+            return (format >= 0x90 && format <= 0x9f) || format == 0xdc || format == 0xdd;
+        }
+
+        private int containerSize(int format) {
+            return switch (format) {
+                case 0xdc, 0xde -> readShort();
+                case 0xdd, 0xdf -> readLength();
+                default -> format & 0x0f;
+            };
+        }
+
+        private String readString(int size) {
+            if (size > buffer.length - position) {
+                throw malformed();
+            }
+            String value = new String(buffer, position, size, StandardCharsets.UTF_8);
+            position += size;
+            return value;
+        }
+
+        private static long toLong(double value) {
+            if (value != Math.rint(value)) {
+                throw new IllegalStateException("Stored cart has a fractional number: " + value);
+            }
+            return (long) value;
+        }
+
+        private int readByte() {
+            if (position >= buffer.length) {
+                throw malformed();
+            }
+            return buffer[position++] & 0xff;
+        }
+
+        private int readShort() {
+            return readByte() << 8 | readByte();
+        }
+
+        private long readUnsignedInt() {
+            return (long) readShort() << 16 | readShort();
+        }
+
+        private int readLength() {
+            long length = readUnsignedInt();
+            if (length > buffer.length) {
+                throw malformed();
+            }
+            return (int) length;
+        }
+
+        private long readLong() {
+            return readUnsignedInt() << 32 | readUnsignedInt();
+        }
+
+        private static IllegalStateException malformed() {
+            return new IllegalStateException("Stored cart is not valid MessagePack");
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.foodexpress.cart.repository.codec;
+
+/**
+ * Format of the cart values in Redis
+ *
+ * Values written by any codec stay readable whichever one is configured: every format is recognised
+ * by its first byte, and scripts/cart.lua decodes all of them and writes back in the configured one.
+ * A new codec therefore needs a first byte no other format starts with, and support in the script.
+ */
+public interface CartCodec {
+
+    /**
+     * Name used in cart.store.codec and passed to scripts/cart.lua
+     */
+    String name();
+
+    /**
+     * True if the value was written by this codec
+     */
+    boolean canDecode(byte[] value);
+
+    byte[] encode(StoredCart cart);
+
+    StoredCart decode(byte[] value);
+}
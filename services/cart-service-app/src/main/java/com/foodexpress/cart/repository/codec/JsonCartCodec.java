@@ -0,0 +1,60 @@
+package com.foodexpress.cart.repository.codec;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+/**
+ * Carts as JSON objects, the original format; always starts with '{'
+ */
+@Component
+public class JsonCartCodec implements CartCodec {
+
+    public static final String NAME = "json";
+
+    private static final ObjectMapper JSON = new ObjectMapper()
+            .setSerializationInclusion(JsonInclude.Include.NON_NULL) // The script can't tell JSON null from a value
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public boolean canDecode(byte[] value) {
+        return value.length > 0 && value[0] == '{';
+    }
+
+    @Override
+    public byte[] encode(StoredCart cart) {
+        try {
+            return JSON.writeValueAsBytes(cart);
+        } catch (IOException e) {
+            throw new IllegalStateException("Cart could not be serialized", e);
+        }
+    }
+
+    /**
+     * Items travel to scripts/cart.lua as JSON whatever the stored format
+     */
+    public byte[] encode(StoredItem item) {
+        try {
+            return JSON.writeValueAsBytes(item);
+        } catch (IOException e) {
+            throw new IllegalStateException("Cart item could not be serialized", e);
+        }
+    }
+
+    @Override
+    public StoredCart decode(byte[] value) {
+        try {
+            return JSON.readValue(value, StoredCart.class);
+        } catch (IOException e) {
+            throw new IllegalStateException("Stored cart could not be read", e);
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.foodexpress.cart.repository.codec;
+
+import java.util.List;
+
+/**
+ * A cart as kept in Redis: money in minor units (paise), times in epoch milliseconds
+ * Field names are the ones scripts/cart.lua reads and writes
+ */
+public record StoredCart(String userId, String restaurantId, String restaurantName, Long menuVersion,
+                         List<StoredItem> items, Long totalAmount, Integer totalItems, Long revision,
+                         Long createdAt, Long updatedAt, Long expiresAt) {
+
+    public StoredCart withExpiry(long expiresAt) {
+        return new StoredCart(userId, restaurantId, restaurantName, menuVersion, items, totalAmount, totalItems,
+                revision, createdAt, updatedAt, expiresAt);
+    }
+}
@@ -0,0 +1,8 @@
+package com.foodexpress.cart.repository.codec;
+
+/**
+ * A cart line as kept in Redis, price in minor units (paise)
+ */
+public record StoredItem(String menuItemId, String itemName, long price, int quantity,
+                         String imageUrl, String customizations) {
+}
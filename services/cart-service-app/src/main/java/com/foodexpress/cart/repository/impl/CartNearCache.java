@@ -0,0 +1,120 @@
+package com.foodexpress.cart.repository.impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.SubscriptionListener;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Size-bounded, in-process cache of stored cart values, keyed by user id
+ *
+ * Every cart write publishes '{userId} {time}' on the invalidation channel from inside its script
+ * (see scripts/cart.lua), so each instance drops its copy right after any instance changes the cart.
+ * A read that races with a write is not cached: invalidations bump a per-user generation, and a value
+ * is only stored if the generation it was read under is still current.
+ * Hit / miss / eviction metrics are exported as cache.* meters with cache=cartNearCache.
+ */
+@Component
+@ConditionalOnProperty(name = "cart.near-cache.enabled", havingValue = "true")
+@Slf4j
+public class CartNearCache implements MessageListener, SubscriptionListener {
+
+    private static final int GENERATION_STRIPES = 1024;
+
+    private final Cache<String, byte[]> cache;
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+    private final Timer invalidationLag;
+
+    public CartNearCache(MeterRegistry meterRegistry,
+                         @Value("${cart.near-cache.max-size:10000}") long maxSize,
+                         @Value("${cart.near-cache.expire-after-write:60s}") Duration expireAfterWrite) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(expireAfterWrite) // Bounds staleness while the subscription is down
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "cartNearCache");
+        Gauge.builder("cart.near-cache.hit.ratio", cache, c -> c.stats().hitRate())
+                .description("Share of cart reads served from the near cache")
+                .register(meterRegistry);
+        this.invalidationLag = Timer.builder("cart.near-cache.invalidation.lag")
+                .description("Time from a cart write in Redis to its invalidation arriving here")
+                .register(meterRegistry);
+    }
+
+    /**
+     * The cached stored value of the user's cart, or null
+     */
+    public byte[] get(String userId) {
+        return cache.getIfPresent(userId);
+    }
+
+    /**
+     * Take before reading the value from Redis, and hand to {@link #putIfUnchanged}
+     */
+    public long generation(String userId) {
+        return generations.get(stripe(userId));
+    }
+
+    /**
+     * Cache a value read from Redis, unless the cart was invalidated since the generation was taken
+     */
+    public void putIfUnchanged(String userId, byte[] value, long generation) {
+        cache.asMap().compute(userId, (key, current) ->
+                generations.get(stripe(key)) == generation ? value : current);
+    }
+
+    public void invalidate(String userId) {
+        cache.asMap().compute(userId, (key, current) -> {
+            generations.incrementAndGet(stripe(key));
+            return null;
+        });
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int separator = body.lastIndexOf(' ');
+        if (separator <= 0) {
+            log.warn("Ignoring malformed cart invalidation: {}", body);
+            return;
+        }
+        invalidate(body.substring(0, separator));
+
+        // Measured against the clock of the instance that wrote, so skew between hosts shows up here
+        long lag = System.currentTimeMillis() - Long.parseLong(body.substring(separator + 1));
+        if (lag >= 0) {
+            invalidationLag.record(lag, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Invalidations may have been missed while not subscribed, so start over
+     */
+    @Override
+    public void onChannelSubscribed(byte[] channel, long count) {
+        for (int i = 0; i < GENERATION_STRIPES; i++) {
+            generations.incrementAndGet(i);
+        }
+        cache.invalidateAll();
+        log.info("Subscribed to cart invalidations, near cache cleared");
+    }
+
+    private static int stripe(String userId) {
+        return Math.floorMod(userId.hashCode(), GENERATION_STRIPES);
+    }
+}
@@ -0,0 +1,105 @@
+package com.foodexpress.cart.repository.impl;
+
+import com.foodexpress.cart.entity.Cart;
+import com.foodexpress.cart.repository.CartStore;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.DataType;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.convert.Bucket;
+import org.springframework.data.redis.core.convert.MappingRedisConverter;
+import org.springframework.data.redis.core.convert.RedisData;
+import org.springframework.data.redis.core.mapping.RedisMappingContext;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * One-off move of carts written by the old Spring Data repository into the {@link CartStore}
+ *
+ * The old layout kept each cart as a flattened hash cart:{userId} plus index bookkeeping:
+ * the cart keyspace set, a cart:userId:{userId} set per user and a cart:{userId}:idx set per cart.
+ * Every hash is read back with the same converter that wrote it, stored under the new key unless the
+ * user already has a new cart, and then deleted together with its index entries. Expired carts are
+ * dropped. Safe to run repeatedly; switch it on once no instance writes the old layout any more.
+ */
+@Component
+@ConditionalOnProperty(name = "cart.store.migrate-legacy-keys", havingValue = "true")
+@Slf4j
+public class LegacyCartMigration {
+
+    static final String LEGACY_KEYSPACE = "cart";
+
+    private final StringRedisTemplate redisTemplate;
+    private final CartStore cartStore;
+    private final MappingRedisConverter converter;
+
+    public LegacyCartMigration(StringRedisTemplate redisTemplate, CartStore cartStore) {
+        this.redisTemplate = redisTemplate;
+        this.cartStore = cartStore;
+        this.converter = new MappingRedisConverter(new RedisMappingContext());
+        this.converter.afterPropertiesSet();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrate() {
+        ScanOptions legacyCarts = ScanOptions.scanOptions()
+                .match(LEGACY_KEYSPACE + ":*")
+                .type(DataType.HASH) // Skips the index sets sharing the prefix
+                .count(500)
+                .build();
+
+        int migrated = 0;
+        int dropped = 0;
+        try (Cursor<String> keys = redisTemplate.scan(legacyCarts)) {
+            while (keys.hasNext()) {
+                if (migrate(keys.next())) {
+                    migrated++;
+                } else {
+                    dropped++;
+                }
+            }
+        }
+
+        if (migrated + dropped > 0) {
+            log.info("Migrated {} legacy carts, dropped {} expired, empty or superseded ones", migrated, dropped);
+        }
+    }
+
+    /**
+     * Move one legacy cart; true if it was stored under the new key
+     */
+    boolean migrate(String key) {
+        String userId = key.substring(LEGACY_KEYSPACE.length() + 1);
+        Map<byte[], byte[]> hash = redisTemplate.execute((RedisCallback<Map<byte[], byte[]>>) connection ->
+                connection.hashCommands().hGetAll(key.getBytes(StandardCharsets.UTF_8)));
+
+        boolean stored = false;
+        if (hash != null && !hash.isEmpty()) {
+            Cart cart = converter.read(Cart.class, new RedisData(Bucket.newBucketFromRawMap(hash)));
+            cart.setId(userId);
+            cart.setUserId(userId);
+            stored = !cart.getItems().isEmpty() && cartStore.insertIfAbsent(cart);
+        }
+
+        removeLegacyKeys(key, userId);
+        return stored;
+    }
+
+    private void removeLegacyKeys(String key, String userId) {
+        String indexKey = key + ":idx";
+        Set<String> indexes = redisTemplate.opsForSet().members(indexKey);
+        if (indexes != null) {
+            indexes.forEach(index -> redisTemplate.opsForSet().remove(index, userId));
+        }
+        redisTemplate.opsForSet().remove(LEGACY_KEYSPACE, userId);
+        redisTemplate.delete(Set.of(key, indexKey));
+    }
+}
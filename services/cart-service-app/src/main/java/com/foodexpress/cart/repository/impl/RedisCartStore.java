@@ -0,0 +1,292 @@
+package com.foodexpress.cart.repository.impl;
+
+import com.foodexpress.cart.entity.Cart;
+import com.foodexpress.cart.entity.CartItem;
+import com.foodexpress.cart.exception.CartNotFoundException;
+import com.foodexpress.cart.exception.InvalidCartOperationException;
+import com.foodexpress.cart.repository.CartStore;
+import com.foodexpress.cart.repository.codec.CartCodec;
+import com.foodexpress.cart.repository.codec.JsonCartCodec;
+import com.foodexpress.cart.repository.codec.StoredCart;
+import com.foodexpress.cart.repository.codec.StoredItem;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * {@link CartStore} keeping each cart as one value per user, changed only by scripts/cart.lua
+ * Values are written in the configured {@link CartCodec} and read in any of them; prices and
+ * totals are stored in minor units so the script can add them up exactly.
+ * With cart.near-cache.enabled, reads are served from a {@link CartNearCache} kept current by
+ * the invalidations the scripts publish
+ */
+@Repository
+@Slf4j
+public class RedisCartStore implements CartStore {
+
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> CART_SCRIPT = RedisScript.of(new ClassPathResource("scripts/cart.lua"), List.class);
+
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> EXPIRY_SCRIPT = RedisScript.of(new ClassPathResource("scripts/cart-expiry.lua"), List.class);
+
+    private final RedisTemplate<String, byte[]> redisTemplate;
+    private final JsonCartCodec jsonCodec;
+    private final List<CartCodec> codecs;
+    private final CartCodec codec;
+    private final String keyPrefix;
+    private final String expiryKey;
+    private final long ttlMillis;
+    private final long graceMillis;
+    private final long claimLeaseMillis;
+    private final int maxItems;
+    private final String invalidationChannel;
+    private final CartNearCache nearCache;
+
+    public RedisCartStore(RedisConnectionFactory connectionFactory,
+                          JsonCartCodec jsonCodec,
+                          List<CartCodec> codecs,
+                          @Value("${cart.store.codec:binary}") String codecName,
+                          @Value("${cart.store.key-prefix:carts:}") String keyPrefix,
+                          @Value("${cart.store.expiry-key:carts-by-expiry}") String expiryKey,
+                          @Value("${cart.expiry.minutes:30}") long expiryMinutes,
+                          @Value("${cart.expiry.grace-minutes:10}") long graceMinutes,
+                          @Value("${cart.expiry.claim-lease-ms:60000}") long claimLeaseMillis,
+                          @Value("${cart.max-items:50}") int maxItems,
+                          @Value("${cart.store.invalidation-channel:cart-invalidations}") String invalidationChannel,
+                          Optional<CartNearCache> nearCache) {
+        // Values are raw bytes: the binary codec isn't valid UTF-8
+        this.redisTemplate = new RedisTemplate<>();
+        this.redisTemplate.setConnectionFactory(connectionFactory);
+        this.redisTemplate.setKeySerializer(RedisSerializer.string());
+        this.redisTemplate.setValueSerializer(RedisSerializer.byteArray());
+        this.redisTemplate.afterPropertiesSet();
+
+        this.jsonCodec = jsonCodec;
+        this.codecs = codecs;
+        this.codec = codecs.stream()
+                .filter(candidate -> candidate.name().equals(codecName))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unknown cart codec: " + codecName));
+        this.keyPrefix = keyPrefix;
+        this.expiryKey = expiryKey;
+        this.ttlMillis = expiryMinutes * 60_000;
+        this.graceMillis = graceMinutes * 60_000;
+        this.claimLeaseMillis = claimLeaseMillis;
+        this.maxItems = maxItems;
+        // Published to even without a near cache here, for the instances that have one
+        this.invalidationChannel = invalidationChannel;
+        this.nearCache = nearCache.orElse(null);
+    }
+
+    @Override
+    public Optional<Cart> findByUserId(String userId) {
+        if (nearCache == null) {
+            return findStoredByUserId(userId);
+        }
+
+        byte[] cached = nearCache.get(userId);
+        if (cached != null) {
+            return Optional.of(decode(cached));
+        }
+        long generation = nearCache.generation(userId);
+        byte[] value = redisTemplate.opsForValue().get(key(userId));
+        if (value == null) {
+            return Optional.empty();
+        }
+        nearCache.putIfUnchanged(userId, value, generation);
+        return Optional.of(decode(value));
+    }
+
+    @Override
+    public Optional<Cart> findStoredByUserId(String userId) {
+        return Optional.ofNullable(redisTemplate.opsForValue().get(key(userId))).map(this::decode);
+    }
+
+    @Override
+    public Cart addItem(String userId, String restaurantId, String restaurantName, Long menuVersion, CartItem item) {
+        List<byte[]> reply = run(userId, "ADD", bytes(restaurantId), bytes(restaurantName),
+                bytes(menuVersion != null ? menuVersion.toString() : ""), jsonCodec.encode(toStored(item)), bytes(maxItems));
+        return result(reply).orElseThrow();
+    }
+
+    @Override
+    public Cart updateItemQuantity(String userId, String menuItemId, int quantity) {
+        return result(run(userId, "UPDATE", bytes(menuItemId), bytes(quantity))).orElseThrow();
+    }
+
+    @Override
+    public Cart removeItem(String userId, String menuItemId) {
+        return result(run(userId, "REMOVE", bytes(menuItemId))).orElseThrow();
+    }
+
+    @Override
+    public Optional<Cart> replace(Cart cart) {
+        return result(run(cart.getUserId(), "REPLACE", bytes(cart.getRevision()), jsonCodec.encode(toStored(cart))));
+    }
+
+    @Override
+    public boolean insertIfAbsent(Cart cart) {
+        long now = System.currentTimeMillis();
+        long expiresAt = cart.getExpiresAt() != null ? toEpochMillis(cart.getExpiresAt()) : now + ttlMillis;
+        if (expiresAt <= now) {
+            return false;
+        }
+        List<byte[]> reply = run(cart.getUserId(), "INSERT", jsonCodec.encode(toStored(cart).withExpiry(expiresAt)));
+        return !"EXISTS".equals(status(reply)) && result(reply).isPresent();
+    }
+
+    @Override
+    public void deleteByUserId(String userId) {
+        run(userId, "DELETE");
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<String> claimExpired(int limit) {
+        List<byte[]> claimed = (List<byte[]>) redisTemplate.execute(EXPIRY_SCRIPT, List.of(expiryKey),
+                bytes(System.currentTimeMillis()), bytes(limit), bytes(claimLeaseMillis));
+        return claimed.stream().map(userId -> new String(userId, StandardCharsets.UTF_8)).toList();
+    }
+
+    @Override
+    public boolean deleteExpired(String userId, Cart expired) {
+        byte[] revision = expired != null ? bytes(expired.getRevision() != null ? expired.getRevision() : 0) : bytes("");
+        return "DELETED".equals(status(run(userId, "EXPIRE", revision)));
+    }
+
+    private String key(String userId) {
+        return keyPrefix + userId;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<byte[]> run(String userId, String operation, byte[]... arguments) {
+        byte[][] argv = new byte[arguments.length + 7][];
+        argv[0] = bytes(operation);
+        argv[1] = bytes(ttlMillis);
+        argv[2] = bytes(graceMillis);
+        argv[3] = bytes(System.currentTimeMillis());
+        argv[4] = bytes(userId);
+        argv[5] = bytes(codec.name());
+        argv[6] = bytes(invalidationChannel);
+        System.arraycopy(arguments, 0, argv, 7, arguments.length);
+        try {
+            return (List<byte[]>) redisTemplate.execute(CART_SCRIPT, List.of(key(userId), expiryKey), (Object[]) argv);
+        } finally {
+            // Don't wait for our own invalidation to come back: the next read here must see this write
+            if (nearCache != null) {
+                nearCache.invalidate(userId);
+            }
+        }
+    }
+
+    private static byte[] bytes(Object value) {
+        return String.valueOf(value).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String status(List<byte[]> reply) {
+        return new String(reply.get(0), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * The cart of an OK reply, empty on CONFLICT; every other status becomes the matching exception
+     */
+    private Optional<Cart> result(List<byte[]> reply) {
+        String status = status(reply);
+        return switch (status) {
+            case "OK" -> Optional.of(decode(reply.get(1)));
+            case "CONFLICT" -> Optional.empty();
+            case "NOT_FOUND" -> throw new CartNotFoundException("No active cart found");
+            case "DIFFERENT_RESTAURANT" -> throw new InvalidCartOperationException(
+                    "Cannot add items from different restaurants. Clear cart first.");
+            case "CART_FULL" -> throw new InvalidCartOperationException(
+                    "Cart is full. Maximum " + maxItems + " items allowed.");
+            default -> throw new IllegalStateException("Unexpected cart script reply: " + status);
+        };
+    }
+
+    private static StoredCart toStored(Cart cart) {
+        List<StoredItem> items = cart.getItems().stream().map(RedisCartStore::toStored).toList();
+        long totalAmount = items.stream().mapToLong(item -> item.price() * item.quantity()).sum();
+        int totalItems = items.stream().mapToInt(StoredItem::quantity).sum();
+        return new StoredCart(cart.getUserId(), cart.getRestaurantId(), cart.getRestaurantName(), cart.getMenuVersion(),
+                items.isEmpty() ? null : items, totalAmount, totalItems,
+                cart.getRevision() != null ? cart.getRevision() : 0L,
+                toEpochMillis(cart.getCreatedAt()), toEpochMillis(cart.getUpdatedAt()), toEpochMillis(cart.getExpiresAt()));
+    }
+
+    private static StoredItem toStored(CartItem item) {
+        return new StoredItem(item.getMenuItemId(), item.getItemName(), toMinor(item.getPrice()), item.getQuantity(),
+                item.getImageUrl(), item.getCustomizations());
+    }
+
+    private Cart decode(byte[] value) {
+        CartCodec reader = codecs.stream()
+                .filter(candidate -> candidate.canDecode(value))
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("Stored cart has an unknown format"));
+        StoredCart stored = reader.decode(value);
+        List<CartItem> items = new ArrayList<>();
+        if (stored.items() != null) {
+            for (StoredItem item : stored.items()) {
+                BigDecimal price = fromMinor(item.price());
+                items.add(CartItem.builder()
+                        .menuItemId(item.menuItemId())
+                        .itemName(item.itemName())
+                        .price(price)
+                        .quantity(item.quantity())
+                        .subtotal(price.multiply(BigDecimal.valueOf(item.quantity())))
+                        .imageUrl(item.imageUrl())
+                        .customizations(item.customizations())
+                        .build());
+            }
+        }
+
+        return Cart.builder()
+                .id(stored.userId())
+                .userId(stored.userId())
+                .restaurantId(stored.restaurantId())
+                .restaurantName(stored.restaurantName())
+                .menuVersion(stored.menuVersion())
+                .revision(stored.revision())
+                .items(items)
+                .totalAmount(fromMinor(stored.totalAmount() != null ? stored.totalAmount() : 0))
+                .totalItems(stored.totalItems() != null ? stored.totalItems() : 0)
+                .isActive(true)
+                .createdAt(toDateTime(stored.createdAt()))
+                .updatedAt(toDateTime(stored.updatedAt()))
+                .expiresAt(toDateTime(stored.expiresAt()))
+                .build();
+    }
+
+    private static long toMinor(BigDecimal amount) {
+        return amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    private static BigDecimal fromMinor(long minor) {
+        return BigDecimal.valueOf(minor, 2);
+    }
+
+    private static LocalDateTime toDateTime(Long epochMillis) {
+        return epochMillis != null ? LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault()) : null;
+    }
+
+    private static Long toEpochMillis(LocalDateTime dateTime) {
+        return dateTime != null ? dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() : null;
+    }
+}
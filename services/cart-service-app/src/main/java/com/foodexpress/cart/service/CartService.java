@@ -16,6 +16,12 @@ public interface CartService {
      */
     CartResponse getCart(String userId);
 
+    /**
+     * Check the whole cart against the restaurant's current menu before checkout
+     * Re-prices changed items and drops unavailable ones; skipped if the menu version is unchanged
+     */
+    CartResponse validateCart(String userId);
+
     /**
      * Update cart item quantity
      */
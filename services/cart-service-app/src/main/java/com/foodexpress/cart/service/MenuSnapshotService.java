@@ -0,0 +1,12 @@
+package com.foodexpress.cart.service;
+
+import com.foodexpress.cart.dto.response.MenuSnapshotResponse;
+
+public interface MenuSnapshotService {
+
+    /**
+     * Get the price table of the restaurant's current menu version
+     * One restaurant-service call; the table itself is only transferred when the version changed
+     */
+    MenuSnapshotResponse getSnapshot(String restaurantId);
+}
@@ -6,19 +6,22 @@ import com.foodexpress.cart.dto.request.AddToCartRequest;
 import com.foodexpress.cart.dto.request.UpdateCartItemRequest;
 import com.foodexpress.cart.dto.response.CartItemResponse;
 import com.foodexpress.cart.dto.response.CartResponse;
+import com.foodexpress.cart.dto.response.MenuSnapshotResponse;
 import com.foodexpress.cart.entity.Cart;
 import com.foodexpress.cart.entity.CartItem;
 import com.foodexpress.cart.exception.CartNotFoundException;
 import com.foodexpress.cart.exception.InvalidCartOperationException;
-import com.foodexpress.cart.repository.CartRepository;
+import com.foodexpress.cart.repository.CartStore;
 import com.foodexpress.cart.service.CartService;
+import com.foodexpress.cart.service.MenuSnapshotService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.time.LocalDateTime;
+import java.math.BigDecimal;
 import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -27,62 +30,39 @@ import java.util.stream.Collectors;
 @Slf4j
 public class CartServiceImpl implements CartService {
 
-    private final CartRepository cartRepository;
+    // A checkout validation that keeps losing to concurrent cart changes gives up after this many tries
+    private static final int MAX_VALIDATION_ATTEMPTS = 3;
+
+    private final CartStore cartStore;
+    private final MenuSnapshotService menuSnapshotService;
     // private final UserServiceClient userServiceClient; // Can be uncommented when User Service is ready
     // private final RestaurantServiceClient restaurantServiceClient; // Can be uncommented when Restaurant Service is ready
 
-    @Value("${cart.expiry.minutes:30}")
-    private Integer cartExpiryMinutes;
-
-    @Value("${cart.max-items:50}")
-    private Integer maxCartItems;
-
     @Override
     public CartResponse addToCart(String userId, AddToCartRequest request) {
         log.info("Adding item to cart for user: {}, restaurant: {}, menuItem: {}",
                 userId, request.getRestaurantId(), request.getMenuItemId());
 
-        // Get or create cart
-        Cart cart = cartRepository.findByUserId(userId)
-                .orElseGet(() -> createNewCart(userId, request.getRestaurantId()));
-
-        // Validate same restaurant
-        if (cart.getRestaurantId() != null && !cart.getRestaurantId().equals(request.getRestaurantId())) {
-            // If cart is empty/expired but old restaurant ID persists, we can clear it
-            if (cart.getItems().isEmpty()) {
-                cart.setRestaurantId(request.getRestaurantId());
-            } else {
-                throw new InvalidCartOperationException(
-                        "Cannot add items from different restaurants. Clear cart first.");
-            }
-        }
-
-        // Check max items limit
-        if (cart.getItems().size() >= maxCartItems) {
-            throw new InvalidCartOperationException(
-                    "Cart is full. Maximum " + maxCartItems + " items allowed.");
+        // Name and price come from the restaurant's current menu snapshot, never from the client
+        MenuSnapshotResponse snapshot = menuSnapshotService.getSnapshot(request.getRestaurantId());
+        MenuSnapshotResponse.Item menuItem = snapshot.getItems().get(request.getMenuItemId());
+        if (menuItem == null) {
+            throw new InvalidCartOperationException("Menu item is not available: " + request.getMenuItemId());
         }
 
-        // Create new cart item
-        // Note: AddToCartRequest fields need to handle Strings now if they were Longs,
-        // but for now I assume Request DTOs are updated or compatible.
         CartItem newItem = CartItem.builder()
-                .itemId(String.valueOf(request.getMenuItemId())) // Ensure String
-                .itemName(request.getItemName())
-                .price(request.getPrice())
+                .menuItemId(request.getMenuItemId())
+                .itemName(menuItem.getName())
+                .price(menuItem.getPrice())
                 .quantity(request.getQuantity())
                 .customizations(request.getCustomizations())
                 .imageUrl(request.getImageUrl())
-                .subtotal(request.getPrice().multiply(java.math.BigDecimal.valueOf(request.getQuantity())))
+                .subtotal(menuItem.getPrice().multiply(BigDecimal.valueOf(request.getQuantity())))
                 .build();
 
-        cart.addItem(newItem);
-
-        // Update cart totals and expiry
-        cart.setExpiresAt(LocalDateTime.now().plusMinutes(cartExpiryMinutes)); // requires adding expiresAt to Redis entity or using Redis TTL
-        cart.setUpdatedAt(LocalDateTime.now());
-
-        Cart savedCart = cartRepository.save(cart);
+        // Same-restaurant rule, max items, totals and expiry are all applied atomically by the store
+        Cart savedCart = cartStore.addItem(userId, request.getRestaurantId(), restaurantName(request.getRestaurantId()),
+                snapshot.getMenuVersion(), newItem);
 
         log.info("Cart updated successfully. Total items: {}, Total amount: {}",
                 savedCart.getTotalItems(), savedCart.getTotalAmount());
@@ -94,21 +74,52 @@ public class CartServiceImpl implements CartService {
     public CartResponse getCart(String userId) {
         log.info("Fetching cart for user: {}", userId);
 
-        Cart cart = cartRepository.findByUserId(userId)
+        Cart cart = cartStore.findByUserId(userId)
                 .orElseThrow(() -> new CartNotFoundException("No active cart found for user"));
 
         return mapToCartResponse(cart);
     }
 
+    @Override
+    public CartResponse validateCart(String userId) {
+        log.info("Validating cart for user: {}", userId);
+
+        for (int attempt = 1; ; attempt++) {
+            Cart cart = cartStore.findByUserId(userId)
+                    .orElseThrow(() -> new CartNotFoundException("No active cart found for user"));
+            if (cart.getItems().isEmpty()) {
+                throw new InvalidCartOperationException("Cart is empty");
+            }
+
+            // One lookup for the whole cart; nothing to check if the menu hasn't changed since the items were priced
+            MenuSnapshotResponse snapshot = menuSnapshotService.getSnapshot(cart.getRestaurantId());
+            if (snapshot.getMenuVersion().equals(cart.getMenuVersion())) {
+                CartResponse response = mapToCartResponse(cart);
+                response.setPricesChanged(false);
+                return response;
+            }
+
+            boolean changed = applySnapshot(cart, snapshot);
+            Optional<Cart> savedCart = cartStore.replace(cart);
+            if (savedCart.isPresent()) {
+                log.info("Cart for user: {} validated against menu version {}, changed: {}", userId, snapshot.getMenuVersion(), changed);
+                CartResponse response = mapToCartResponse(savedCart.get());
+                response.setPricesChanged(changed);
+                return response;
+            }
+
+            // The cart changed while we were re-pricing it; start over from its new state
+            if (attempt == MAX_VALIDATION_ATTEMPTS) {
+                throw new InvalidCartOperationException("Cart is being modified, please retry");
+            }
+        }
+    }
+
     @Override
     public CartResponse updateCartItem(String userId, String itemId, UpdateCartItemRequest request) {
         log.info("Updating cart item: {} for user: {}", itemId, userId);
 
-        Cart cart = cartRepository.findByUserId(userId)
-                .orElseThrow(() -> new CartNotFoundException("No active cart found"));
-
-        cart.updateItemQuantity(itemId, request.getQuantity());
-        Cart savedCart = cartRepository.save(cart);
+        Cart savedCart = cartStore.updateItemQuantity(userId, itemId, request.getQuantity());
 
         log.info("Cart item updated successfully");
         return mapToCartResponse(savedCart);
@@ -118,17 +129,8 @@ public class CartServiceImpl implements CartService {
     public CartResponse removeCartItem(String userId, String itemId) {
         log.info("Removing cart item: {} for user: {}", itemId, userId);
 
-        Cart cart = cartRepository.findByUserId(userId)
-                .orElseThrow(() -> new CartNotFoundException("No active cart found"));
-
-        cart.removeItem(itemId);
-
-        // If empty, we can either delete the cart or keep it empty
-        if (cart.getItems().isEmpty()) {
-             cart.setRestaurantId(null); // Reset restaurant
-        }
-
-        Cart savedCart = cartRepository.save(cart);
+        // An emptied cart is kept, with its restaurant and menu version reset by the store
+        Cart savedCart = cartStore.removeItem(userId, itemId);
 
         log.info("Cart item removed successfully");
         return mapToCartResponse(savedCart);
@@ -139,28 +141,37 @@ public class CartServiceImpl implements CartService {
         log.info("Clearing cart for user: {}", userId);
 
         // In Redis, we can just delete the key
-        cartRepository.deleteById(userId);
+        cartStore.deleteByUserId(userId);
 
         log.info("Cart cleared successfully for user: {}", userId);
     }
 
     // Helper methods
 
-    private Cart createNewCart(String userId, String restaurantId) {
-        log.info("Creating new cart for user: {}, restaurant: {}", userId, restaurantId);
-
+    private String restaurantName(String restaurantId) {
         // TODO: Fetch restaurant name from Restaurant Service
-        String restaurantName = "Restaurant-" + restaurantId;
-
-        return Cart.builder()
-                .id(userId) // Using userId as the ID for the Redis Hash
-                .userId(userId)
-                .restaurantId(restaurantId)
-                .restaurantName(restaurantName)
-                .isActive(true)
-                .createdAt(LocalDateTime.now())
-                .updatedAt(LocalDateTime.now())
-                .build();
+        return "Restaurant-" + restaurantId;
+    }
+
+    /**
+     * Re-price every item from the snapshot and drop the ones no longer on the menu
+     * Returns true if anything in the cart changed
+     */
+    private boolean applySnapshot(Cart cart, MenuSnapshotResponse snapshot) {
+        boolean changed = cart.getItems().removeIf(item -> !snapshot.getItems().containsKey(item.getMenuItemId()));
+        for (CartItem item : cart.getItems()) {
+            MenuSnapshotResponse.Item menuItem = snapshot.getItems().get(item.getMenuItemId());
+            if (item.getPrice() == null || menuItem.getPrice().compareTo(item.getPrice()) != 0
+                    || !Objects.equals(menuItem.getName(), item.getItemName())) {
+                item.setItemName(menuItem.getName());
+                item.setPrice(menuItem.getPrice());
+                item.setSubtotal(menuItem.getPrice().multiply(BigDecimal.valueOf(item.getQuantity())));
+                changed = true;
+            }
+        }
+        cart.setMenuVersion(snapshot.getMenuVersion());
+        cart.recalculateTotal();
+        return changed;
     }
 
     private CartResponse mapToCartResponse(Cart cart) {
@@ -171,12 +182,13 @@ public class CartServiceImpl implements CartService {
         return CartResponse.builder()
                 .id(Long.valueOf(cart.getId().hashCode())) // Mocking a Long ID for response compatibility if needed
                 .userId(Long.valueOf(cart.getUserId())) // Assuming user IDs are still numeric
-                .restaurantId(cart.getRestaurantId() != null ? Long.valueOf(cart.getRestaurantId().hashCode()) : null) // Mocking Long for compatibility
+                .restaurantId(cart.getRestaurantId())
                 .restaurantName(cart.getRestaurantName())
+                .menuVersion(cart.getMenuVersion())
                 .items(items)
                 .totalAmount(cart.getTotalAmount())
                 .totalItems(cart.getTotalItems())
-                // .expiresAt(cart.getExpiresAt())
+                .expiresAt(cart.getExpiresAt())
                 .createdAt(cart.getCreatedAt())
                 .updatedAt(cart.getUpdatedAt())
                 .build();
@@ -184,8 +196,8 @@ public class CartServiceImpl implements CartService {
 
     private CartItemResponse mapToCartItemResponse(CartItem item) {
         return CartItemResponse.builder()
-                .id(Long.valueOf(item.getItemId().hashCode())) // Mocking Long ID
-                .menuItemId(Long.valueOf(item.getItemId().hashCode())) // Mocking
+                .id(Long.valueOf(item.getMenuItemId().hashCode())) // Mocking Long ID
+                .menuItemId(item.getMenuItemId())
                 .itemName(item.getItemName())
                 .price(item.getPrice())
                 .quantity(item.getQuantity())
@@ -0,0 +1,61 @@
+package com.foodexpress.cart.service.impl;
+
+import com.foodexpress.cart.client.RestaurantServiceClient;
+import com.foodexpress.cart.dto.response.MenuSnapshotResponse;
+import com.foodexpress.cart.exception.InvalidCartOperationException;
+import com.foodexpress.cart.service.MenuSnapshotService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import feign.FeignException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+
+@Service
+@Slf4j
+public class MenuSnapshotServiceImpl implements MenuSnapshotService {
+
+    private final RestaurantServiceClient restaurantServiceClient;
+
+    // Latest snapshot seen per restaurant; a snapshot never changes for its version, so it is safe to keep
+    private final Cache<String, MenuSnapshotResponse> snapshots;
+
+    public MenuSnapshotServiceImpl(RestaurantServiceClient restaurantServiceClient,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${cart.menu-snapshot.max-size:1000}") long maxSize,
+                                   @Value("${cart.menu-snapshot.expire-after-write:30m}") Duration expireAfterWrite) {
+        this.restaurantServiceClient = restaurantServiceClient;
+        this.snapshots = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(expireAfterWrite) // Frees snapshots of restaurants nobody orders from any more
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, snapshots, "menuSnapshot");
+    }
+
+    @Override
+    public MenuSnapshotResponse getSnapshot(String restaurantId) {
+        MenuSnapshotResponse known = snapshots.getIfPresent(restaurantId);
+
+        MenuSnapshotResponse snapshot;
+        try {
+            snapshot = restaurantServiceClient.getMenuSnapshot(restaurantId, known != null ? known.getMenuVersion() : null).getData();
+        } catch (FeignException.NotFound ex) {
+            snapshots.invalidate(restaurantId);
+            throw new InvalidCartOperationException("Restaurant not found: " + restaurantId);
+        }
+
+        if (snapshot.isUnchanged() && known != null) {
+            return known;
+        }
+
+        log.debug("Menu snapshot for restaurant: {} is now version {}", restaurantId, snapshot.getMenuVersion());
+        snapshots.asMap().merge(restaurantId, snapshot,
+                (current, loaded) -> loaded.getMenuVersion() >= current.getMenuVersion() ? loaded : current);
+        return snapshot;
+    }
+}
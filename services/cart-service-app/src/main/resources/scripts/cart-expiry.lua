@@ -0,0 +1,20 @@
+-- Claims carts whose expiry has passed, for a lease: moves their score in the expiry index to the end
+-- of the lease and returns their user ids
+--
+-- KEYS[1]  expiry index: sorted set of user ids scored by the expiresAt of their cart
+-- ARGV[1]  current time in epoch milliseconds
+-- ARGV[2]  maximum number of carts to claim
+-- ARGV[3]  lease in milliseconds
+--
+-- Claiming is atomic, so with several instances sweeping each due cart is claimed by one of them.
+-- The sweeper publishes the cart and then ends it with the EXPIRE operation of cart.lua; a cart still
+-- in the index when the lease runs out is due again and claimed by the next sweep. A cart written
+-- in the meantime was re-scored by its write and is no longer due.
+-- Only the index is touched here: cart keys are read and deleted one by one, each as a declared key.
+
+local due = redis.call('ZRANGEBYSCORE', KEYS[1], '-inf', ARGV[1], 'LIMIT', 0, tonumber(ARGV[2]))
+local leaseEnd = tonumber(ARGV[1]) + tonumber(ARGV[3])
+for _, userId in ipairs(due) do
+    redis.call('ZADD', KEYS[1], 'XX', leaseEnd, userId)
+end
+return due
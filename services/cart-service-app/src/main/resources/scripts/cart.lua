@@ -0,0 +1,235 @@
+-- Atomic cart operations: each call reads, changes and writes back one cart in a single round trip
+--
+-- KEYS[1]  cart key
+-- KEYS[2]  expiry index: sorted set of user ids scored by the expiresAt of their cart
+-- ARGV[1]  operation: ADD | UPDATE | REMOVE | REPLACE | INSERT | DELETE | EXPIRE
+-- ARGV[2]  time to live in milliseconds, refreshed on every write
+-- ARGV[3]  grace in milliseconds the key outlives its expiry, so the expiry sweep can still read the cart
+-- ARGV[4]  current time in epoch milliseconds
+-- ARGV[5]  user id
+-- ARGV[6]  format to write the cart in: json | binary (see CartCodec); every format is read
+-- ARGV[7]  channel to publish '<user id> <time>' on after a change, for near caches; '' for none
+-- ARGV[8+] operation arguments, see below; carts and items passed in are always JSON
+--
+-- Returns { 'OK', stored cart } or { error code } with NOT_FOUND, DIFFERENT_RESTAURANT, CART_FULL, CONFLICT or EXISTS;
+-- DELETE and EXPIRE return { 'DELETED' }
+-- Money is stored in minor units (paise), so totals are exact integer sums
+
+local key = KEYS[1]
+local expiryIndex = KEYS[2]
+local operation = ARGV[1]
+local ttl = tonumber(ARGV[2])
+local grace = tonumber(ARGV[3])
+local now = tonumber(ARGV[4])
+local userId = ARGV[5]
+local codec = ARGV[6]
+local invalidationChannel = ARGV[7]
+
+-- Binary format: a schema version byte, then MessagePack maps from field tags to values
+-- (BinaryCartCodec); the position of a name below is its tag
+local BINARY_V1 = '\1'
+local CART_FIELDS = { 'userId', 'restaurantId', 'restaurantName', 'menuVersion', 'items', 'totalAmount',
+                      'totalItems', 'revision', 'createdAt', 'updatedAt', 'expiresAt' }
+local ITEM_FIELDS = { 'menuItemId', 'itemName', 'price', 'quantity', 'imageUrl', 'customizations' }
+
+local function untag(tagged, names)
+    local fields = {}
+    for index, name in ipairs(names) do
+        fields[name] = tagged[index]
+    end
+    return fields
+end
+
+local function tag(fields, names)
+    local tagged = {}
+    for index, name in ipairs(names) do
+        tagged[index] = fields[name]
+    end
+    return tagged
+end
+
+local function decode(raw)
+    local header = string.sub(raw, 1, 1)
+    if header == '{' then
+        return cjson.decode(raw)
+    elseif header == BINARY_V1 then
+        local cart = untag(cmsgpack.unpack(string.sub(raw, 2)), CART_FIELDS)
+        local items = {}
+        for i, item in ipairs(cart.items or {}) do
+            items[i] = untag(item, ITEM_FIELDS)
+        end
+        cart.items = items
+        return cart
+    end
+    error('Unknown stored cart format')
+end
+
+local function encode(cart)
+    if codec == 'binary' then
+        local tagged = tag(cart, CART_FIELDS)
+        local items = {}
+        for i, item in ipairs(cart.items or {}) do
+            items[i] = tag(item, ITEM_FIELDS)
+        end
+        tagged[5] = items
+        return BINARY_V1 .. cmsgpack.pack(tagged)
+    end
+    return cjson.encode(cart)
+end
+
+local function invalidate()
+    if invalidationChannel ~= '' then
+        redis.call('PUBLISH', invalidationChannel, userId .. ' ' .. ARGV[4])
+    end
+end
+
+local function load()
+    local raw = redis.call('GET', key)
+    if not raw then
+        return nil
+    end
+    local cart = decode(raw)
+    cart.items = cart.items or {}
+    return cart
+end
+
+local function indexOf(cart, menuItemId)
+    for i, item in ipairs(cart.items) do
+        if item.menuItemId == menuItemId then
+            return i
+        end
+    end
+    return nil
+end
+
+local function save(cart)
+    local totalAmount, totalItems = 0, 0
+    for _, item in ipairs(cart.items) do
+        totalAmount = totalAmount + item.price * item.quantity
+        totalItems = totalItems + item.quantity
+    end
+    cart.totalAmount = totalAmount
+    cart.totalItems = totalItems
+    cart.updatedAt = now
+    cart.expiresAt = now + ttl
+    cart.revision = (cart.revision or 0) + 1
+
+    -- cjson encodes an empty table as {}, so an empty cart is stored without items
+    if #cart.items == 0 then
+        cart.items = nil
+    end
+    local raw = encode(cart)
+    redis.call('SET', key, raw, 'PX', ttl + grace)
+    redis.call('ZADD', expiryIndex, cart.expiresAt, userId)
+    invalidate()
+    return { 'OK', raw }
+end
+
+if operation == 'ADD' then
+    -- ARGV[8] restaurant id, ARGV[9] restaurant name, ARGV[10] menu version the item was priced from,
+    -- ARGV[11] item json, ARGV[12] max distinct items
+    local cart = load() or { userId = userId, createdAt = now, items = {} }
+    local item = cjson.decode(ARGV[11])
+    local menuVersion = tonumber(ARGV[10])
+
+    if #cart.items == 0 then
+        cart.restaurantId = ARGV[8]
+        cart.restaurantName = ARGV[9]
+        cart.menuVersion = menuVersion
+    elseif cart.restaurantId ~= ARGV[8] then
+        return { 'DIFFERENT_RESTAURANT' }
+    elseif cart.menuVersion ~= menuVersion then
+        -- Items priced from different menu versions: checkout has to re-validate the whole cart
+        cart.menuVersion = nil
+    end
+
+    local index = indexOf(cart, item.menuItemId)
+    if index then
+        local existing = cart.items[index]
+        existing.quantity = existing.quantity + item.quantity
+        existing.price = item.price
+        existing.itemName = item.itemName
+    elseif #cart.items >= tonumber(ARGV[12]) then
+        return { 'CART_FULL' }
+    else
+        table.insert(cart.items, item)
+    end
+    return save(cart)
+
+elseif operation == 'UPDATE' then
+    -- ARGV[8] menu item id, ARGV[9] quantity
+    local cart = load()
+    if not cart then
+        return { 'NOT_FOUND' }
+    end
+    local index = indexOf(cart, ARGV[8])
+    if index then
+        cart.items[index].quantity = tonumber(ARGV[9])
+    end
+    return save(cart)
+
+elseif operation == 'REMOVE' then
+    -- ARGV[8] menu item id
+    local cart = load()
+    if not cart then
+        return { 'NOT_FOUND' }
+    end
+    local index = indexOf(cart, ARGV[8])
+    if index then
+        table.remove(cart.items, index)
+    end
+    if #cart.items == 0 then
+        cart.restaurantId = nil
+        cart.menuVersion = nil
+    end
+    return save(cart)
+
+elseif operation == 'REPLACE' then
+    -- ARGV[8] revision the replacement was derived from, ARGV[9] cart json
+    local cart = load()
+    if not cart then
+        return { 'NOT_FOUND' }
+    end
+    if cart.revision ~= tonumber(ARGV[8]) then
+        return { 'CONFLICT' }
+    end
+    local replacement = cjson.decode(ARGV[9])
+    replacement.items = replacement.items or {}
+    replacement.userId = cart.userId
+    replacement.createdAt = cart.createdAt
+    replacement.revision = cart.revision
+    return save(replacement)
+
+elseif operation == 'INSERT' then
+    -- ARGV[8] cart json with its own expiresAt; stored as is unless the user already has a cart
+    local cart = cjson.decode(ARGV[8])
+    local expiresAt = cart.expiresAt
+    local raw = encode(cart)
+    if not redis.call('SET', key, raw, 'NX', 'PX', expiresAt - now + grace) then
+        return { 'EXISTS' }
+    end
+    redis.call('ZADD', expiryIndex, expiresAt, userId)
+    invalidate()
+    return { 'OK', raw }
+
+elseif operation == 'DELETE' then
+    redis.call('DEL', key)
+    redis.call('ZREM', expiryIndex, userId)
+    invalidate()
+    return { 'DELETED' }
+elseif operation == 'EXPIRE' then
+    -- ARGV[8] revision of the cart the expiry sweep read and published, '' if it found none
+    -- Ends a claimed cart unless it was written since; a cart that is gone only leaves the index
+    local cart = load()
+    if cart and ((cart.expiresAt or 0) > now or (cart.revision or 0) ~= tonumber(ARGV[8])) then
+        return { 'CONFLICT' }
+    end
+    redis.call('DEL', key)
+    redis.call('ZREM', expiryIndex, userId)
+    if cart then
+        invalidate()
+    end
+    return { 'DELETED' }
+end
+
+return redis.error_reply('Unknown cart operation: ' .. tostring(operation))
@@ -0,0 +1,120 @@
+package com.foodexpress.cart.expiry;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.foodexpress.cart.entity.Cart;
+import com.foodexpress.cart.entity.CartItem;
+import com.foodexpress.cart.repository.CartStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CartExpirySweeperTest {
+
+    private static final String TOPIC = "abandoned-cart";
+
+    @Mock
+    private CartStore cartStore;
+
+    @Mock
+    private KafkaTemplate<String, String> kafkaTemplate;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private CartExpirySweeper sweeper;
+
+    @BeforeEach
+    void setUp() {
+        sweeper = new CartExpirySweeper(cartStore, kafkaTemplate, new ObjectMapper().registerModule(new JavaTimeModule()),
+                meterRegistry, TOPIC, 10, Duration.ofSeconds(1));
+    }
+
+    @Test
+    void anAbandonedCartIsDeletedOnlyAfterKafkaAcknowledgedIt() {
+        Cart cart = expiredCart("1042", 1);
+        when(cartStore.claimExpired(10)).thenReturn(List.of("1042"));
+        when(cartStore.findStoredByUserId("1042")).thenReturn(Optional.of(cart));
+        when(kafkaTemplate.send(eq(TOPIC), eq("1042"), anyString()))
+                .thenReturn(CompletableFuture.completedFuture(new SendResult<>(null, null)));
+        when(cartStore.deleteExpired("1042", cart)).thenReturn(true);
+
+        sweeper.sweep();
+
+        InOrder order = inOrder(kafkaTemplate, cartStore);
+        order.verify(kafkaTemplate).send(eq(TOPIC), eq("1042"), anyString());
+        order.verify(cartStore).deleteExpired("1042", cart);
+        assertEquals(1, meterRegistry.counter("cart.expired", "abandoned", "true").count());
+    }
+
+    @Test
+    void aFailedPublishKeepsTheCartForTheNextSweep() {
+        when(cartStore.claimExpired(10)).thenReturn(List.of("1042"));
+        when(cartStore.findStoredByUserId("1042")).thenReturn(Optional.of(expiredCart("1042", 1)));
+        when(kafkaTemplate.send(eq(TOPIC), eq("1042"), anyString()))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("broker down")));
+
+        sweeper.sweep();
+
+        verify(cartStore, never()).deleteExpired(anyString(), any());
+        assertEquals(1, meterRegistry.counter("cart.expired.publish.failed").count());
+        assertEquals(0, meterRegistry.counter("cart.expired", "abandoned", "true").count());
+    }
+
+    @Test
+    void emptyMissingAndRewrittenCartsAreNotPublished() {
+        Cart empty = expiredCart("7", 0);
+        Cart rewritten = expiredCart("9", 1);
+        rewritten.setExpiresAt(LocalDateTime.now().plusMinutes(30));
+        when(cartStore.claimExpired(10)).thenReturn(List.of("7", "8", "9"));
+        when(cartStore.findStoredByUserId("7")).thenReturn(Optional.of(empty));
+        when(cartStore.findStoredByUserId("8")).thenReturn(Optional.empty());
+        when(cartStore.findStoredByUserId("9")).thenReturn(Optional.of(rewritten));
+        when(cartStore.deleteExpired("7", empty)).thenReturn(true);
+        when(cartStore.deleteExpired("8", null)).thenReturn(true);
+
+        sweeper.sweep();
+
+        verify(kafkaTemplate, never()).send(anyString(), anyString(), anyString());
+        verify(cartStore, never()).deleteExpired(eq("9"), any());
+        assertEquals(2, meterRegistry.counter("cart.expired", "abandoned", "false").count());
+    }
+
+    private static Cart expiredCart(String userId, int items) {
+        Cart cart = Cart.builder()
+                .id(userId)
+                .userId(userId)
+                .restaurantId("r1")
+                .revision(3L)
+                .expiresAt(LocalDateTime.now().minusMinutes(1))
+                .build();
+        for (int i = 0; i < items; i++) {
+            cart.getItems().add(CartItem.builder().menuItemId("m" + i).itemName("Paneer Tikka")
+                    .price(new BigDecimal("250.00")).quantity(1).build());
+        }
+        cart.setTotalItems(items);
+        return cart;
+    }
+}
@@ -0,0 +1,122 @@
+package com.foodexpress.cart.repository.codec;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BinaryCartCodecTest {
+
+    private final BinaryCartCodec codec = new BinaryCartCodec();
+    private final JsonCartCodec jsonCodec = new JsonCartCodec();
+
+    @Test
+    void cartsSurviveARoundTripInWellUnderTheirJsonSize() {
+        StoredCart cart = new StoredCart("1042", "665f1c2e9b1d4a3f8c0e7a21", "Paradise Biryani", 17L,
+                List.of(new StoredItem("665f1c2e9b1d4a3f8c0e7a30", "Hyderabadi Chicken Biryani", 34900, 2, null, "extra raita"),
+                        new StoredItem("665f1c2e9b1d4a3f8c0e7a31", "Double Ka Meetha — ఖీర్", 12000, 1,
+                                "https://cdn.example.com/menu/double-ka-meetha.jpg", null)),
+                81800L, 3, 300L, 1760000000000L, 1760000123456L, 1760001923456L);
+
+        byte[] binary = codec.encode(cart);
+
+        assertEquals(BinaryCartCodec.SCHEMA_V1, binary[0]);
+        assertEquals(cart, codec.decode(binary));
+        assertTrue(codec.canDecode(binary));
+        assertFalse(jsonCodec.canDecode(binary));
+        // Ids, names and URLs are most of a cart; the field names, quotes and digits are what goes
+        assertTrue(binary.length * 10 < jsonCodec.encode(cart).length * 6,
+                () -> binary.length + " bytes against " + jsonCodec.encode(cart).length + " as JSON");
+    }
+
+    @Test
+    void absentFieldsAndEmptyCartsStayAbsent() {
+        StoredCart empty = new StoredCart("7", null, null, null, null, 0L, 0, 4L, 1760000000000L, 1760000000000L, 1760001800000L);
+
+        StoredCart decoded = codec.decode(codec.encode(empty));
+
+        assertEquals(empty, decoded);
+        assertNull(decoded.items());
+    }
+
+    @Test
+    void readsTheArrayFormRedisLuaWritesForCompleteTables() {
+        // cmsgpack packs a table without holes as an array in tag order, and may hand back Lua numbers as doubles
+        Bytes value = new Bytes().raw(BinaryCartCodec.SCHEMA_V1).raw(0x9b)
+                .str("42").str("r1").str("Cafe").raw(0x05)
+                .raw(0x91).raw(0x96).str("m1").str("Idli").raw(0xcd).u16(6000).raw(0x02).str("").str("")
+                .raw(0xce).u32(12000).raw(0x02).raw(0x09)
+                .raw(0xcb).f64(1760000000000d).raw(0xd3).u64(1760000000001L).raw(0xcf).u64(1760001800001L);
+
+        StoredCart decoded = codec.decode(value.toByteArray());
+
+        assertEquals(new StoredCart("42", "r1", "Cafe", 5L, List.of(new StoredItem("m1", "Idli", 6000, 2, "", "")),
+                12000L, 2, 9L, 1760000000000L, 1760000000001L, 1760001800001L), decoded);
+    }
+
+    @Test
+    void unknownTagsAreSkippedAndOtherSchemaVersionsRejected() {
+        // Map form with a tag 12 a newer writer added: { 1: "42", 12: [1, "x"], 8: 3 }
+        Bytes value = new Bytes().raw(BinaryCartCodec.SCHEMA_V1).raw(0x83)
+                .raw(0x01).str("42").raw(0x0c).raw(0x92).raw(0x01).str("x").raw(0x08).raw(0x03);
+
+        StoredCart decoded = codec.decode(value.toByteArray());
+
+        assertEquals("42", decoded.userId());
+        assertEquals(3L, decoded.revision());
+        assertThrows(IllegalStateException.class, () -> codec.decode(new byte[]{0x02, (byte) 0x80}));
+        assertThrows(IllegalStateException.class, () -> codec.decode(new byte[]{BinaryCartCodec.SCHEMA_V1, (byte) 0x81, 0x01}));
+    }
+
+    /**
+     * Hand-assembled MessagePack, independent of the codec's own writer
+     */
+    private static final class Bytes {
+
+        private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        Bytes raw(int value) {
+            out.write(value);
+            return this;
+        }
+
+        Bytes str(String value) {
+            byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+            out.write(0xa0 | utf8.length);
+            out.writeBytes(utf8);
+            return this;
+        }
+
+        Bytes u16(int value) {
+            out.writeBytes(ByteBuffer.allocate(2).putShort((short) value).array());
+            return this;
+        }
+
+        Bytes u32(long value) {
+            out.writeBytes(ByteBuffer.allocate(4).putInt((int) value).array());
+            return this;
+        }
+
+        Bytes u64(long value) {
+            out.writeBytes(ByteBuffer.allocate(8).putLong(value).array());
+            return this;
+        }
+
+        Bytes f64(double value) {
+            out.writeBytes(ByteBuffer.allocate(8).putDouble(value).array());
+            return this;
+        }
+
+        byte[] toByteArray() {
+            return out.toByteArray();
+        }
+    }
+}
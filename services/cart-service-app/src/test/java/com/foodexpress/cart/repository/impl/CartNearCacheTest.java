@@ -0,0 +1,62 @@
+package com.foodexpress.cart.repository.impl;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.DefaultMessage;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class CartNearCacheTest {
+
+    private static final byte[] CHANNEL = "cart-invalidations".getBytes(StandardCharsets.UTF_8);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CartNearCache nearCache = new CartNearCache(meterRegistry, 100, Duration.ofMinutes(1));
+
+    @Test
+    void invalidationMessagesDropTheCartAndRecordTheLag() {
+        nearCache.putIfUnchanged("1042", value("v1"), nearCache.generation("1042"));
+        assertArrayEquals(value("v1"), nearCache.get("1042"));
+
+        nearCache.onMessage(message("1042 " + (System.currentTimeMillis() - 5)), null);
+
+        assertNull(nearCache.get("1042"));
+        assertEquals(1, meterRegistry.timer("cart.near-cache.invalidation.lag").count());
+    }
+
+    @Test
+    void aValueReadBeforeAnInvalidationIsNotCached() {
+        long generation = nearCache.generation("1042");
+        // The cart changes and its invalidation arrives while the old value is on its way back from Redis
+        nearCache.invalidate("1042");
+
+        nearCache.putIfUnchanged("1042", value("stale"), generation);
+
+        assertNull(nearCache.get("1042"));
+    }
+
+    @Test
+    void resubscribingClearsEverythingAndVoidsReadsInFlight() {
+        nearCache.putIfUnchanged("1042", value("v1"), nearCache.generation("1042"));
+        long generation = nearCache.generation("7");
+
+        nearCache.onChannelSubscribed(CHANNEL, 1);
+        nearCache.putIfUnchanged("7", value("v1"), generation);
+
+        assertNull(nearCache.get("1042"));
+        assertNull(nearCache.get("7"));
+    }
+
+    private static byte[] value(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static DefaultMessage message(String body) {
+        return new DefaultMessage(CHANNEL, body.getBytes(StandardCharsets.UTF_8));
+    }
+}
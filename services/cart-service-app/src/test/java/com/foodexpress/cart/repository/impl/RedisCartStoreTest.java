@@ -0,0 +1,161 @@
+package com.foodexpress.cart.repository.impl;
+
+import com.foodexpress.cart.entity.CartItem;
+import com.foodexpress.cart.repository.codec.BinaryCartCodec;
+import com.foodexpress.cart.repository.codec.JsonCartCodec;
+import com.foodexpress.cart.repository.codec.StoredCart;
+import com.foodexpress.cart.repository.codec.StoredItem;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.invocation.Invocation;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.ReturnType;
+
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockingDetails;
+import static org.mockito.Mockito.when;
+
+/**
+ * Redis round trips per cart request, counted on the connection the store is given
+ *
+ * CartStoreCommandBenchmark measures the same against a real server, next to the old repository
+ */
+class RedisCartStoreTest {
+
+    // Connection housekeeping rather than commands sent to Redis
+    private static final Set<String> NOT_COMMANDS = Set.of("close", "isClosed", "isPipelined", "isQueueing");
+
+    private final JsonCartCodec jsonCodec = new JsonCartCodec();
+    private final RedisConnection connection = mock(RedisConnection.class);
+    private RedisCartStore cartStore;
+
+    private final RedisConnectionFactory connectionFactory = mock(RedisConnectionFactory.class);
+
+    @BeforeEach
+    void setUp() {
+        when(connectionFactory.getConnection()).thenReturn(connection);
+        cartStore = new RedisCartStore(connectionFactory, jsonCodec, List.of(jsonCodec, new BinaryCartCodec()),
+                "binary", "carts:", "carts-by-expiry", 30, 10, 60_000, 50, "cart-invalidations", Optional.empty());
+    }
+
+    @Test
+    void changingACartIsOneRoundTrip() {
+        byte[] stored = jsonCodec.encode(storedCart());
+        when(connection.evalSha(anyString(), any(ReturnType.class), anyInt(), any(byte[][].class)))
+                .thenReturn(List.of(bytes("OK"), stored));
+
+        cartStore.addItem("1042", "r1", "Test Kitchen", 3L, item());
+        assertEquals(List.of("evalSha"), commands());
+
+        cartStore.updateItemQuantity("1042", "m1", 2);
+        assertEquals(List.of("evalSha"), commands());
+
+        cartStore.removeItem("1042", "m1");
+        assertEquals(List.of("evalSha"), commands());
+    }
+
+    @Test
+    void readingACartIsOneRoundTrip() {
+        when(connection.get(any(byte[].class))).thenReturn(jsonCodec.encode(storedCart()));
+
+        assertEquals("1042", cartStore.findByUserId("1042").orElseThrow().getUserId());
+        assertEquals(List.of("get"), commands());
+    }
+
+    @Test
+    void theStoredCartIsReadFromRedisEvenWhenNearCached() {
+        CartNearCache nearCache = new CartNearCache(new SimpleMeterRegistry(), 100, Duration.ofMinutes(1));
+        RedisCartStore cachedStore = new RedisCartStore(connectionFactory, jsonCodec, List.of(jsonCodec, new BinaryCartCodec()),
+                "binary", "carts:", "carts-by-expiry", 30, 10, 60_000, 50, "cart-invalidations", Optional.of(nearCache));
+        // The near cache still holds revision 1, Redis already has revision 2
+        nearCache.putIfUnchanged("1042", jsonCodec.encode(storedCart(1L)), nearCache.generation("1042"));
+        when(connection.get(any(byte[].class))).thenReturn(jsonCodec.encode(storedCart(2L)));
+
+        assertEquals(1L, cachedStore.findByUserId("1042").orElseThrow().getRevision());
+        assertEquals(List.of(), commands());
+
+        assertEquals(2L, cachedStore.findStoredByUserId("1042").orElseThrow().getRevision());
+        assertEquals(List.of("get"), commands());
+    }
+
+    @Test
+    void expiryOnlyTouchesTheKeysItDeclares() {
+        when(connection.evalSha(anyString(), any(ReturnType.class), anyInt(), any(byte[][].class)))
+                .thenReturn(List.of(bytes("1042")))
+                .thenReturn(List.of(bytes("DELETED")));
+
+        // The claim script gets the index alone, and each cart is ended by a script given that cart's key
+        assertEquals(List.of("1042"), cartStore.claimExpired(10));
+        assertEquals(List.of("carts-by-expiry"), scriptKeys());
+
+        assertTrue(cartStore.deleteExpired("1042", null));
+        assertEquals(List.of("carts:1042", "carts-by-expiry"), scriptKeys());
+    }
+
+    /**
+     * The commands sent since the last call
+     */
+    private List<String> commands() {
+        List<String> commands = mockingDetails(connection).getInvocations().stream()
+                .map(Invocation::getMethod)
+                .map(Method::getName)
+                .filter(name -> !NOT_COMMANDS.contains(name))
+                .toList();
+        clearInvocations(connection);
+        return commands;
+    }
+
+    /**
+     * The keys declared to the script run since the last call
+     */
+    private List<String> scriptKeys() {
+        // evalSha(sha, returnType, numKeys, keysAndArgs...) with the varargs expanded
+        Object[] arguments = mockingDetails(connection).getInvocations().stream()
+                .filter(invocation -> invocation.getMethod().getName().equals("evalSha"))
+                .findFirst()
+                .orElseThrow()
+                .getArguments();
+        clearInvocations(connection);
+        int numKeys = (int) arguments[2];
+        return Arrays.stream(arguments, 3, 3 + numKeys).map(key -> string((byte[]) key)).toList();
+    }
+
+    private static StoredCart storedCart() {
+        return storedCart(1L);
+    }
+
+    private static StoredCart storedCart(long revision) {
+        long now = System.currentTimeMillis();
+        return new StoredCart("1042", "r1", "Test Kitchen", 3L, List.of(new StoredItem("m1", "Paneer Tikka", 25000, 1, null, null)),
+                25000L, 1, revision, now, now, now + 1_800_000);
+    }
+
+    private static CartItem item() {
+        return CartItem.builder().menuItemId("m1").itemName("Paneer Tikka").price(new BigDecimal("250.00")).quantity(1).build();
+    }
+
+    private static String string(byte[] value) {
+        return new String(value, StandardCharsets.UTF_8);
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -1,9 +1,11 @@
 package com.foodexpress.order.client;
 
+import com.foodexpress.order.dto.ApiResponse;
 import com.foodexpress.order.dto.CartResponse; // We need to map Cart Response here
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestHeader;
 
 @FeignClient(name = "CART-SERVICE-APP") // Eureka ID matches cart-service-app
@@ -11,7 +13,11 @@ public interface CartServiceClient {
 
     // Cart details techukodaniki
     @GetMapping("/api/v1/cart")
-    CartResponse getCart(@RequestHeader("X-User-Id") String userId);
+    ApiResponse<CartResponse> getCart(@RequestHeader("X-User-Id") String userId);
+
+    // Checkout mundu cart prices ni restaurant menu snapshot tho validate cheyadaniki
+    @PostMapping("/api/v1/cart/validate")
+    ApiResponse<CartResponse> validateCart(@RequestHeader("X-User-Id") String userId);
 
     // Order aipoyaka cart clear cheyadaniki
     @DeleteMapping("/api/v1/cart")
@@ -1,5 +1,8 @@
 package com.foodexpress.order.client;
 
+import com.foodexpress.order.dto.ApiResponse;
+import com.foodexpress.order.dto.MenuItemBatchRequest;
+import com.foodexpress.order.dto.MenuItemPriceResponse;
 import com.foodexpress.order.dto.ProductDTO;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -7,6 +10,8 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 
+import java.util.List;
+
 //@FeignClient(name = "PRODUCT-SERVICE-APP")
 @FeignClient(name = "restaurant-service-app")
 public interface ProductServiceClient {
@@ -22,4 +27,9 @@ public interface ProductServiceClient {
     @GetMapping("/api/v1/restaurants/{restaurantId}/menu-items/{itemId}")
     String getMenuItem(@PathVariable("restaurantId") String restaurantId, @PathVariable("itemId") String itemId);
 
+    // Cart lo items anni okate call lo techukodaniki (price, availability, name)
+    @PostMapping("/api/v1/restaurants/{restaurantId}/menu-items/batch")
+    ApiResponse<List<MenuItemPriceResponse>> getMenuItems(@PathVariable("restaurantId") String restaurantId,
+                                                         @RequestBody MenuItemBatchRequest request);
+
 }
@@ -0,0 +1,14 @@
+package com.foodexpress.order.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class MenuItemBatchRequest {
+    private List<String> itemIds;
+}
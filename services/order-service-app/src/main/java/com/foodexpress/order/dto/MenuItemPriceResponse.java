@@ -0,0 +1,20 @@
+package com.foodexpress.order.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Name, price and availability of a menu item, as returned by restaurant-service's batch lookup
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class MenuItemPriceResponse {
+    private String id;
+    private String name;
+    private BigDecimal price;
+    private Boolean isAvailable;
+}
@@ -29,12 +29,16 @@ public class OrderService {
     @Transactional
     public String placeOrder(String userId, OrderRequest request) {
 
-        // 1. Get Cart Details from Cart Service (Microservice Communication)
-        CartResponse cart = cartServiceClient.getCart(userId);
+        // 1. Get Cart Details from Cart Service, validated against the restaurant's current menu snapshot
+        // (a single lookup for the whole cart, skipped by cart-service while the menu version is unchanged)
+        CartResponse cart = cartServiceClient.validateCart(userId).getData();
 
-        if (cart == null || cart.getItems().isEmpty()) {
+        if (cart == null || cart.getItems() == null || cart.getItems().isEmpty()) {
             throw new RuntimeException("Cart is empty! Cannot place order.");
         }
+        if (Boolean.TRUE.equals(cart.getPricesChanged())) {
+            throw new RuntimeException("Menu prices changed since items were added. Please review your cart.");
+        }
 
         // 2. Convert Cart to Order Entity
         Order order = Order.builder()
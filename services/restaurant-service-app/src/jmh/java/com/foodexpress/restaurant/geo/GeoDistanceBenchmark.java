@@ -0,0 +1,105 @@
+package com.foodexpress.restaurant.geo;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ranks the closest K of N candidates around a point:
+ * per-candidate scalar haversine + full sort (the original nearby implementation)
+ * against batch distances over primitive columns, scalar and Vector API, + bounded heap
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+@State(Scope.Benchmark)
+public class GeoDistanceBenchmark {
+
+    private static final double LATITUDE = 18.52;
+    private static final double LONGITUDE = 73.85;
+    private static final double RADIUS_KM = 10;
+
+    @Param({"1000", "10000", "100000"})
+    private int candidates;
+
+    @Param({"20"})
+    private int k;
+
+    private List<GeoEntry> entries;
+    private GeoEntry[] entryColumn;
+    private double[] latitudes;
+    private double[] longitudes;
+    private double[] cosLatitudes;
+    private double[] distances;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        entries = new ArrayList<>(candidates);
+        entryColumn = new GeoEntry[candidates];
+        latitudes = new double[candidates];
+        longitudes = new double[candidates];
+        cosLatitudes = new double[candidates];
+        distances = new double[candidates];
+        for (int i = 0; i < candidates; i++) {
+            GeoEntry entry = new GeoEntry("r" + i,
+                    LATITUDE + (random.nextDouble() - 0.5) * 0.3,
+                    LONGITUDE + (random.nextDouble() - 0.5) * 0.3,
+                    random.nextDouble() * 5, true);
+            entries.add(entry);
+            entryColumn[i] = entry;
+            latitudes[i] = Math.toRadians(entry.getLatitude());
+            longitudes[i] = Math.toRadians(entry.getLongitude());
+            cosLatitudes[i] = Math.cos(latitudes[i]);
+        }
+    }
+
+    @Benchmark
+    public List<GeoHit> scalarStreamSort() {
+        return entries.stream()
+                .map(entry -> new GeoHit(entry, GeoGrid.distanceKm(LATITUDE, LONGITUDE, entry.getLatitude(), entry.getLongitude())))
+                .filter(hit -> hit.getDistanceKm() <= RADIUS_KM)
+                .sorted(GeoHit.BY_DISTANCE)
+                .limit(k)
+                .toList();
+    }
+
+    @Benchmark
+    public List<GeoHit> scalarBatchHeap() {
+        HaversineBatch.scalarDistancesKm(Math.toRadians(LATITUDE), Math.toRadians(LONGITUDE),
+                latitudes, longitudes, cosLatitudes, 0, candidates, distances);
+        return topK();
+    }
+
+    @Benchmark
+    public List<GeoHit> vectorBatchHeap() {
+        VectorHaversine.distancesKm(Math.toRadians(LATITUDE), Math.toRadians(LONGITUDE),
+                latitudes, longitudes, cosLatitudes, candidates, distances);
+        return topK();
+    }
+
+    private List<GeoHit> topK() {
+        NearestHeap closest = new NearestHeap(k);
+        for (int i = 0; i < candidates; i++) {
+            if (distances[i] <= RADIUS_KM && distances[i] <= closest.cutoff()) {
+                closest.offer(entryColumn[i], distances[i]);
+            }
+        }
+        return closest.drain();
+    }
+}
@@ -0,0 +1,77 @@
+package com.foodexpress.restaurant.cache;
+
+import com.foodexpress.restaurant.dto.response.FullMenuResponse;
+import com.foodexpress.restaurant.event.MenuChangedEvent;
+import com.foodexpress.restaurant.service.MenuVersionService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Size-bounded, in-process cache of full-menu responses
+ *
+ * Every cached menu carries the menu version it was built from. Menu writes bump
+ * the version (see MenuVersionService) and broadcast a {@link MenuChangedEvent};
+ * an entry older than the latest known version is never served.
+ * Hit / miss / eviction metrics are exported as cache.* meters with cache=fullMenu.
+ */
+@Component
+@Slf4j
+public class FullMenuCache {
+
+    private final Cache<String, FullMenuResponse> cache;
+    private final MenuVersionService menuVersionService;
+
+    public FullMenuCache(MeterRegistry meterRegistry,
+                         MenuVersionService menuVersionService,
+                         @Value("${app.cache.full-menu.max-size:2000}") long maxSize,
+                         @Value("${app.cache.full-menu.expire-after-write:30m}") Duration expireAfterWrite) {
+        this.menuVersionService = menuVersionService;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(expireAfterWrite) // Safety net in case a bus message is lost
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "fullMenu");
+    }
+
+    /**
+     * Return the cached menu if it is current, otherwise build it with the loader and cache it
+     */
+    public FullMenuResponse get(String restaurantId, Supplier<FullMenuResponse> loader) {
+        FullMenuResponse cached = cache.getIfPresent(restaurantId);
+        if (cached != null && isCurrent(restaurantId, cached.getMenuVersion())) {
+            return cached;
+        }
+
+        FullMenuResponse loaded = loader.get();
+
+        // A write may have landed while we were loading; don't cache a menu that is already outdated
+        if (isCurrent(restaurantId, loaded.getMenuVersion())) {
+            cache.put(restaurantId, loaded);
+        }
+        return loaded;
+    }
+
+    /**
+     * Handles both locally published and bus-delivered menu changes
+     */
+    @EventListener
+    public void onMenuChanged(MenuChangedEvent event) {
+        log.debug("Invalidating full menu for restaurant ID: {} (version {})", event.getRestaurantId(), event.getMenuVersion());
+        cache.asMap().computeIfPresent(event.getRestaurantId(),
+                (id, menu) -> menu.getMenuVersion() < event.getMenuVersion() ? null : menu);
+    }
+
+    private boolean isCurrent(String restaurantId, long version) {
+        return version >= menuVersionService.getMenuVersion(restaurantId);
+    }
+}
@@ -0,0 +1,67 @@
+package com.foodexpress.restaurant.cache;
+
+import com.foodexpress.restaurant.dto.response.MenuSnapshotResponse;
+import com.foodexpress.restaurant.event.MenuChangedEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Size-bounded, in-process cache of the latest menu snapshot of each restaurant
+ *
+ * A snapshot older than the menu version the caller read from MongoDB is never served, so unlike
+ * {@link FullMenuCache} it doesn't depend on bus messages arriving. Metrics are exported as cache.*
+ * meters with cache=menuSnapshot.
+ */
+@Component
+@Slf4j
+public class MenuSnapshotCache {
+
+    private final Cache<String, MenuSnapshotResponse> cache;
+
+    public MenuSnapshotCache(MeterRegistry meterRegistry,
+                             @Value("${app.cache.menu-snapshot.max-size:5000}") long maxSize,
+                             @Value("${app.cache.menu-snapshot.expire-after-write:30m}") Duration expireAfterWrite) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(expireAfterWrite) // Frees snapshots of restaurants nobody orders from any more
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "menuSnapshot");
+    }
+
+    /**
+     * Return the cached snapshot if it is at least the given menu version, otherwise build it with the loader and cache it
+     */
+    public MenuSnapshotResponse get(String restaurantId, long menuVersion, Supplier<MenuSnapshotResponse> loader) {
+        MenuSnapshotResponse cached = cache.getIfPresent(restaurantId);
+        if (cached != null && cached.getMenuVersion() >= menuVersion) {
+            return cached;
+        }
+
+        MenuSnapshotResponse loaded = loader.get();
+
+        // Never replace a newer snapshot another request cached meanwhile
+        cache.asMap().merge(restaurantId, loaded,
+                (current, candidate) -> candidate.getMenuVersion() >= current.getMenuVersion() ? candidate : current);
+        return loaded;
+    }
+
+    /**
+     * Handles both locally published and bus-delivered menu changes
+     */
+    @EventListener
+    public void onMenuChanged(MenuChangedEvent event) {
+        log.debug("Invalidating menu snapshot for restaurant ID: {} (version {})", event.getRestaurantId(), event.getMenuVersion());
+        cache.asMap().computeIfPresent(event.getRestaurantId(),
+                (id, snapshot) -> snapshot.getMenuVersion() < event.getMenuVersion() ? null : snapshot);
+    }
+}
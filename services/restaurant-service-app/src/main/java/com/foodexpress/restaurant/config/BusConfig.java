@@ -0,0 +1,13 @@
+package com.foodexpress.restaurant.config;
+
+import com.foodexpress.restaurant.event.MenuChangedEvent;
+import org.springframework.cloud.bus.jackson.RemoteApplicationEventScan;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Registers this service's custom Spring Cloud Bus events
+ */
+@Configuration
+@RemoteApplicationEventScan(basePackageClasses = MenuChangedEvent.class)
+public class BusConfig {
+}
@@ -0,0 +1,69 @@
+package com.foodexpress.restaurant.config;
+
+import com.foodexpress.restaurant.entity.Restaurant;
+import com.foodexpress.restaurant.search.SearchTokens;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+import org.springframework.data.util.Pair;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * One-off backfill of city_key for restaurants saved before city filters matched on it.
+ * A no-op once every restaurant with a city has the field.
+ */
+@Component
+@Order(7)
+@RequiredArgsConstructor
+@Slf4j
+public class CityKeyMigration implements StartupMigration {
+
+    private static final int BATCH_SIZE = 500;
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public void migrate() {
+        Query missingKeys = new Query(Criteria.where("cityKey").exists(false).and("city").exists(true));
+        missingKeys.fields().include("city");
+
+        long updated = 0;
+        List<Pair<Query, UpdateDefinition>> batch = new ArrayList<>(BATCH_SIZE);
+        try (Stream<Restaurant> restaurants = mongoTemplate.stream(missingKeys, Restaurant.class)) {
+            for (Restaurant restaurant : (Iterable<Restaurant>) restaurants::iterator) {
+                batch.add(Pair.of(new Query(Criteria.where("id").is(restaurant.getId())),
+                        new Update().set("cityKey", SearchTokens.cityKey(restaurant.getCity()))));
+                if (batch.size() == BATCH_SIZE) {
+                    updated += flush(batch);
+                }
+            }
+        }
+        updated += flush(batch);
+
+        if (updated > 0) {
+            log.info("Backfilled city keys for {} restaurants", updated);
+        }
+    }
+
+    private long flush(List<Pair<Query, UpdateDefinition>> batch) {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        int modified = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Restaurant.class)
+                .updateOne(batch)
+                .execute()
+                .getModifiedCount();
+        batch.clear();
+        return modified;
+    }
+}
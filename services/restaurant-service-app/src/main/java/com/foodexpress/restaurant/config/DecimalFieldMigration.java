@@ -0,0 +1,60 @@
+package com.foodexpress.restaurant.config;
+
+import com.foodexpress.restaurant.entity.MenuItem;
+import com.foodexpress.restaurant.entity.Restaurant;
+import com.mongodb.client.result.UpdateResult;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.schema.JsonSchemaObject;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * One-off conversion of BigDecimal fields saved as strings (before MongoConfig switched
+ * to Decimal128) to Decimal128, so range filters and sorts see every document.
+ * Runs server-side as pipeline updates, ahead of the backfills that compare prices,
+ * and is a no-op once no string values are left.
+ */
+@Component
+@Order(1)
+@RequiredArgsConstructor
+@Slf4j
+public class DecimalFieldMigration implements StartupMigration {
+
+    private static final List<String> RESTAURANT_FIELDS =
+            List.of("latitude", "longitude", "average_rating", "minimum_order_amount", "delivery_fee");
+
+    private static final List<String> MENU_ITEM_FIELDS =
+            List.of("price", "discounted_price", "average_rating");
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public void migrate() {
+        convert(Restaurant.class, RESTAURANT_FIELDS);
+        convert(MenuItem.class, MENU_ITEM_FIELDS);
+    }
+
+    private void convert(Class<?> type, List<String> fields) {
+        for (String field : fields) {
+            Query stringValues = new Query(Criteria.where(field).type(JsonSchemaObject.Type.STRING));
+
+            // "4.50" -> NumberDecimal("4.50"), keeping the scale BigDecimal wrote
+            AggregationUpdate toDecimal = AggregationUpdate.update()
+                    .set(field).toValue(new Document("$toDecimal", "$" + field));
+
+            UpdateResult result = mongoTemplate.updateMulti(stringValues, toDecimal, type);
+            if (result.getModifiedCount() > 0) {
+                log.info("Converted {} to Decimal128 for {} {} documents",
+                        field, result.getModifiedCount(), type.getSimpleName());
+            }
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.foodexpress.restaurant.config;
+
+import com.foodexpress.restaurant.entity.MenuItem;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.mapping.event.BeforeConvertCallback;
+
+/**
+ * Keeps the is_discounted flag of menu items in sync with their prices,
+ * on every save through a repository or MongoTemplate
+ */
+@Configuration
+public class MenuItemDiscountConfig {
+
+    @Bean
+    public BeforeConvertCallback<MenuItem> menuItemDiscountCallback() {
+        return (menuItem, collection) -> {
+            menuItem.setIsDiscounted(menuItem.getPrice() != null && menuItem.isOnDiscount());
+            return menuItem;
+        };
+    }
+}
@@ -0,0 +1,44 @@
+package com.foodexpress.restaurant.config;
+
+import com.foodexpress.restaurant.entity.MenuItem;
+import com.mongodb.client.result.UpdateResult;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * One-off backfill of is_discounted for menu items saved before the flag existed.
+ * Runs server-side as a pipeline update, so it is a no-op once every item has the flag.
+ */
+@Component
+@Order(5)
+@RequiredArgsConstructor
+@Slf4j
+public class MenuItemDiscountMigration implements StartupMigration {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public void migrate() {
+        Query missingFlag = new Query(Criteria.where("isDiscounted").exists(false));
+
+        // A missing discounted price falls back to the price itself, which is never below it
+        AggregationUpdate setFlag = AggregationUpdate.update()
+                .set("is_discounted").toValue(new Document("$lt", List.of(
+                        new Document("$ifNull", List.of("$discounted_price", "$price")),
+                        "$price")));
+
+        UpdateResult result = mongoTemplate.updateMulti(missingFlag, setFlag, MenuItem.class);
+        if (result.getModifiedCount() > 0) {
+            log.info("Backfilled discount flag for {} menu items", result.getModifiedCount());
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.foodexpress.restaurant.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+
+/**
+ * MongoDB mapping configuration
+ */
+@Configuration
+public class MongoConfig {
+
+    /**
+     * Store BigDecimal as Decimal128 instead of String, so that rating / fee
+     * range filters and sorts are evaluated numerically by MongoDB
+     * Values written as strings before this are converted by DecimalFieldMigration
+     */
+    @Bean
+    public MongoCustomConversions mongoCustomConversions() {
+        return MongoCustomConversions.create(adapter ->
+                adapter.bigDecimal(MongoCustomConversions.BigDecimalRepresentation.DECIMAL128));
+    }
+}
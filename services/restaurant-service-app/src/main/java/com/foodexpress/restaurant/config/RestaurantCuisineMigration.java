@@ -0,0 +1,46 @@
+package com.foodexpress.restaurant.config;
+
+import com.foodexpress.restaurant.entity.Restaurant;
+import com.mongodb.client.result.UpdateResult;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.schema.JsonSchemaObject;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * One-off conversion of cuisine_types from a comma-separated string to an array.
+ * Runs server-side as a pipeline update, before anything else reads restaurants
+ * on startup, and is a no-op once every document has been converted.
+ */
+@Component
+@Order(2)
+@RequiredArgsConstructor
+@Slf4j
+public class RestaurantCuisineMigration implements StartupMigration {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public void migrate() {
+        Query stringCuisines = new Query(Criteria.where("cuisineTypes").type(JsonSchemaObject.Type.STRING));
+
+        // "INDIAN,CHINESE" -> ["INDIAN", "CHINESE"], dropping empty entries
+        AggregationUpdate split = AggregationUpdate.update()
+                .set("cuisineTypes").toValue(new Document("$filter", new Document()
+                        .append("input", new Document("$split", List.of("$cuisine_types", ",")))
+                        .append("cond", new Document("$ne", List.of("$$this", "")))));
+
+        UpdateResult result = mongoTemplate.updateMulti(stringCuisines, split, Restaurant.class);
+        if (result.getModifiedCount() > 0) {
+            log.info("Converted cuisine types to arrays for {} restaurants", result.getModifiedCount());
+        }
+    }
+}
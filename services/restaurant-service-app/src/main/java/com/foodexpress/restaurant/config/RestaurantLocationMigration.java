@@ -0,0 +1,47 @@
+package com.foodexpress.restaurant.config;
+
+import com.foodexpress.restaurant.entity.Restaurant;
+import com.mongodb.client.result.UpdateResult;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * One-off backfill of the GeoJSON location field for restaurants created
+ * before it existed. Runs server-side as a pipeline update, so it is a no-op
+ * once every document has a location.
+ */
+@Component
+@Order(3)
+@RequiredArgsConstructor
+@Slf4j
+public class RestaurantLocationMigration implements StartupMigration {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public void migrate() {
+        Query missingLocation = new Query(Criteria.where("location").exists(false)
+                .and("latitude").exists(true)
+                .and("longitude").exists(true));
+
+        AggregationUpdate setLocation = AggregationUpdate.update()
+                .set("location").toValue(new Document("type", "Point")
+                        .append("coordinates", List.of(
+                                new Document("$toDouble", "$longitude"),
+                                new Document("$toDouble", "$latitude"))));
+
+        UpdateResult result = mongoTemplate.updateMulti(missingLocation, setLocation, Restaurant.class);
+        if (result.getModifiedCount() > 0) {
+            log.info("Backfilled GeoJSON location for {} restaurants", result.getModifiedCount());
+        }
+    }
+}
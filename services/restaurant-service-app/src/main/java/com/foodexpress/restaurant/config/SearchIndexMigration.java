@@ -0,0 +1,42 @@
+package com.foodexpress.restaurant.config;
+
+import com.foodexpress.restaurant.entity.Restaurant;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+
+/**
+ * Drops the restaurant search indexes that were replaced by versions ending in _id,
+ * and the city one replaced by the index on city_key.
+ * Auto index creation only adds indexes, so without this both would be maintained on every write.
+ * A no-op once they are gone.
+ */
+@Component
+@Order(6)
+@RequiredArgsConstructor
+@Slf4j
+public class SearchIndexMigration implements StartupMigration {
+
+    private static final Set<String> REPLACED_INDEXES =
+            Set.of("search_city_rating_idx", "search_rating_idx", "search_cuisine_rating_idx",
+                    "search_city_rating_id_idx");
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public void migrate() {
+        IndexOperations indexes = mongoTemplate.indexOps(Restaurant.class);
+        for (IndexInfo index : indexes.getIndexInfo()) {
+            if (REPLACED_INDEXES.contains(index.getName())) {
+                indexes.dropIndex(index.getName());
+                log.info("Dropped replaced restaurant index {}", index.getName());
+            }
+        }
+    }
+}
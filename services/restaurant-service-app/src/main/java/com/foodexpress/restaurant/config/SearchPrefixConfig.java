@@ -0,0 +1,44 @@
+package com.foodexpress.restaurant.config;
+
+import com.foodexpress.restaurant.entity.MenuItem;
+import com.foodexpress.restaurant.entity.Restaurant;
+import com.foodexpress.restaurant.search.SearchTokens;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.mapping.event.BeforeConvertCallback;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps the search_prefixes field of restaurants and menu items, and the city_key of
+ * restaurants, in sync with the text they are derived from, on every save through a
+ * repository or MongoTemplate
+ */
+@Configuration
+public class SearchPrefixConfig {
+
+    @Bean
+    public BeforeConvertCallback<Restaurant> restaurantSearchPrefixCallback() {
+        return (restaurant, collection) -> {
+            restaurant.setSearchPrefixes(restaurantPrefixes(restaurant));
+            restaurant.setCityKey(SearchTokens.cityKey(restaurant.getCity()));
+            return restaurant;
+        };
+    }
+
+    @Bean
+    public BeforeConvertCallback<MenuItem> menuItemSearchPrefixCallback() {
+        return (menuItem, collection) -> {
+            menuItem.setSearchPrefixes(SearchTokens.prefixes(menuItem.getName()));
+            return menuItem;
+        };
+    }
+
+    static List<String> restaurantPrefixes(Restaurant restaurant) {
+        String cuisines = restaurant.getCuisineTypes() == null ? null : restaurant.getCuisineTypes().stream()
+                .map(Enum::name)
+                .collect(Collectors.joining(" "));
+        return SearchTokens.prefixes(restaurant.getName(), cuisines);
+    }
+}
@@ -0,0 +1,81 @@
+package com.foodexpress.restaurant.config;
+
+import com.foodexpress.restaurant.entity.MenuItem;
+import com.foodexpress.restaurant.entity.Restaurant;
+import com.foodexpress.restaurant.search.SearchTokens;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+import org.springframework.data.util.Pair;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * One-off backfill of search_prefixes for restaurants and menu items saved before
+ * text search existed. A no-op once every document has the field.
+ */
+@Component
+@Order(4)
+@RequiredArgsConstructor
+@Slf4j
+public class SearchPrefixMigration implements StartupMigration {
+
+    private static final int BATCH_SIZE = 500;
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public void migrate() {
+        backfill(Restaurant.class, Restaurant::getId,
+                SearchPrefixConfig::restaurantPrefixes,
+                "name", "cuisineTypes");
+        backfill(MenuItem.class, MenuItem::getId,
+                menuItem -> SearchTokens.prefixes(menuItem.getName()),
+                "name");
+    }
+
+    private <T> void backfill(Class<T> type, Function<T, String> id, Function<T, List<String>> prefixes,
+                              String... sourceFields) {
+        Query missingPrefixes = new Query(Criteria.where("searchPrefixes").exists(false));
+        missingPrefixes.fields().include(sourceFields);
+
+        long updated = 0;
+        List<Pair<Query, UpdateDefinition>> batch = new ArrayList<>(BATCH_SIZE);
+        try (Stream<T> documents = mongoTemplate.stream(missingPrefixes, type)) {
+            for (T document : (Iterable<T>) documents::iterator) {
+                batch.add(Pair.of(new Query(Criteria.where("id").is(id.apply(document))),
+                        new Update().set("searchPrefixes", prefixes.apply(document))));
+                if (batch.size() == BATCH_SIZE) {
+                    updated += flush(type, batch);
+                }
+            }
+        }
+        updated += flush(type, batch);
+
+        if (updated > 0) {
+            log.info("Backfilled search prefixes for {} {} documents", updated, type.getSimpleName());
+        }
+    }
+
+    private long flush(Class<?> type, List<Pair<Query, UpdateDefinition>> batch) {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        int modified = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, type)
+                .updateOne(batch)
+                .execute()
+                .getModifiedCount();
+        batch.clear();
+        return modified;
+    }
+}
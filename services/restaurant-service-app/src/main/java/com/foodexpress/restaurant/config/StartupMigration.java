@@ -0,0 +1,10 @@
+package com.foodexpress.restaurant.config;
+
+/**
+ * One-off data migration, run by {@link StartupMigrations} before the web server starts
+ * Runs on every start of every instance, so it must be a no-op once the data is migrated
+ */
+public interface StartupMigration {
+
+    void migrate();
+}
@@ -0,0 +1,29 @@
+package com.foodexpress.restaurant.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Component;
+
+/**
+ * Runs every {@link StartupMigration} in @Order once all beans are created, which is before
+ * the web server starts listening and before the instance registers with discovery.
+ * Requests therefore never see documents in a format the mapping no longer reads,
+ * and a failing migration fails the startup.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class StartupMigrations implements SmartInitializingSingleton {
+
+    private final ObjectProvider<StartupMigration> migrations;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        migrations.orderedStream().forEach(migration -> {
+            log.debug("Running startup migration {}", migration.getClass().getSimpleName());
+            migration.migrate();
+        });
+    }
+}
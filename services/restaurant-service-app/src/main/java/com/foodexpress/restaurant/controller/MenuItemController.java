@@ -1,19 +1,35 @@
 package com.foodexpress.restaurant.controller;
 
+import com.foodexpress.restaurant.dto.request.MenuItemBatchRequest;
 import com.foodexpress.restaurant.dto.request.MenuItemRequest;
 import com.foodexpress.restaurant.dto.common.ApiResponse;
 import com.foodexpress.restaurant.dto.response.FullMenuResponse;
+import com.foodexpress.restaurant.dto.response.MenuImportResponse;
+import com.foodexpress.restaurant.dto.response.MenuItemPriceResponse;
 import com.foodexpress.restaurant.dto.response.MenuItemResponse;
+import com.foodexpress.restaurant.dto.response.MenuSnapshotResponse;
 import com.foodexpress.restaurant.entity.enums.DietaryType;
+import com.foodexpress.restaurant.menuimport.MenuImportFormat;
+import com.foodexpress.restaurant.service.MenuImportService;
 import com.foodexpress.restaurant.service.MenuItemService;
+import com.foodexpress.restaurant.service.MenuVersionService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 @RestController
@@ -23,6 +39,8 @@ import java.util.List;
 public class MenuItemController {
 
     private final MenuItemService menuItemService;
+    private final MenuVersionService menuVersionService;
+    private final MenuImportService menuImportService;
 
     /**
      * Create a new menu item
@@ -37,16 +55,53 @@ public class MenuItemController {
                 .body(ApiResponse.success("Menu item created successfully", response));
     }
 
+    /**
+     * Bulk import menu items from a CSV (text/csv) or NDJSON (application/x-ndjson) body
+     * The body is streamed, so its size is not limited by memory; per-row errors are in the response
+     */
+    @PostMapping(value = "/import", consumes = {"text/csv", MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<ApiResponse<MenuImportResponse>> importMenuItems(
+            @PathVariable String restaurantId,
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            InputStream body) throws IOException {
+        log.info("REST request to import menu items for restaurant ID: {}", restaurantId);
+        MediaType mediaType = MediaType.parseMediaType(contentType);
+        try (Reader reader = new InputStreamReader(body,
+                mediaType.getCharset() != null ? mediaType.getCharset() : StandardCharsets.UTF_8)) {
+            MenuImportResponse response = menuImportService.importMenuItems(restaurantId,
+                    MenuImportFormat.fromContentType(mediaType), reader);
+            return ResponseEntity.ok(ApiResponse.success("Menu import completed", response));
+        }
+    }
+
     /**
      * Get menu item by ID
      */
     @GetMapping("/{itemId}")
     public ResponseEntity<ApiResponse<MenuItemResponse>> getMenuItemById(
             @PathVariable String restaurantId,
-            @PathVariable String itemId) {
+            @PathVariable String itemId,
+            WebRequest webRequest) {
         log.info("REST request to get menu item ID: {} for restaurant ID: {}", itemId, restaurantId);
+        if (isNotModified(webRequest, restaurantId)) {
+            return null; // 304 Not Modified
+        }
         MenuItemResponse response = menuItemService.getMenuItemById(restaurantId, itemId);
-        return ResponseEntity.ok(ApiResponse.success("Menu item retrieved successfully", response));
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .body(ApiResponse.success("Menu item retrieved successfully", response));
+    }
+
+    /**
+     * Get name, price and availability of several items in one call (internal, for cart / order validation)
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<ApiResponse<List<MenuItemPriceResponse>>> getMenuItemPrices(
+            @PathVariable String restaurantId,
+            @Valid @RequestBody MenuItemBatchRequest request) {
+        log.info("REST request to get {} menu items for restaurant ID: {}", request.getItemIds().size(), restaurantId);
+        List<MenuItemPriceResponse> response = menuItemService.getMenuItemPrices(restaurantId, request.getItemIds());
+        return ResponseEntity.ok(ApiResponse.success("Menu items retrieved successfully", response));
     }
 
     /**
@@ -79,10 +134,16 @@ public class MenuItemController {
      */
     @GetMapping
     public ResponseEntity<ApiResponse<List<MenuItemResponse>>> getMenuItemsByRestaurant(
-            @PathVariable String restaurantId) {
+            @PathVariable String restaurantId,
+            WebRequest webRequest) {
         log.info("REST request to get all menu items for restaurant ID: {}", restaurantId);
+        if (isNotModified(webRequest, restaurantId)) {
+            return null; // 304 Not Modified
+        }
         List<MenuItemResponse> response = menuItemService.getMenuItemsByRestaurant(restaurantId);
-        return ResponseEntity.ok(ApiResponse.success("Menu items retrieved successfully", response));
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .body(ApiResponse.success("Menu items retrieved successfully", response));
     }
 
     /**
@@ -91,20 +152,50 @@ public class MenuItemController {
     @GetMapping("/category/{categoryId}")
     public ResponseEntity<ApiResponse<List<MenuItemResponse>>> getMenuItemsByCategory(
             @PathVariable String restaurantId,
-            @PathVariable String categoryId) {
+            @PathVariable String categoryId,
+            WebRequest webRequest) {
         log.info("REST request to get menu items for restaurant ID: {} and category ID: {}", restaurantId, categoryId);
+        if (isNotModified(webRequest, restaurantId)) {
+            return null; // 304 Not Modified
+        }
         List<MenuItemResponse> response = menuItemService.getMenuItemsByCategory(restaurantId, categoryId);
-        return ResponseEntity.ok(ApiResponse.success("Menu items retrieved successfully", response));
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .body(ApiResponse.success("Menu items retrieved successfully", response));
     }
 
     /**
      * Get full menu with categories
      */
     @GetMapping("/full-menu")
-    public ResponseEntity<ApiResponse<FullMenuResponse>> getFullMenu(@PathVariable String restaurantId) {
+    public ResponseEntity<ApiResponse<FullMenuResponse>> getFullMenu(@PathVariable String restaurantId, WebRequest webRequest) {
         log.info("REST request to get full menu for restaurant ID: {}", restaurantId);
+        if (isNotModified(webRequest, restaurantId)) {
+            return null; // 304 Not Modified
+        }
         FullMenuResponse response = menuItemService.getFullMenu(restaurantId);
-        return ResponseEntity.ok(ApiResponse.success("Full menu retrieved successfully", response));
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .body(ApiResponse.success("Full menu retrieved successfully", response));
+    }
+
+    /**
+     * Get the price table of the current menu version, for validating carts in one call
+     * Callers pass the version they hold as knownVersion and get the table only if it changed
+     */
+    @GetMapping("/snapshot")
+    public ResponseEntity<ApiResponse<MenuSnapshotResponse>> getMenuSnapshot(
+            @PathVariable String restaurantId,
+            @RequestParam(required = false) Long knownVersion,
+            WebRequest webRequest) {
+        log.info("REST request to get menu snapshot for restaurant ID: {}", restaurantId);
+        if (isNotModified(webRequest, restaurantId)) {
+            return null; // 304 Not Modified
+        }
+        MenuSnapshotResponse response = menuItemService.getMenuSnapshot(restaurantId, knownVersion);
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .body(ApiResponse.success("Menu snapshot retrieved successfully", response));
     }
 
     /**
@@ -113,10 +204,16 @@ public class MenuItemController {
     @GetMapping("/search")
     public ResponseEntity<ApiResponse<List<MenuItemResponse>>> searchMenuItems(
             @PathVariable String restaurantId,
-            @RequestParam String name) {
+            @RequestParam String name,
+            WebRequest webRequest) {
         log.info("REST request to search menu items for restaurant ID: {} with name: {}", restaurantId, name);
+        if (isNotModified(webRequest, restaurantId)) {
+            return null; // 304 Not Modified
+        }
         List<MenuItemResponse> response = menuItemService.searchMenuItems(restaurantId, name);
-        return ResponseEntity.ok(ApiResponse.success("Menu items retrieved successfully", response));
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .body(ApiResponse.success("Menu items retrieved successfully", response));
     }
 
     /**
@@ -125,30 +222,46 @@ public class MenuItemController {
     @GetMapping("/dietary/{dietaryType}")
     public ResponseEntity<ApiResponse<List<MenuItemResponse>>> getMenuItemsByDietaryType(
             @PathVariable String restaurantId,
-            @PathVariable DietaryType dietaryType) {
+            @PathVariable DietaryType dietaryType,
+            WebRequest webRequest) {
         log.info("REST request to get menu items for restaurant ID: {} with dietary type: {}", restaurantId, dietaryType);
+        if (isNotModified(webRequest, restaurantId)) {
+            return null; // 304 Not Modified
+        }
         List<MenuItemResponse> response = menuItemService.getMenuItemsByDietaryType(restaurantId, dietaryType);
-        return ResponseEntity.ok(ApiResponse.success("Menu items retrieved successfully", response));
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .body(ApiResponse.success("Menu items retrieved successfully", response));
     }
 
     /**
      * Get bestseller items
      */
     @GetMapping("/bestsellers")
-    public ResponseEntity<ApiResponse<List<MenuItemResponse>>> getBestsellerItems(@PathVariable String restaurantId) {
+    public ResponseEntity<ApiResponse<List<MenuItemResponse>>> getBestsellerItems(@PathVariable String restaurantId, WebRequest webRequest) {
         log.info("REST request to get bestseller items for restaurant ID: {}", restaurantId);
+        if (isNotModified(webRequest, restaurantId)) {
+            return null; // 304 Not Modified
+        }
         List<MenuItemResponse> response = menuItemService.getBestsellerItems(restaurantId);
-        return ResponseEntity.ok(ApiResponse.success("Bestseller items retrieved successfully", response));
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .body(ApiResponse.success("Bestseller items retrieved successfully", response));
     }
 
     /**
      * Get discounted items
      */
     @GetMapping("/discounted")
-    public ResponseEntity<ApiResponse<List<MenuItemResponse>>> getDiscountedItems(@PathVariable String restaurantId) {
+    public ResponseEntity<ApiResponse<List<MenuItemResponse>>> getDiscountedItems(@PathVariable String restaurantId, WebRequest webRequest) {
         log.info("REST request to get discounted items for restaurant ID: {}", restaurantId);
+        if (isNotModified(webRequest, restaurantId)) {
+            return null; // 304 Not Modified
+        }
         List<MenuItemResponse> response = menuItemService.getDiscountedItems(restaurantId);
-        return ResponseEntity.ok(ApiResponse.success("Discounted items retrieved successfully", response));
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .body(ApiResponse.success("Discounted items retrieved successfully", response));
     }
 
     /**
@@ -158,10 +271,16 @@ public class MenuItemController {
     public ResponseEntity<ApiResponse<List<MenuItemResponse>>> getItemsByPriceRange(
             @PathVariable String restaurantId,
             @RequestParam BigDecimal minPrice,
-            @RequestParam BigDecimal maxPrice) {
+            @RequestParam BigDecimal maxPrice,
+            WebRequest webRequest) {
         log.info("REST request to get items for restaurant ID: {} within price range {} - {}", restaurantId, minPrice, maxPrice);
+        if (isNotModified(webRequest, restaurantId)) {
+            return null; // 304 Not Modified
+        }
         List<MenuItemResponse> response = menuItemService.getItemsByPriceRange(restaurantId, minPrice, maxPrice);
-        return ResponseEntity.ok(ApiResponse.success("Menu items retrieved successfully", response));
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .body(ApiResponse.success("Menu items retrieved successfully", response));
     }
 
     /**
@@ -175,4 +294,12 @@ public class MenuItemController {
         MenuItemResponse response = menuItemService.toggleAvailability(restaurantId, itemId);
         return ResponseEntity.ok(ApiResponse.success("Item availability updated successfully", response));
     }
+
+    /**
+     * All menu reads of a restaurant share its menu version as ETag
+     * If it matches If-None-Match, the response is a 304 and nothing is loaded from MongoDB
+     */
+    private boolean isNotModified(WebRequest webRequest, String restaurantId) {
+        return webRequest.checkNotModified("\"v" + menuVersionService.getMenuVersion(restaurantId) + "\"");
+    }
 }
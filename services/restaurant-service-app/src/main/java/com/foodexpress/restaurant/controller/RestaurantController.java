@@ -1,19 +1,25 @@
 package com.foodexpress.restaurant.controller;
 
-import com.foodexpress.restaurant.dto.common.PageResponse;
 import com.foodexpress.restaurant.dto.request.RestaurantRegistrationRequest;
 import com.foodexpress.restaurant.dto.request.RestaurantSearchRequest;
 import com.foodexpress.restaurant.dto.request.RestaurantUpdateRequest;
 import com.foodexpress.restaurant.dto.common.ApiResponse;
+import com.foodexpress.restaurant.dto.common.CursorPageResponse;
+import com.foodexpress.restaurant.dto.response.AutocompleteSuggestionResponse;
+import com.foodexpress.restaurant.dto.response.NearbyDishResponse;
 import com.foodexpress.restaurant.dto.response.RestaurantResponse;
+import com.foodexpress.restaurant.dto.response.RestaurantSearchResponse;
 import com.foodexpress.restaurant.dto.response.RestaurantSummaryResponse;
+import com.foodexpress.restaurant.service.MenuVersionService;
 import com.foodexpress.restaurant.service.RestaurantService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -24,6 +30,7 @@ import java.util.List;
 public class RestaurantController {
 
     private final RestaurantService restaurantService;
+    private final MenuVersionService menuVersionService;
 
     /**
      * Register a new restaurant
@@ -41,10 +48,16 @@ public class RestaurantController {
      * Get restaurant by ID
      */
     @GetMapping("/{id}")
-    public ResponseEntity<ApiResponse<RestaurantResponse>> getRestaurantById(@PathVariable String id) {
+    public ResponseEntity<ApiResponse<RestaurantResponse>> getRestaurantById(@PathVariable String id, WebRequest webRequest) {
         log.info("REST request to get restaurant with ID: {}", id);
+        // The menu version also changes on every restaurant write, so it doubles as the restaurant's ETag
+        if (webRequest.checkNotModified("\"v" + menuVersionService.getMenuVersion(id) + "\"")) {
+            return null; // 304 Not Modified
+        }
         RestaurantResponse response = restaurantService.getRestaurantById(id);
-        return ResponseEntity.ok(ApiResponse.success("Restaurant retrieved successfully", response));
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .body(ApiResponse.success("Restaurant retrieved successfully", response));
     }
 
     /**
@@ -84,37 +97,99 @@ public class RestaurantController {
      * Search restaurants with filters and pagination
      */
     @PostMapping("/search")
-    public ResponseEntity<ApiResponse<PageResponse<RestaurantSummaryResponse>>> searchRestaurants(
+    public ResponseEntity<ApiResponse<RestaurantSearchResponse>> searchRestaurants(
             @RequestBody RestaurantSearchRequest request) {
         log.info("REST request to search restaurants");
-        PageResponse<RestaurantSummaryResponse> response = restaurantService.searchRestaurants(request);
+        RestaurantSearchResponse response = restaurantService.searchRestaurants(request);
         return ResponseEntity.ok(ApiResponse.success("Restaurants retrieved successfully", response));
     }
 
     /**
-     * Get restaurants by city
+     * Get all restaurants in a city, as a plain list
+     * Kept for existing clients; pass paged=true for cursor pages instead
      */
     @GetMapping("/city/{city}")
-    public ResponseEntity<ApiResponse<List<RestaurantSummaryResponse>>> getRestaurantsByCity(
-            @PathVariable String city) {
+    public ResponseEntity<ApiResponse<List<RestaurantSummaryResponse>>> getRestaurantsByCity(@PathVariable String city) {
         log.info("REST request to get restaurants in city: {}", city);
         List<RestaurantSummaryResponse> response = restaurantService.getRestaurantsByCity(city);
         return ResponseEntity.ok(ApiResponse.success("Restaurants retrieved successfully", response));
     }
 
     /**
-     * Get nearby restaurants
+     * Get restaurants by city, one cursor page at a time
+     */
+    @GetMapping(value = "/city/{city}", params = "paged=true")
+    public ResponseEntity<ApiResponse<CursorPageResponse<RestaurantSummaryResponse>>> getRestaurantsByCityPage(
+            @PathVariable String city,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") Integer limit,
+            @RequestParam(defaultValue = "false") Boolean includeTotal) {
+        log.info("REST request to get a page of restaurants in city: {}", city);
+        CursorPageResponse<RestaurantSummaryResponse> response =
+                restaurantService.getRestaurantsByCity(city, cursor, limit, includeTotal);
+        return ResponseEntity.ok(ApiResponse.success("Restaurants retrieved successfully", response));
+    }
+
+    /**
+     * Get nearby restaurants, closest first, as a plain list
+     * Kept for existing clients; pass paged=true for cursor pages instead
      */
     @GetMapping("/nearby")
     public ResponseEntity<ApiResponse<List<RestaurantSummaryResponse>>> getNearbyRestaurants(
             @RequestParam Double latitude,
             @RequestParam Double longitude,
-            @RequestParam(defaultValue = "5.0") Double radiusKm) {
+            @RequestParam(defaultValue = "5.0") Double radiusKm,
+            @RequestParam(defaultValue = "50") Integer limit) {
         log.info("REST request to get nearby restaurants at {}, {} within {} km", latitude, longitude, radiusKm);
-        List<RestaurantSummaryResponse> response = restaurantService.getNearbyRestaurants(latitude, longitude, radiusKm);
+        List<RestaurantSummaryResponse> response =
+                restaurantService.getNearbyRestaurants(latitude, longitude, radiusKm, limit, null, false).getContent();
+        return ResponseEntity.ok(ApiResponse.success("Nearby restaurants retrieved successfully", response));
+    }
+
+    /**
+     * Get nearby restaurants, closest first, one cursor page at a time
+     */
+    @GetMapping(value = "/nearby", params = "paged=true")
+    public ResponseEntity<ApiResponse<CursorPageResponse<RestaurantSummaryResponse>>> getNearbyRestaurantsPage(
+            @RequestParam Double latitude,
+            @RequestParam Double longitude,
+            @RequestParam(defaultValue = "5.0") Double radiusKm,
+            @RequestParam(defaultValue = "50") Integer limit,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "false") Boolean includeTotal) {
+        log.info("REST request to get a page of nearby restaurants at {}, {} within {} km", latitude, longitude, radiusKm);
+        CursorPageResponse<RestaurantSummaryResponse> response =
+                restaurantService.getNearbyRestaurants(latitude, longitude, radiusKm, limit, cursor, includeTotal);
         return ResponseEntity.ok(ApiResponse.success("Nearby restaurants retrieved successfully", response));
     }
 
+    /**
+     * Search dishes by name across nearby restaurants
+     */
+    @GetMapping("/nearby/dishes")
+    public ResponseEntity<ApiResponse<List<NearbyDishResponse>>> searchNearbyDishes(
+            @RequestParam("q") String query,
+            @RequestParam Double latitude,
+            @RequestParam Double longitude,
+            @RequestParam(defaultValue = "5.0") Double radiusKm,
+            @RequestParam(defaultValue = "20") Integer limit) {
+        log.info("REST request to search dishes '{}' at {}, {} within {} km", query, latitude, longitude, radiusKm);
+        List<NearbyDishResponse> response = restaurantService.searchNearbyDishes(query, latitude, longitude, radiusKm, limit);
+        return ResponseEntity.ok(ApiResponse.success("Dishes retrieved successfully", response));
+    }
+
+    /**
+     * Typeahead suggestions for the search box
+     */
+    @GetMapping("/autocomplete")
+    public ResponseEntity<ApiResponse<List<AutocompleteSuggestionResponse>>> autocomplete(
+            @RequestParam("q") String query,
+            @RequestParam(defaultValue = "10") Integer limit) {
+        log.debug("REST request to autocomplete: {}", query);
+        List<AutocompleteSuggestionResponse> response = restaurantService.autocomplete(query, limit);
+        return ResponseEntity.ok(ApiResponse.success("Suggestions retrieved successfully", response));
+    }
+
     /**
      * Verify restaurant (admin only)
      */
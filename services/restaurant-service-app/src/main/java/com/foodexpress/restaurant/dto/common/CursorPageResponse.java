@@ -0,0 +1,26 @@
+package com.foodexpress.restaurant.dto.common;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * A page of a cursor-paginated listing
+ * Pass nextCursor back to fetch the following page; it is absent on the last page
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class CursorPageResponse<T> {
+    private List<T> content;
+    private int pageSize;
+    private boolean last;
+    private String nextCursor;
+    private Long totalElements; // Only when includeTotal was requested
+}
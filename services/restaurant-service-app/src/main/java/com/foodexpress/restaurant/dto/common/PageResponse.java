@@ -1,9 +1,11 @@
 package com.foodexpress.restaurant.dto.common;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Page;
 
 import java.util.List;
 
@@ -19,4 +21,25 @@ public class PageResponse<T> {
     private int totalPages;
     private boolean last;
     private boolean first;
+
+    /**
+     * Cursor continuing after this page, for listings that also support keyset paging
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String nextCursor;
+
+    /**
+     * Create a page response from a Spring Data page
+     */
+    public static <T> PageResponse<T> of(Page<T> page) {
+        return PageResponse.<T>builder()
+                .content(page.getContent())
+                .pageNumber(page.getNumber())
+                .pageSize(page.getSize())
+                .totalElements(page.getTotalElements())
+                .totalPages(page.getTotalPages())
+                .first(page.isFirst())
+                .last(page.isLast())
+                .build();
+    }
 }
\ No newline at end of file
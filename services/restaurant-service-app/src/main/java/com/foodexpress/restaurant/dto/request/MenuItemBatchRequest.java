@@ -0,0 +1,20 @@
+package com.foodexpress.restaurant.dto.request;
+
+import jakarta.validation.constraints.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MenuItemBatchRequest {
+
+    @NotEmpty(message = "At least one item ID is required")
+    @Size(max = 200, message = "Cannot look up more than 200 items at once")
+    private List<@NotBlank(message = "Item ID must not be blank") String> itemIds;
+}
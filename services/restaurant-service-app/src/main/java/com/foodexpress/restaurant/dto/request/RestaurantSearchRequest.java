@@ -39,8 +39,17 @@ public class RestaurantSearchRequest {
 
     private Integer size;
 
+    // Keyset pagination: nextCursor of the previous page; page is ignored when set
+    private String cursor;
+
+    // Count all matches on cursor pages too (offset pages always include the total)
+    private Boolean includeTotal;
+
     // Sorting
     private String sortBy; // rating, cost, distance
 
     private String sortDirection; // asc, desc
+
+    // Also return counts per filter chip (cuisine, rating, accepting orders, delivery fee)
+    private Boolean includeFacets;
 }
\ No newline at end of file
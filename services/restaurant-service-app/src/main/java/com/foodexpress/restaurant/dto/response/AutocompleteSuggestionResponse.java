@@ -0,0 +1,26 @@
+package com.foodexpress.restaurant.dto.response;
+
+import com.foodexpress.restaurant.entity.enums.CuisineType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AutocompleteSuggestionResponse {
+
+    public enum Type {
+        RESTAURANT,
+        CUISINE,
+        DISH
+    }
+
+    private Type type;
+    private String text;
+    private String restaurantId; // Only for RESTAURANT suggestions
+    private CuisineType cuisineType; // Only for CUISINE suggestions
+    private Double score; // Rating and popularity based, higher is better
+}
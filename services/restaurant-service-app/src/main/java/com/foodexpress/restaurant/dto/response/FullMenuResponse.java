@@ -12,8 +12,9 @@ import java.util.List;
 @NoArgsConstructor
 @AllArgsConstructor
 public class FullMenuResponse {
-    private Long restaurantId;
+    private String restaurantId;
     private String restaurantName;
+    private Long menuVersion;
     private List<MenuCategoryWithItems> categories;
 
     @Data
@@ -21,7 +22,7 @@ public class FullMenuResponse {
     @NoArgsConstructor
     @AllArgsConstructor
     public static class MenuCategoryWithItems {
-        private Long categoryId;
+        private String categoryId;
         private String categoryName;
         private String categoryDescription;
         private Integer displayOrder;
@@ -10,7 +10,7 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 @AllArgsConstructor
 public class MenuCategoryResponse {
-    private Long id;
+    private String id;
     private String name;
     private String description;
     private Integer displayOrder;
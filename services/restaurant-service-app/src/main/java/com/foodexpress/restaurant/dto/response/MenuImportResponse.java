@@ -0,0 +1,33 @@
+package com.foodexpress.restaurant.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MenuImportResponse {
+    private String restaurantId;
+    private Integer totalRows;
+    private Integer imported;
+    private Integer failed;
+    private Long durationMs;
+    private Double itemsPerSecond;
+    private Long menuVersion;
+    private List<RowError> errors;
+    private Boolean errorsTruncated;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RowError {
+        private Integer line;
+        private String name;
+        private String message;
+    }
+}
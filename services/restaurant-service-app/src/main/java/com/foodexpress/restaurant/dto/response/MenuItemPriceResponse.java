@@ -0,0 +1,22 @@
+package com.foodexpress.restaurant.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * What internal callers need to price or validate an item: price is the price a customer pays
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MenuItemPriceResponse {
+    private String id;
+    private String name;
+    private BigDecimal price;
+    private Boolean isAvailable;
+}
@@ -14,7 +14,7 @@ import java.math.BigDecimal;
 @NoArgsConstructor
 @AllArgsConstructor
 public class MenuItemResponse {
-    private Long id;
+    private String id;
     private String name;
     private String description;
     private BigDecimal price;
@@ -25,6 +25,6 @@ public class MenuItemResponse {
     private Boolean isBestseller;
     private String imageUrl;
     private Integer preparationTimeMinutes;
-    private Long categoryId;
+    private String categoryId;
     private String categoryName;
 }
\ No newline at end of file
@@ -0,0 +1,41 @@
+package com.foodexpress.restaurant.dto.response;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+/**
+ * Immutable price table of a restaurant's menu at one menu version
+ *
+ * Holds the orderable (available) items only, keyed by menu item ID, with the price a customer
+ * pays for them. A (restaurantId, menuVersion) pair always describes the same table, so callers
+ * may keep a snapshot and only re-fetch once the version moved on.
+ * When the caller already holds the current version the table is left out and unchanged is set.
+ */
+@Value
+@Builder
+public class MenuSnapshotResponse {
+
+    String restaurantId;
+
+    Long menuVersion;
+
+    boolean unchanged;
+
+    Map<String, Item> items;
+
+    @Value
+    public static class Item {
+        String name;
+        BigDecimal price;
+    }
+
+    /**
+     * Reply to a caller that already holds the current version
+     */
+    public static MenuSnapshotResponse unchanged(String restaurantId, long menuVersion) {
+        return MenuSnapshotResponse.builder().restaurantId(restaurantId).menuVersion(menuVersion).unchanged(true).build();
+    }
+}
@@ -0,0 +1,29 @@
+package com.foodexpress.restaurant.dto.response;
+
+import com.foodexpress.restaurant.entity.enums.DietaryType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class NearbyDishResponse {
+    private String menuItemId;
+    private String name;
+    private String description;
+    private BigDecimal price;
+    private BigDecimal discountedPrice;
+    private DietaryType dietaryType;
+    private Boolean isBestseller;
+    private String imageUrl;
+    private BigDecimal rating;
+    private String restaurantId;
+    private String restaurantName;
+    private BigDecimal restaurantRating;
+    private Double distanceInKm;
+}
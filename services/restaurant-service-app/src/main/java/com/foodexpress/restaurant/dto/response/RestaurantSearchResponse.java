@@ -0,0 +1,31 @@
+package com.foodexpress.restaurant.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+import com.foodexpress.restaurant.dto.common.CursorPageResponse;
+import com.foodexpress.restaurant.dto.common.PageResponse;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A page of search results, serialized with the page fields at the top level as before,
+ * plus the facet counts when they were requested
+ * Exactly one of page (offset paging) and window (cursor paging) is set
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RestaurantSearchResponse {
+
+    @JsonUnwrapped
+    private PageResponse<RestaurantSummaryResponse> page;
+
+    @JsonUnwrapped
+    private CursorPageResponse<RestaurantSummaryResponse> window;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private SearchFacetsResponse facets;
+}
@@ -14,7 +14,7 @@ import java.util.List;
 @NoArgsConstructor
 @AllArgsConstructor
 public class RestaurantSummaryResponse {
-    private Long id;
+    private String id;
     private String name;
     private String description;
     private List<CuisineType> cuisineTypes;
@@ -0,0 +1,23 @@
+package com.foodexpress.restaurant.dto.response;
+
+import com.foodexpress.restaurant.entity.enums.CuisineType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * Restaurant counts per filter chip, over everything matching the search filters
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SearchFacetsResponse {
+    private Map<CuisineType, Long> cuisines;
+    private Map<String, Long> minRatings; // "4.5" -> restaurants rated 4.5 or more, matching the minRating filter
+    private Long acceptingOrders;
+    private Map<String, Long> deliveryFees; // FREE, UNDER_20, 20_TO_40, 40_TO_60, 60_PLUS
+}
@@ -10,18 +10,32 @@ import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.LastModifiedDate;
-import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.TextIndexed;
 import org.springframework.data.mongodb.core.mapping.DBRef;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.Field;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.List;
 
 /**
  * Menu Item entity representing a food item in a restaurant's menu
+ * The text index uses language "none": no stemming or stop words, so prefixes match as typed
  */
-@Document(collection = "menu_items")
+@Document(collection = "menu_items", language = "none")
+// Dish search near a point: restaurant ids from $geoNear, then whole-word / prefix match on the name
+@CompoundIndex(name = "restaurant_prefix_idx", def = "{ 'restaurant_id': 1, 'search_prefixes': 1 }")
+// One index per MenuItemRepository finder shape: equality fields first, then the sort key, then range fields
+@CompoundIndex(name = "restaurant_available_rating_idx", def = "{ 'restaurant_id': 1, 'is_available': 1, 'average_rating': -1 }")
+@CompoundIndex(name = "restaurant_available_price_idx", def = "{ 'restaurant_id': 1, 'is_available': 1, 'price': 1 }")
+@CompoundIndex(name = "restaurant_category_idx", def = "{ 'restaurant_id': 1, 'category_id': 1, 'is_available': 1 }")
+@CompoundIndex(name = "restaurant_bestseller_idx", def = "{ 'restaurant_id': 1, 'is_bestseller': 1, 'is_available': 1 }")
+@CompoundIndex(name = "restaurant_dietary_idx", def = "{ 'restaurant_id': 1, 'dietary_type': 1, 'is_available': 1 }")
+@CompoundIndex(name = "restaurant_discounted_idx", def = "{ 'restaurant_id': 1, 'is_discounted': 1, 'is_available': 1 }")
+@CompoundIndex(name = "restaurant_name_idx", def = "{ 'restaurant_id': 1, 'name': 1 }")
+@CompoundIndex(name = "category_available_idx", def = "{ 'category_id': 1, 'is_available': 1 }")
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -31,28 +45,42 @@ public class MenuItem {
     @Id
     private String id;
 
-    // Add this new field
     @Field("restaurant_id")
-    @Indexed
     private String restaurantId;
 
-    // Same for category
     @Field("category_id")
-    @Indexed
     private String categoryId;
 
     @Field("name")
+    @TextIndexed(weight = 10)
     private String name;
 
     @Field("description")
+    @TextIndexed
     private String description;
 
+    /**
+     * Leading prefixes of the name tokens, maintained on save
+     * Part of the text index so that partially typed words match
+     */
+    @Field("search_prefixes")
+    @TextIndexed(weight = 3)
+    private List<String> searchPrefixes;
+
     @Field("price")
     private BigDecimal price;
 
     @Field("discounted_price")
     private BigDecimal discountedPrice;
 
+    /**
+     * Whether discountedPrice is below price, maintained on save
+     * Stored so that discounted items can be found through an index instead of a $expr scan
+     */
+    @Field("is_discounted")
+    @Builder.Default
+    private Boolean isDiscounted = false;
+
     @Field("image_url")
     private String imageUrl;
 
@@ -8,6 +8,13 @@ import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.annotation.ReadOnlyProperty;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.GeoSpatialIndexType;
+import org.springframework.data.mongodb.core.index.GeoSpatialIndexed;
+import org.springframework.data.mongodb.core.index.TextIndexed;
 import org.springframework.data.mongodb.core.mapping.DBRef;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.Field;
@@ -21,8 +28,20 @@ import java.util.List;
 /**
  * Restaurant entity representing a restaurant in the system
  * Owned by a user (restaurant owner)
+ * The text index uses language "none": no stemming or stop words, so prefixes match as typed
  */
-@Document(collection = "restaurants")
+@Document(collection = "restaurants", language = "none")
+@CompoundIndexes({
+        // Restaurant search: equality on status flags, then the normalized city, sorted by rating
+        // _id last: the tie-breaker of every cursor sort, so cursor pages are range seeks in index order
+        @CompoundIndex(name = "search_city_key_rating_id_idx",
+                def = "{ 'is_active': 1, 'is_verified': 1, 'city_key': 1, 'average_rating': -1, '_id': -1 }"),
+        @CompoundIndex(name = "search_rating_id_idx",
+                def = "{ 'is_active': 1, 'is_verified': 1, 'average_rating': -1, '_id': -1 }"),
+        // Cuisine filter chip; multikey over the cuisine_types array
+        @CompoundIndex(name = "search_cuisine_rating_id_idx",
+                def = "{ 'is_active': 1, 'is_verified': 1, 'cuisine_types': 1, 'average_rating': -1, '_id': -1 }")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -40,17 +59,29 @@ public class Restaurant {
     private Long ownerUserId;
 
     @Field("name")
+    @TextIndexed(weight = 10)
     private String name;
 
     @Field("description")
+    @TextIndexed
     private String description;
 
     /**
-     * Store multiple cuisine types as comma-separated string
-     * Example: "INDIAN,CHINESE,CONTINENTAL"
+     * Stored as an array of enum names, e.g. ["INDIAN", "CHINESE"]
+     * Older documents held a comma-separated string; see RestaurantCuisineMigration
      */
     @Field("cuisine_types")
-    private String cuisineTypes;
+    @TextIndexed(weight = 5)
+    @Builder.Default
+    private List<CuisineType> cuisineTypes = new ArrayList<>();
+
+    /**
+     * Leading prefixes of the name and cuisine tokens, maintained on save
+     * Part of the text index so that partially typed words match
+     */
+    @Field("search_prefixes")
+    @TextIndexed(weight = 3)
+    private List<String> searchPrefixes;
 
     @Field("full_address")
     private String fullAddress;
@@ -58,6 +89,13 @@ public class Restaurant {
     @Field("city")
     private String city;
 
+    /**
+     * City trimmed and lower-cased, maintained on save
+     * City filters match it by equality, so they stay on the search index whatever the input's case
+     */
+    @Field("city_key")
+    private String cityKey;
+
     @Field("state")
     private String state;
 
@@ -68,6 +106,14 @@ public class Restaurant {
 
     private BigDecimal longitude;
 
+    /**
+     * GeoJSON point [longitude, latitude] mirroring the latitude / longitude fields
+     * Backed by a 2dsphere index so distance queries run as $geoNear in MongoDB
+     */
+    @Field("location")
+    @GeoSpatialIndexed(name = "location_2dsphere_idx", type = GeoSpatialIndexType.GEO_2DSPHERE)
+    private GeoJsonPoint location;
+
     private String phone;
 
     private String email;
@@ -113,6 +159,16 @@ public class Restaurant {
     @Field("banner_url")
     private String bannerUrl;
 
+    /**
+     * Incremented on every write to the restaurant or its menu (categories / items)
+     * Used as the cache key version for full-menu responses and as the ETag of menu and restaurant reads
+     * Read-only so that saving a Restaurant never overwrites a concurrent $inc
+     */
+    @Field("menu_version")
+    @ReadOnlyProperty
+    @Builder.Default
+    private Long menuVersion = 0L;
+
     /**
      * One restaurant can have many menu categories
      * In Mongo, we can embed them or reference them.
@@ -141,6 +197,19 @@ public class Restaurant {
     private LocalDateTime updatedAt;
 
     // Helper methods
+    public void setCoordinates(Double latitude, Double longitude) {
+        this.latitude = BigDecimal.valueOf(latitude);
+        this.longitude = BigDecimal.valueOf(longitude);
+        this.location = new GeoJsonPoint(longitude, latitude);
+    }
+
+    /**
+     * Restaurants saved before menu_version existed have no version stored; they are at version 0
+     */
+    public Long getMenuVersion() {
+        return menuVersion != null ? menuVersion : 0L;
+    }
+
     public void addMenuCategory(MenuCategory category) {
         menuCategories.add(category);
         category.setRestaurantId(this.id);
@@ -171,34 +240,4 @@ public class Restaurant {
         LocalTime now = LocalTime.now();
         return now.isAfter(openingTime) && now.isBefore(closingTime);
     }
-
-    /**
-     * Parse cuisine types from comma-separated string
-     */
-    public List<CuisineType> getCuisineTypesList() {
-        if (cuisineTypes == null || cuisineTypes.isEmpty()) {
-            return new ArrayList<>();
-        }
-        List<CuisineType> types = new ArrayList<>();
-        for (String type : cuisineTypes.split(",")) {
-            try {
-                types.add(CuisineType.valueOf(type.trim()));
-            } catch (IllegalArgumentException e) {
-                // Skip invalid types
-            }
-        }
-        return types;
-    }
-
-    /**
-     * Set cuisine types from list
-     */
-    public void setCuisineTypesList(List<CuisineType> types) {
-        if (types == null || types.isEmpty()) {
-            this.cuisineTypes = null;
-            return;
-        }
-        this.cuisineTypes = String.join(",",
-                types.stream().map(Enum::name).toArray(String[]::new));
-    }
 }
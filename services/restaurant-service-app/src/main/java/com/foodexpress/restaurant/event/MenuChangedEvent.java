@@ -0,0 +1,26 @@
+package com.foodexpress.restaurant.event;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.springframework.cloud.bus.event.Destination;
+import org.springframework.cloud.bus.event.RemoteApplicationEvent;
+
+/**
+ * Broadcast over Spring Cloud Bus (RabbitMQ) whenever a restaurant's menu changes,
+ * so every restaurant-service instance can drop its cached copy of that menu
+ */
+@Getter
+@NoArgsConstructor // Required for deserialization by the bus
+public class MenuChangedEvent extends RemoteApplicationEvent {
+
+    private String restaurantId;
+
+    private long menuVersion;
+
+    public MenuChangedEvent(Object source, String originService, Destination destination,
+                            String restaurantId, long menuVersion) {
+        super(source, originService, destination);
+        this.restaurantId = restaurantId;
+        this.menuVersion = menuVersion;
+    }
+}
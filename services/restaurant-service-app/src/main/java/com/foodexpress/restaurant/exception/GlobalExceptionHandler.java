@@ -93,6 +93,19 @@ public class GlobalExceptionHandler {
         return ResponseEntity.badRequest().body(response);
     }
 
+    /**
+     * Handle ServiceUnavailableException (503)
+     */
+    @ExceptionHandler(ServiceUnavailableException.class)
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public ResponseEntity<ApiResponse<Void>> handleServiceUnavailableException(ServiceUnavailableException ex) {
+        String traceId = generateTraceId();
+        log.warn("Service unavailable. TraceId: {}, Message: {}", traceId, ex.getMessage());
+
+        ApiResponse<Void> response = ApiResponse.error(ex.getMessage(), traceId);
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(response);
+    }
+
     /**
      * Handle IllegalArgumentException (400)
      */
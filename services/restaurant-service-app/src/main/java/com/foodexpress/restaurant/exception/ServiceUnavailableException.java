@@ -0,0 +1,12 @@
+package com.foodexpress.restaurant.exception;
+
+/**
+ * Thrown when a feature can't answer yet, but will once the service has caught up
+ * Example: Autocomplete before its in-memory index has been built
+ */
+public class ServiceUnavailableException extends RuntimeException {
+
+    public ServiceUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,16 @@
+package com.foodexpress.restaurant.geo;
+
+import lombok.Value;
+
+/**
+ * What the in-memory grid keeps about an active restaurant
+ * Immutable: an update replaces the entry, so readers never see a half-written one
+ */
+@Value
+public class GeoEntry {
+    String restaurantId;
+    double latitude;
+    double longitude;
+    double rating;
+    boolean acceptingOrders;
+}
@@ -0,0 +1,291 @@
+package com.foodexpress.restaurant.geo;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.DoubleSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Uniform latitude / longitude grid of points, answering radius queries with a ring search
+ *
+ * Each cell is immutable and writers replace it wholesale, so readers never lock: they see
+ * either the old or the new version of a cell, and an update or removal within a cell is a
+ * single swap. Moving an entry between cells takes two swaps, so moves are bracketed by a
+ * sequence counter (odd while one is in progress) and a query that overlapped a move is
+ * simply run again; moves are rare next to reads. Writes must come from a single thread.
+ *
+ * Cells keep their coordinates as primitive columns, so distances are computed a cell at a
+ * time by {@link HaversineBatch} and the closest hits are selected with a {@link NearestHeap}.
+ */
+public class GeoGrid {
+
+    /** Sphere radius MongoDB uses for spherical distances, so both agree on distances and cursors */
+    static final double EARTH_RADIUS_KM = 6378.1;
+
+    private static final double KM_PER_DEGREE = Math.toRadians(1) * EARTH_RADIUS_KM;
+
+    private static final int INITIAL_BUFFER = 64;
+
+    /**
+     * Decides whether a hit within the radius counts towards a query
+     */
+    @FunctionalInterface
+    public interface HitFilter {
+
+        HitFilter ALL = (entry, distanceKm) -> true;
+
+        boolean test(GeoEntry entry, double distanceKm);
+    }
+
+    @FunctionalInterface
+    private interface HitVisitor {
+        void visit(GeoEntry entry, double distanceKm);
+    }
+
+    private final double cellDegrees;
+
+    private final int rows;
+
+    private final int columns;
+
+    private final ConcurrentHashMap<Long, Cell> cells = new ConcurrentHashMap<>();
+
+    /** Latest entry of each restaurant; only used by the writer to find the cell an entry is in */
+    private final ConcurrentHashMap<String, GeoEntry> current = new ConcurrentHashMap<>();
+
+    private final AtomicLong moves = new AtomicLong();
+
+    public GeoGrid(double cellDegrees) {
+        this.cellDegrees = cellDegrees;
+        this.rows = (int) Math.ceil(180 / cellDegrees);
+        this.columns = (int) Math.ceil(360 / cellDegrees);
+    }
+
+    public int size() {
+        return current.size();
+    }
+
+    /**
+     * Add the entry, or replace the one with the same restaurant id
+     */
+    public void put(GeoEntry entry) {
+        long cell = cellOf(entry.getLatitude(), entry.getLongitude());
+        GeoEntry previous = current.put(entry.getRestaurantId(), entry);
+        if (previous == null) {
+            cells.compute(cell, (key, existing) -> Cell.with(existing, null, entry));
+            return;
+        }
+
+        long previousCell = cellOf(previous.getLatitude(), previous.getLongitude());
+        if (previousCell == cell) {
+            cells.compute(cell, (key, existing) -> Cell.with(existing, previous, entry));
+            return;
+        }
+
+        moves.incrementAndGet();
+        try {
+            cells.compute(cell, (key, existing) -> Cell.with(existing, null, entry));
+            cells.computeIfPresent(previousCell, (key, existing) -> existing.without(previous));
+        } finally {
+            moves.incrementAndGet();
+        }
+    }
+
+    public void remove(String restaurantId) {
+        GeoEntry previous = current.remove(restaurantId);
+        if (previous != null) {
+            cells.computeIfPresent(cellOf(previous.getLatitude(), previous.getLongitude()),
+                    (key, existing) -> existing.without(previous));
+        }
+    }
+
+    /**
+     * The closest entries within radiusKm that pass the filter, closest first, at most limit of them
+     * Rings of cells are scanned outwards from the query point and the scan stops as soon as
+     * no unscanned cell can hold anything closer than the limit-th hit
+     */
+    public List<GeoHit> nearest(double latitude, double longitude, double radiusKm, HitFilter filter, int limit) {
+        if (limit <= 0) {
+            return List.of();
+        }
+
+        return consistently(() -> {
+            NearestHeap closest = new NearestHeap(limit);
+            scan(latitude, longitude, radiusKm, (entry, distance) -> {
+                // Only hits that would enter the heap are worth filtering
+                if (distance <= closest.cutoff() && filter.test(entry, distance)) {
+                    closest.offer(entry, distance);
+                }
+            }, closest::cutoff);
+            return closest.drain();
+        });
+    }
+
+    /**
+     * Number of entries within radiusKm of the point
+     */
+    public long count(double latitude, double longitude, double radiusKm) {
+        return consistently(() -> {
+            long[] count = {0};
+            scan(latitude, longitude, radiusKm, (entry, distance) -> count[0]++, () -> Double.POSITIVE_INFINITY);
+            return count[0];
+        });
+    }
+
+    /**
+     * Great-circle distance in km (haversine)
+     */
+    static double distanceKm(double fromLatitude, double fromLongitude, double toLatitude, double toLongitude) {
+        double dLatitude = Math.toRadians(toLatitude - fromLatitude);
+        double dLongitude = Math.toRadians(toLongitude - fromLongitude);
+        double a = Math.sin(dLatitude / 2) * Math.sin(dLatitude / 2)
+                + Math.cos(Math.toRadians(fromLatitude)) * Math.cos(Math.toRadians(toLatitude))
+                * Math.sin(dLongitude / 2) * Math.sin(dLongitude / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    /**
+     * Run the query until it completes without overlapping a move between cells
+     */
+    private <T> T consistently(Supplier<T> query) {
+        while (true) {
+            long before = moves.get();
+            if ((before & 1) == 0) {
+                T result = query.get();
+                if (moves.get() == before) {
+                    return result;
+                }
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * Visit every entry within radiusKm, ring by ring, until the ring's lower distance bound exceeds the cutoff
+     */
+    private void scan(double latitude, double longitude, double radiusKm, HitVisitor visitor, DoubleSupplier cutoff) {
+        int row = row(latitude);
+        int column = column(longitude);
+
+        // Cells narrow towards the poles, so bound column rings by the width at the most poleward latitude reached
+        double cellHeightKm = cellDegrees * KM_PER_DEGREE;
+        double poleward = Math.min(90, Math.abs(latitude) + radiusKm / KM_PER_DEGREE);
+        double cellWidthKm = cellHeightKm * Math.cos(Math.toRadians(poleward));
+        int rowRings = (int) Math.ceil(radiusKm / cellHeightKm);
+        int maxColumnRings = (columns - 1) / 2;
+        int columnRings = cellWidthKm < 1e-9 ? maxColumnRings
+                : (int) Math.min(maxColumnRings, Math.ceil(radiusKm / cellWidthKm));
+        double ringKm = Math.min(cellHeightKm, cellWidthKm);
+
+        double latitudeRadians = Math.toRadians(latitude);
+        double longitudeRadians = Math.toRadians(longitude);
+        double[] distances = new double[INITIAL_BUFFER];
+
+        for (int ring = 0; ring <= Math.max(rowRings, columnRings); ring++) {
+            // Anything in this ring is at least ring - 1 whole cells away from the query point
+            double lowerBoundKm = Math.max(0, ring - 1) * ringKm;
+            if (lowerBoundKm > radiusKm || lowerBoundKm > cutoff.getAsDouble()) {
+                return;
+            }
+            for (int dRow = -Math.min(ring, rowRings); dRow <= Math.min(ring, rowRings); dRow++) {
+                int cellRow = row + dRow;
+                if (cellRow < 0 || cellRow >= rows) {
+                    continue;
+                }
+                // Inner rows of a ring only have their two edge cells
+                int step = Math.abs(dRow) == ring ? 1 : 2 * ring;
+                for (int dColumn = -ring; dColumn <= ring; dColumn += step) {
+                    if (Math.abs(dColumn) > columnRings) {
+                        continue;
+                    }
+                    Cell cell = cells.get(key(cellRow, Math.floorMod(column + dColumn, columns)));
+                    if (cell == null) {
+                        continue;
+                    }
+                    if (distances.length < cell.entries.length) {
+                        distances = new double[Math.max(cell.entries.length, 2 * distances.length)];
+                    }
+                    cell.visit(latitudeRadians, longitudeRadians, radiusKm, distances, visitor);
+                }
+            }
+        }
+    }
+
+    private long cellOf(double latitude, double longitude) {
+        return key(row(latitude), column(longitude));
+    }
+
+    private int row(double latitude) {
+        return Math.min(rows - 1, Math.max(0, (int) Math.floor((latitude + 90) / cellDegrees)));
+    }
+
+    private int column(double longitude) {
+        return Math.floorMod((int) Math.floor((longitude + 180) / cellDegrees), columns);
+    }
+
+    private static long key(int row, int column) {
+        return ((long) row << 32) | column;
+    }
+
+    /**
+     * Immutable cell contents: the entries, and their coordinates in radians as primitive columns
+     */
+    private static final class Cell {
+
+        private final GeoEntry[] entries;
+
+        private final double[] latitudes;
+
+        private final double[] longitudes;
+
+        private final double[] cosLatitudes;
+
+        private Cell(GeoEntry[] entries) {
+            this.entries = entries;
+            this.latitudes = new double[entries.length];
+            this.longitudes = new double[entries.length];
+            this.cosLatitudes = new double[entries.length];
+            for (int i = 0; i < entries.length; i++) {
+                latitudes[i] = Math.toRadians(entries[i].getLatitude());
+                longitudes[i] = Math.toRadians(entries[i].getLongitude());
+                cosLatitudes[i] = Math.cos(latitudes[i]);
+            }
+        }
+
+        void visit(double latitude, double longitude, double radiusKm, double[] distances, HitVisitor visitor) {
+            HaversineBatch.distancesKm(latitude, longitude, latitudes, longitudes, cosLatitudes, entries.length, distances);
+            for (int i = 0; i < entries.length; i++) {
+                if (distances[i] <= radiusKm) {
+                    visitor.visit(entries[i], distances[i]);
+                }
+            }
+        }
+
+        /**
+         * The cell with the entry added, in place of the replaced one if that is given
+         */
+        static Cell with(Cell cell, GeoEntry replaced, GeoEntry entry) {
+            GeoEntry[] existing = cell == null ? new GeoEntry[0] : cell.entries;
+            for (int i = 0; i < existing.length; i++) {
+                if (existing[i] == replaced) {
+                    GeoEntry[] updated = existing.clone();
+                    updated[i] = entry;
+                    return new Cell(updated);
+                }
+            }
+            GeoEntry[] updated = Arrays.copyOf(existing, existing.length + 1);
+            updated[existing.length] = entry;
+            return new Cell(updated);
+        }
+
+        /**
+         * The cell without this exact entry, or null (dropping the cell) when none are left
+         */
+        Cell without(GeoEntry entry) {
+            GeoEntry[] updated = Arrays.stream(entries).filter(e -> e != entry).toArray(GeoEntry[]::new);
+            return updated.length == 0 ? null : new Cell(updated);
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.foodexpress.restaurant.geo;
+
+import com.foodexpress.restaurant.entity.Restaurant;
+import com.foodexpress.restaurant.event.MenuChangedEvent;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
+
+/**
+ * In-memory spatial index of active, verified restaurants: location, rating and whether they accept orders
+ *
+ * Built once on startup, then refreshed one restaurant at a time on every {@link MenuChangedEvent},
+ * local or bus-delivered (every restaurant write publishes one). Refreshes run on a single
+ * background thread, which keeps them in event order and makes it the grid's only writer.
+ * Queries are lock-free and never touch MongoDB; until the first build has finished the
+ * index reports itself as not ready and callers fall back to $geoNear.
+ */
+@Component
+@Slf4j
+public class GeoGridIndex {
+
+    /** About 2.2 km north-south, so a default 5 km radius is answered from a few rings of cells */
+    private static final double CELL_DEGREES = 0.02;
+
+    private final MongoTemplate mongoTemplate;
+
+    private final GeoGrid grid = new GeoGrid(CELL_DEGREES);
+
+    private volatile boolean ready;
+
+    private final ExecutorService refresher = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "geo-grid-refresh");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public GeoGridIndex(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * The closest restaurants within radiusKm that pass the filter, closest first
+     */
+    public List<GeoHit> nearest(double latitude, double longitude, double radiusKm, GeoGrid.HitFilter filter, int limit) {
+        return grid.nearest(latitude, longitude, radiusKm, filter, limit);
+    }
+
+    /**
+     * Number of restaurants within radiusKm of the point
+     */
+    public long count(double latitude, double longitude, double radiusKm) {
+        return grid.count(latitude, longitude, radiusKm);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        refresher.execute(this::rebuild);
+    }
+
+    /**
+     * Handles both locally published and bus-delivered changes
+     */
+    @EventListener
+    public void onMenuChanged(MenuChangedEvent event) {
+        refresher.execute(() -> refresh(event.getRestaurantId()));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refresher.shutdownNow();
+    }
+
+    private void rebuild() {
+        try (Stream<Restaurant> restaurants = mongoTemplate.stream(query(new Criteria()), Restaurant.class)) {
+            restaurants.forEach(this::apply);
+            ready = true;
+            log.info("Geo grid index built with {} restaurants", grid.size());
+        } catch (RuntimeException e) {
+            log.warn("Failed to build geo grid index, nearby queries stay on MongoDB", e);
+        }
+    }
+
+    private void refresh(String restaurantId) {
+        try {
+            Restaurant restaurant = mongoTemplate.findOne(query(Criteria.where("id").is(restaurantId)), Restaurant.class);
+            if (restaurant == null) {
+                grid.remove(restaurantId);
+            } else {
+                apply(restaurant);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Failed to refresh geo grid entry for restaurant ID: {}", restaurantId, e);
+        }
+    }
+
+    private void apply(Restaurant restaurant) {
+        double latitude;
+        double longitude;
+        if (restaurant.getLocation() != null) {
+            latitude = restaurant.getLocation().getY();
+            longitude = restaurant.getLocation().getX();
+        } else if (restaurant.getLatitude() != null && restaurant.getLongitude() != null) {
+            // Not backfilled by RestaurantLocationMigration yet
+            latitude = restaurant.getLatitude().doubleValue();
+            longitude = restaurant.getLongitude().doubleValue();
+        } else {
+            grid.remove(restaurant.getId());
+            return;
+        }
+        grid.put(new GeoEntry(restaurant.getId(), latitude, longitude,
+                restaurant.getAverageRating() == null ? 0 : restaurant.getAverageRating().doubleValue(),
+                Boolean.TRUE.equals(restaurant.getIsAcceptingOrders())));
+    }
+
+    private static Query query(Criteria criteria) {
+        Query query = new Query(criteria.and("isActive").is(true).and("isVerified").is(true));
+        query.fields().include("location", "latitude", "longitude", "averageRating", "isAcceptingOrders");
+        return query;
+    }
+}
@@ -0,0 +1,19 @@
+package com.foodexpress.restaurant.geo;
+
+import lombok.Value;
+
+import java.util.Comparator;
+
+/**
+ * A grid entry found by a radius query, with its great-circle distance from the query point
+ */
+@Value
+public class GeoHit {
+
+    /** Closest first; equal distances by restaurant id, so the order is stable */
+    public static final Comparator<GeoHit> BY_DISTANCE = Comparator.comparingDouble(GeoHit::getDistanceKm)
+            .thenComparing(hit -> hit.getEntry().getRestaurantId());
+
+    GeoEntry entry;
+    double distanceKm;
+}
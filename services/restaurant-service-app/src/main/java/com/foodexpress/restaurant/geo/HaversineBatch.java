@@ -0,0 +1,44 @@
+package com.foodexpress.restaurant.geo;
+
+/**
+ * Great-circle distances from one point to a batch of points held as primitive columns
+ *
+ * Points are stored as latitude / longitude in radians plus the cosine of their latitude,
+ * so each distance costs two sines, a square root and an arcsine. Uses the JDK Vector API
+ * when the incubator module is available (run with --add-modules jdk.incubator.vector),
+ * otherwise a scalar loop over the same columns.
+ */
+final class HaversineBatch {
+
+    static final boolean VECTORIZED = ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+
+    private HaversineBatch() {
+    }
+
+    /**
+     * Write the distance in km from the origin to each of the first length points into distances
+     */
+    static void distancesKm(double latitude, double longitude, double[] latitudes, double[] longitudes,
+                            double[] cosLatitudes, int length, double[] distances) {
+        if (VECTORIZED) {
+            VectorHaversine.distancesKm(latitude, longitude, latitudes, longitudes, cosLatitudes, length, distances);
+        } else {
+            scalarDistancesKm(latitude, longitude, latitudes, longitudes, cosLatitudes, 0, length, distances);
+        }
+    }
+
+    /**
+     * Scalar kernel for points from..to; also finishes the tail the vector loop leaves over
+     * Origin and points are in radians
+     */
+    static void scalarDistancesKm(double latitude, double longitude, double[] latitudes, double[] longitudes,
+                                  double[] cosLatitudes, int from, int to, double[] distances) {
+        double cosLatitude = Math.cos(latitude);
+        for (int i = from; i < to; i++) {
+            double sinLatitude = Math.sin((latitudes[i] - latitude) * 0.5);
+            double sinLongitude = Math.sin((longitudes[i] - longitude) * 0.5);
+            double a = sinLatitude * sinLatitude + cosLatitude * cosLatitudes[i] * sinLongitude * sinLongitude;
+            distances[i] = 2 * GeoGrid.EARTH_RADIUS_KM * Math.asin(Math.sqrt(Math.min(1, a)));
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.foodexpress.restaurant.geo;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Bounded max-heap over primitive distances keeping the k closest entries seen so far
+ * Ordered like {@link GeoHit#BY_DISTANCE}; hits are only allocated for the k survivors
+ */
+final class NearestHeap {
+
+    private final double[] distances;
+
+    private final GeoEntry[] entries;
+
+    private int size;
+
+    NearestHeap(int capacity) {
+        this.distances = new double[capacity];
+        this.entries = new GeoEntry[capacity];
+    }
+
+    /**
+     * Distance a new entry has to beat once the heap is full, infinity until then
+     */
+    double cutoff() {
+        return size == distances.length ? distances[0] : Double.POSITIVE_INFINITY;
+    }
+
+    void offer(GeoEntry entry, double distance) {
+        if (size < distances.length) {
+            distances[size] = distance;
+            entries[size] = entry;
+            siftUp(size++);
+        } else if (after(distances[0], entries[0], distance, entry)) {
+            distances[0] = distance;
+            entries[0] = entry;
+            siftDown(0);
+        }
+    }
+
+    /**
+     * The kept entries, closest first; empties the heap
+     */
+    List<GeoHit> drain() {
+        GeoHit[] hits = new GeoHit[size];
+        while (size > 0) {
+            hits[size - 1] = new GeoHit(entries[0], distances[0]);
+            size--;
+            distances[0] = distances[size];
+            entries[0] = entries[size];
+            entries[size] = null;
+            siftDown(0);
+        }
+        return Arrays.asList(hits);
+    }
+
+    private void siftUp(int index) {
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (!after(distances[index], entries[index], distances[parent], entries[parent])) {
+                return;
+            }
+            swap(index, parent);
+            index = parent;
+        }
+    }
+
+    private void siftDown(int index) {
+        while (true) {
+            int largest = index;
+            for (int child = 2 * index + 1; child <= 2 * index + 2 && child < size; child++) {
+                if (after(distances[child], entries[child], distances[largest], entries[largest])) {
+                    largest = child;
+                }
+            }
+            if (largest == index) {
+                return;
+            }
+            swap(index, largest);
+            index = largest;
+        }
+    }
+
+    private void swap(int i, int j) {
+        double distance = distances[i];
+        distances[i] = distances[j];
+        distances[j] = distance;
+        GeoEntry entry = entries[i];
+        entries[i] = entries[j];
+        entries[j] = entry;
+    }
+
+    /**
+     * Whether (distance, entry) sorts after (otherDistance, other)
+     */
+    private static boolean after(double distance, GeoEntry entry, double otherDistance, GeoEntry other) {
+        int byDistance = Double.compare(distance, otherDistance);
+        return byDistance > 0 || byDistance == 0 && entry.getRestaurantId().compareTo(other.getRestaurantId()) > 0;
+    }
+}
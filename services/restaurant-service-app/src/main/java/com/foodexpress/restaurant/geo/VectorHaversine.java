@@ -0,0 +1,34 @@
+package com.foodexpress.restaurant.geo;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Vector API kernel of {@link HaversineBatch}
+ * Only loaded when jdk.incubator.vector is in the boot layer, so the service still runs without it
+ */
+final class VectorHaversine {
+
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+    private VectorHaversine() {
+    }
+
+    static void distancesKm(double latitude, double longitude, double[] latitudes, double[] longitudes,
+                            double[] cosLatitudes, int length, double[] distances) {
+        double cosLatitude = Math.cos(latitude);
+        int bound = SPECIES.loopBound(length);
+        int i = 0;
+        for (; i < bound; i += SPECIES.length()) {
+            DoubleVector sinLatitude = DoubleVector.fromArray(SPECIES, latitudes, i)
+                    .sub(latitude).mul(0.5).lanewise(VectorOperators.SIN);
+            DoubleVector sinLongitude = DoubleVector.fromArray(SPECIES, longitudes, i)
+                    .sub(longitude).mul(0.5).lanewise(VectorOperators.SIN);
+            DoubleVector a = DoubleVector.fromArray(SPECIES, cosLatitudes, i).mul(cosLatitude)
+                    .mul(sinLongitude).fma(sinLongitude, sinLatitude.mul(sinLatitude));
+            a.min(1.0).sqrt().lanewise(VectorOperators.ASIN).mul(2 * GeoGrid.EARTH_RADIUS_KM).intoArray(distances, i);
+        }
+        HaversineBatch.scalarDistancesKm(latitude, longitude, latitudes, longitudes, cosLatitudes, i, length, distances);
+    }
+}
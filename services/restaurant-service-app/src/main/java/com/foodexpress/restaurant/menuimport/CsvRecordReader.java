@@ -0,0 +1,99 @@
+package com.foodexpress.restaurant.menuimport;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.PushbackReader;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Minimal streaming RFC 4180 reader: comma separated, fields optionally double-quoted,
+ * "" for a quote inside a quoted field, and line breaks allowed inside quoted fields
+ * Reads one record at a time, so only the current record is ever held in memory
+ */
+class CsvRecordReader {
+
+    private final PushbackReader reader;
+
+    private int line = 1;
+
+    private int recordLine;
+
+    CsvRecordReader(Reader reader) {
+        this.reader = new PushbackReader(reader);
+    }
+
+    /**
+     * Line the last record returned by {@link #next} started on
+     */
+    int getRecordLine() {
+        return recordLine;
+    }
+
+    /**
+     * The next record's fields, or null at the end of the input
+     *
+     * @throws EOFException if the input ends inside a quoted field
+     */
+    List<String> next() throws IOException {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        boolean empty = true;
+        recordLine = line;
+
+        int c;
+        while ((c = reader.read()) != -1) {
+            empty = false;
+            if (quoted) {
+                if (c == '"') {
+                    int next = reader.read();
+                    if (next == '"') {
+                        field.append('"');
+                        continue;
+                    }
+                    quoted = false;
+                    unread(next);
+                } else {
+                    if (c == '\n') {
+                        line++;
+                    }
+                    field.append((char) c);
+                }
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\r' || c == '\n') {
+                if (c == '\r') {
+                    int next = reader.read();
+                    if (next != '\n') {
+                        unread(next);
+                    }
+                }
+                line++;
+                fields.add(field.toString());
+                return fields;
+            } else {
+                field.append((char) c);
+            }
+        }
+
+        if (quoted) {
+            throw new EOFException("Unterminated quoted field starting on line " + recordLine);
+        }
+        if (empty) {
+            return null;
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private void unread(int c) throws IOException {
+        if (c != -1) {
+            reader.unread(c);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.foodexpress.restaurant.menuimport;
+
+import com.foodexpress.restaurant.exception.BadRequestException;
+import org.springframework.http.MediaType;
+
+/**
+ * Body formats accepted by the bulk menu import
+ */
+public enum MenuImportFormat {
+
+    /** Header row of MenuItemRequest field names, then one item per record */
+    CSV(new MediaType("text", "csv")),
+
+    /** One MenuItemRequest JSON object per line */
+    NDJSON(MediaType.APPLICATION_NDJSON);
+
+    private final MediaType mediaType;
+
+    MenuImportFormat(MediaType mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    public static MenuImportFormat fromContentType(MediaType contentType) {
+        for (MenuImportFormat format : values()) {
+            if (format.mediaType.isCompatibleWith(contentType)) {
+                return format;
+            }
+        }
+        throw new BadRequestException("Unsupported import content type: " + contentType);
+    }
+}
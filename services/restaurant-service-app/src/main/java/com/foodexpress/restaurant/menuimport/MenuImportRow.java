@@ -0,0 +1,26 @@
+package com.foodexpress.restaurant.menuimport;
+
+import com.foodexpress.restaurant.dto.request.MenuItemRequest;
+import lombok.Value;
+
+/**
+ * One parsed row of an import body: either a request or the reason it couldn't be read
+ * line is where the row starts in the body, so errors can be traced back to the file
+ */
+@Value
+public class MenuImportRow {
+
+    int line;
+
+    MenuItemRequest request;
+
+    String error;
+
+    public static MenuImportRow parsed(int line, MenuItemRequest request) {
+        return new MenuImportRow(line, request, null);
+    }
+
+    public static MenuImportRow failed(int line, String error) {
+        return new MenuImportRow(line, null, error);
+    }
+}
@@ -0,0 +1,162 @@
+package com.foodexpress.restaurant.menuimport;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.foodexpress.restaurant.dto.request.MenuItemRequest;
+import com.foodexpress.restaurant.exception.BadRequestException;
+
+import java.io.BufferedReader;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.Reader;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Reads an import body row by row into MenuItemRequests, never holding more than one row
+ * A row that can't be parsed becomes a failed row and reading carries on with the next one
+ */
+public abstract class MenuImportRowReader {
+
+    /** Normalized CSV header name -> MenuItemRequest property, so "Price", "is_available" and "isAvailable" all work */
+    private static final Map<String, String> PROPERTIES = Arrays.stream(MenuItemRequest.class.getDeclaredFields())
+            .filter(field -> !Modifier.isStatic(field.getModifiers()))
+            .map(Field::getName)
+            .collect(Collectors.toMap(MenuImportRowReader::normalize, name -> name));
+
+    protected final ObjectMapper objectMapper;
+
+    protected MenuImportRowReader(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    public static MenuImportRowReader open(MenuImportFormat format, Reader body, ObjectMapper objectMapper) throws IOException {
+        BufferedReader reader = new BufferedReader(body, 64 * 1024);
+        return switch (format) {
+            case CSV -> new Csv(reader, objectMapper);
+            case NDJSON -> new Ndjson(reader, objectMapper);
+        };
+    }
+
+    /**
+     * The next row, or null once the body is exhausted
+     */
+    public abstract MenuImportRow next() throws IOException;
+
+    private static String normalize(String name) {
+        return name.replaceAll("[\\s_-]", "").toLowerCase(Locale.ROOT);
+    }
+
+    private static String describe(Exception e) {
+        // convertValue wraps the Jackson error in an IllegalArgumentException
+        Throwable cause = e instanceof IllegalArgumentException && e.getCause() != null ? e.getCause() : e;
+        String message = cause instanceof JsonProcessingException json ? json.getOriginalMessage() : cause.getMessage();
+        return "Malformed row: " + message;
+    }
+
+    private static final class Ndjson extends MenuImportRowReader {
+
+        private final BufferedReader reader;
+
+        private int line;
+
+        Ndjson(BufferedReader reader, ObjectMapper objectMapper) {
+            super(objectMapper);
+            this.reader = reader;
+        }
+
+        @Override
+        public MenuImportRow next() throws IOException {
+            String text;
+            while ((text = reader.readLine()) != null) {
+                line++;
+                if (text.isBlank()) {
+                    continue;
+                }
+                try {
+                    return MenuImportRow.parsed(line, objectMapper.readValue(text, MenuItemRequest.class));
+                } catch (JsonProcessingException e) {
+                    return MenuImportRow.failed(line, describe(e));
+                }
+            }
+            return null;
+        }
+    }
+
+    private static final class Csv extends MenuImportRowReader {
+
+        private final CsvRecordReader records;
+
+        private final List<String> columns;
+
+        private boolean exhausted;
+
+        Csv(BufferedReader reader, ObjectMapper objectMapper) throws IOException {
+            super(objectMapper);
+            this.records = new CsvRecordReader(reader);
+            List<String> header = records.next();
+            if (header == null) {
+                throw new BadRequestException("Import body is empty; expected a CSV header row");
+            }
+
+            this.columns = new ArrayList<>(header.size());
+            List<String> unknown = new ArrayList<>();
+            for (String name : header) {
+                String property = PROPERTIES.get(normalize(name));
+                if (property == null) {
+                    unknown.add(name);
+                }
+                columns.add(property);
+            }
+            if (!unknown.isEmpty()) {
+                throw new BadRequestException("Unknown CSV columns: " + unknown);
+            }
+        }
+
+        @Override
+        public MenuImportRow next() throws IOException {
+            while (!exhausted) {
+                List<String> record;
+                try {
+                    record = records.next();
+                } catch (EOFException e) {
+                    exhausted = true;
+                    return MenuImportRow.failed(records.getRecordLine(), describe(e));
+                }
+                if (record == null) {
+                    exhausted = true;
+                    return null;
+                }
+                if (record.stream().allMatch(String::isBlank)) {
+                    continue;
+                }
+
+                int line = records.getRecordLine();
+                if (record.size() != columns.size()) {
+                    return MenuImportRow.failed(line, "Expected " + columns.size() + " columns but found " + record.size());
+                }
+
+                // Blank cells are left out, so they read as absent rather than as empty strings
+                Map<String, String> values = new LinkedHashMap<>();
+                for (int i = 0; i < record.size(); i++) {
+                    if (!record.get(i).isBlank()) {
+                        values.put(columns.get(i), record.get(i).trim());
+                    }
+                }
+                try {
+                    return MenuImportRow.parsed(line, objectMapper.convertValue(values, MenuItemRequest.class));
+                } catch (IllegalArgumentException e) {
+                    return MenuImportRow.failed(line, describe(e));
+                }
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.foodexpress.restaurant.repository;
+
+import lombok.Value;
+
+/**
+ * A restaurant whose dishes take part in a dish search, with what they are ranked by
+ */
+@Value
+public class DishSearchRestaurant {
+    String id;
+    double distanceKm;
+    double rating; // Stands in for the rating of dishes that have none yet
+}
@@ -0,0 +1,55 @@
+package com.foodexpress.restaurant.repository;
+
+import com.foodexpress.restaurant.exception.BadRequestException;
+import lombok.Value;
+import org.bson.Document;
+import org.bson.json.JsonMode;
+import org.bson.json.JsonParseException;
+import org.bson.json.JsonWriterSettings;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Map;
+
+/**
+ * Opaque keyset pagination cursor: the sort it was issued for, plus the sort key values of the last row returned
+ * Serialized as base64url extended JSON, so Decimal128, dates and ObjectIds keep their BSON types
+ */
+@Value
+public class KeysetCursor {
+
+    private static final JsonWriterSettings JSON = JsonWriterSettings.builder().outputMode(JsonMode.EXTENDED).build();
+
+    String sort;
+    Document position;
+
+    public String encode() {
+        String json = new Document("s", sort).append("p", position).toJson(JSON);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decode a cursor, rejecting it unless it was issued for the expected sort and its position holds
+     * every given field with a value of the given type (Object accepts any value, null included)
+     */
+    public static KeysetCursor decode(String cursor, String expectedSort, Map<String, Class<?>> fields) {
+        Document document;
+        try {
+            document = Document.parse(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8));
+        } catch (IllegalArgumentException | JsonParseException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+        if (!(document.get("p") instanceof Document position)) {
+            throw new BadRequestException("Invalid cursor");
+        }
+        if (!expectedSort.equals(document.get("s"))) {
+            throw new BadRequestException("Cursor was issued for a different sort order");
+        }
+        fields.forEach((field, type) -> {
+            if (!position.containsKey(field) || (type != Object.class && !type.isInstance(position.get(field)))) {
+                throw new BadRequestException("Invalid cursor");
+            }
+        });
+        return new KeysetCursor(expectedSort, position);
+    }
+}
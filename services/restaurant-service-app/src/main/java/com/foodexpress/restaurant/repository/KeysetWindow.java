@@ -0,0 +1,17 @@
+package com.foodexpress.restaurant.repository;
+
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated listing
+ */
+@Value
+public class KeysetWindow<T> {
+    List<T> content;
+    /** Cursor of the next page, null on the last page */
+    String nextCursor;
+    /** Total number of matches, only when it was asked for */
+    Long totalElements;
+}
@@ -4,6 +4,7 @@ import com.foodexpress.restaurant.entity.MenuCategory;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -12,7 +13,7 @@ import java.util.Optional;
  * Provides database operations for menu categories
  */
 @Repository
-public interface MenuCategoryRepository extends MongoRepository<MenuCategory, String> {
+public interface MenuCategoryRepository extends MongoRepository<MenuCategory, String>, MenuCategoryRepositoryCustom {
 
     /**
      * Find all categories by restaurant ID
@@ -34,6 +35,11 @@ public interface MenuCategoryRepository extends MongoRepository<MenuCategory, St
      */
     Optional<MenuCategory> findByIdAndRestaurantId(String id, String restaurantId);
 
+    /**
+     * Find the categories of a restaurant among the given IDs (single $in query)
+     */
+    List<MenuCategory> findByRestaurantIdAndIdIn(String restaurantId, Collection<String> ids);
+
     /**
      * Find category by name and restaurant ID
      */
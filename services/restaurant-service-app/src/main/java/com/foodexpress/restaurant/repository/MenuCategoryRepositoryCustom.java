@@ -0,0 +1,14 @@
+package com.foodexpress.restaurant.repository;
+
+import java.util.List;
+
+/**
+ * Custom repository fragment for MenuCategory bulk writes
+ */
+public interface MenuCategoryRepositoryCustom {
+
+    /**
+     * Set displayOrder of each category to its position in the list, in a single bulk write
+     */
+    void updateDisplayOrders(String restaurantId, List<String> orderedCategoryIds);
+}
@@ -7,6 +7,7 @@ import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -15,7 +16,7 @@ import java.util.Optional;
  * Provides database operations for menu items
  */
 @Repository
-public interface MenuItemRepository extends MongoRepository<MenuItem, String> {
+public interface MenuItemRepository extends MongoRepository<MenuItem, String>, MenuItemRepositoryCustom {
 
     /**
      * Find all menu items by restaurant ID
@@ -42,6 +43,14 @@ public interface MenuItemRepository extends MongoRepository<MenuItem, String> {
      */
     Optional<MenuItem> findByIdAndRestaurantId(String id, String restaurantId);
 
+    /**
+     * Find the given menu items of a restaurant, loading only name, prices and availability
+     * One $in lookup on the _id index, whatever the number of items
+     */
+    @Query(value = "{ '_id': { $in: ?0 }, 'restaurantId': ?1 }",
+            fields = "{ 'name': 1, 'price': 1, 'discountedPrice': 1, 'isAvailable': 1 }")
+    List<MenuItem> findPricesByIdInAndRestaurantId(Collection<String> ids, String restaurantId);
+
     /**
      * Find menu items by restaurant ID and category ID
      */
@@ -65,12 +74,6 @@ public interface MenuItemRepository extends MongoRepository<MenuItem, String> {
             DietaryType dietaryType
     );
 
-    /**
-     * Search menu items by name
-     */
-    @Query("{ 'restaurantId': ?0, 'name': { $regex: ?1, $options: 'i' }, 'isAvailable': true }")
-    List<MenuItem> searchByName(String restaurantId, String name);
-
     /**
      * Find menu items within price range
      */
@@ -83,10 +86,9 @@ public interface MenuItemRepository extends MongoRepository<MenuItem, String> {
 
     /**
      * Find items on discount
-     * (MongoDB doesn't easily compare two fields in a simple query without aggregation, but we can do a simpler check for existence or non-null)
-     * For strictly 'discountedPrice < price', we need $expr.
+     * Matches the precomputed isDiscounted flag, so the query runs on restaurant_discounted_idx
      */
-    @Query("{ 'restaurantId': ?0, 'isAvailable': true, $expr: { $lt: ['$discountedPrice', '$price'] } }")
+    @Query("{ 'restaurantId': ?0, 'isDiscounted': true, 'isAvailable': true }")
     List<MenuItem> findDiscountedItems(String restaurantId);
 
     /**
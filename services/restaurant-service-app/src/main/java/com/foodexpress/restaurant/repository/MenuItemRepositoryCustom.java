@@ -0,0 +1,46 @@
+package com.foodexpress.restaurant.repository;
+
+import com.foodexpress.restaurant.entity.MenuItem;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Custom repository fragment for MenuItem queries that need MongoTemplate (aggregations, bulk writes)
+ */
+public interface MenuItemRepositoryCustom {
+
+    /**
+     * Count the menu items of every category of a restaurant with a single $group aggregation
+     * Returns categoryId -> item count; categories without items are absent
+     */
+    Map<String, Long> countItemsByCategory(String restaurantId);
+
+    /**
+     * Full-text search over the available items of a restaurant, best matches first
+     * Matches whole words and word prefixes of the name, and whole words of the description
+     */
+    List<MenuItem> searchByText(String restaurantId, String text);
+
+    /**
+     * The best ranked available items of the given restaurants whose name contains every word of the text
+     * as a whole word or word prefix, best first. An item ranks by
+     * (1 + its rating, or its restaurant's while unrated) x bestsellerBoost for bestsellers / (1 + distance in km)
+     * Ranked in MongoDB, so the limit drops the worst matches rather than arbitrary ones
+     * Matching is served by restaurant_prefix_idx, so the cost depends on the restaurants given, not on the collection
+     */
+    List<MenuItem> findTopByNamePrefixes(List<DishSearchRestaurant> restaurants, String text,
+                                         double bestsellerBoost, int limit);
+
+    /**
+     * Names of all menu items of a restaurant, read from restaurant_name_idx alone (a covered query)
+     */
+    Set<String> findNamesByRestaurantId(String restaurantId);
+
+    /**
+     * Insert the items with a single unordered bulk write; a failing item doesn't stop the others
+     * Returns the position in items -> error message of every item that was not inserted
+     */
+    Map<Integer, String> bulkInsert(List<MenuItem> items);
+}
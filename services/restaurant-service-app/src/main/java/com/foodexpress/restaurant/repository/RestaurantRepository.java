@@ -13,7 +13,7 @@ import java.util.Optional;
  * Provides database operations for restaurants
  */
 @Repository
-public interface RestaurantRepository extends MongoRepository<Restaurant, String> {
+public interface RestaurantRepository extends MongoRepository<Restaurant, String>, RestaurantRepositoryCustom {
 
     /**
      * Find restaurant by ID and active status
@@ -50,18 +50,6 @@ public interface RestaurantRepository extends MongoRepository<Restaurant, String
      */
     List<Restaurant> findByCityAndIsVerifiedTrueAndIsActiveTrue(String city);
 
-    /**
-     * Search restaurants by name (case-insensitive)
-     */
-    @Query("{ 'name': { $regex: ?0, $options: 'i' }, 'isActive': true }")
-    List<Restaurant> searchByName(String name);
-
-    /**
-     * Find restaurants by cuisine type
-     */
-    @Query("{ 'cuisineTypes': { $regex: ?0, $options: 'i' }, 'isActive': true }")
-    List<Restaurant> findByCuisineType(String cuisineType);
-
     /**
      * Find restaurants accepting orders
      */
@@ -90,16 +78,4 @@ public interface RestaurantRepository extends MongoRepository<Restaurant, String
      * Or simpler:
      */
     List<Restaurant> findByCityAndIsActiveTrueAndIsVerifiedTrueOrderByAverageRatingDesc(String city);
-
-    /**
-     * Find restaurants near location
-     * Using strict bounding box in Mongo query syntax
-     */
-    @Query("{ 'latitude': { $gte: ?0, $lte: ?1 }, 'longitude': { $gte: ?2, $lte: ?3 }, 'isActive': true, 'isVerified': true }")
-    List<Restaurant> findNearby(
-            Double minLat,
-            Double maxLat,
-            Double minLng,
-            Double maxLng
-    );
 }
@@ -0,0 +1,88 @@
+package com.foodexpress.restaurant.repository;
+
+import com.foodexpress.restaurant.dto.request.RestaurantSearchRequest;
+import com.foodexpress.restaurant.entity.Restaurant;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.geo.GeoResult;
+import org.springframework.data.geo.GeoResults;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Custom repository fragment for Restaurant queries that can't be expressed
+ * as derived query methods (dynamic filters, server-side paging)
+ *
+ * Listing methods return summary projections: only the fields a RestaurantSummaryResponse
+ * needs are loaded, so the returned entities are partial and must never be saved back
+ */
+public interface RestaurantRepositoryCustom {
+
+    /** Sort property that orders search results by text relevance; only valid when the request has a name */
+    String RELEVANCE = "score";
+
+    /**
+     * Search verified and active restaurants, applying every filter of the request in MongoDB
+     * Sorting, skip/limit and the total count are all computed by the database
+     * The name filter is a $text match on the name / cuisine / description text index
+     */
+    Page<Restaurant> search(RestaurantSearchRequest request, Pageable pageable);
+
+    /**
+     * Same as {@link #search}, plus per-cuisine, rating, accepting-orders and delivery-fee counts
+     * over the whole result set; page, total and counts come from a single $facet aggregation
+     */
+    RestaurantSearchResult searchWithFacets(RestaurantSearchRequest request, Pageable pageable);
+
+    /**
+     * Keyset-paginated {@link #search}: the page after request.cursor (the first page without one)
+     * Each page is an index range seek past the cursor's sort keys, so its cost doesn't grow with depth
+     * The total is only counted when request.includeTotal is set; only the rating sort, which the search
+     * indexes end with, can be paged this way
+     */
+    KeysetWindow<Restaurant> searchAfter(RestaurantSearchRequest request, Sort sort, int size);
+
+    /**
+     * Cursor that continues a search after the given row, e.g. the last row of an offset page
+     * Null for sorts that can't be cursor paged
+     */
+    String cursorAfter(Restaurant last, Sort sort);
+
+    /**
+     * Find verified and active restaurants within radiusKm of the point, closest first
+     * Served from the in-memory GeoGridIndex plus one _id lookup of the summaries once it is built,
+     * before that as a $geoNear + $project aggregation on the 2dsphere location index; distances are in km
+     */
+    GeoResults<Restaurant> findNearby(double latitude, double longitude, double radiusKm, int limit);
+
+    /**
+     * Keyset-paginated {@link #findNearby}: the page after the cursor, closest first
+     * Resumes with $geoNear's minDistance at the cursor's distance, so earlier pages are never rescanned
+     */
+    KeysetWindow<GeoResult<Restaurant>> findNearby(double latitude, double longitude, double radiusKm,
+                                                   String cursor, int limit, boolean includeTotal);
+
+    /**
+     * Find verified and active restaurants in the city, best rated first, loading summary fields only
+     * Keyset-paginated on (averageRating, id) over search_city_rating_idx
+     */
+    KeysetWindow<Restaurant> findSummariesByCity(String city, String cursor, int size, boolean includeTotal);
+
+    /**
+     * Full-text search over active restaurants, best matches first, loading summary fields only
+     * Matches whole words and word prefixes of the name and cuisines, and whole words of the description
+     */
+    List<Restaurant> searchByText(String text, int limit);
+
+    /**
+     * Atomically increment the restaurant's menu version and return the new value
+     */
+    long incrementMenuVersion(String restaurantId);
+
+    /**
+     * Read only the menu version of a restaurant, without loading the document
+     */
+    Optional<Long> findMenuVersion(String restaurantId);
+}
@@ -0,0 +1,15 @@
+package com.foodexpress.restaurant.repository;
+
+import com.foodexpress.restaurant.dto.response.SearchFacetsResponse;
+import com.foodexpress.restaurant.entity.Restaurant;
+import lombok.Value;
+import org.springframework.data.domain.Page;
+
+/**
+ * A page of restaurants together with the facet counts of the whole result set
+ */
+@Value
+public class RestaurantSearchResult {
+    Page<Restaurant> page;
+    SearchFacetsResponse facets;
+}
@@ -0,0 +1,37 @@
+package com.foodexpress.restaurant.repository.impl;
+
+import com.foodexpress.restaurant.entity.MenuCategory;
+import com.foodexpress.restaurant.repository.MenuCategoryRepositoryCustom;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.List;
+
+/**
+ * MongoTemplate based implementation of {@link MenuCategoryRepositoryCustom}
+ * Picked up automatically by Spring Data as a fragment of MenuCategoryRepository
+ */
+@RequiredArgsConstructor
+public class MenuCategoryRepositoryImpl implements MenuCategoryRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public void updateDisplayOrders(String restaurantId, List<String> orderedCategoryIds) {
+        if (orderedCategoryIds.isEmpty()) {
+            return;
+        }
+
+        BulkOperations bulkOps = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, MenuCategory.class);
+        for (int i = 0; i < orderedCategoryIds.size(); i++) {
+            bulkOps.updateOne(
+                    new Query(Criteria.where("id").is(orderedCategoryIds.get(i)).and("restaurantId").is(restaurantId)),
+                    new Update().set("displayOrder", i));
+        }
+        bulkOps.execute();
+    }
+}
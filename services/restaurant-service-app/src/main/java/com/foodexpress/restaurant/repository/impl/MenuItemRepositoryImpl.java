@@ -0,0 +1,150 @@
+package com.foodexpress.restaurant.repository.impl;
+
+import com.foodexpress.restaurant.entity.MenuItem;
+import com.foodexpress.restaurant.repository.DishSearchRestaurant;
+import com.foodexpress.restaurant.repository.MenuItemRepositoryCustom;
+import com.foodexpress.restaurant.search.SearchTokens;
+import lombok.RequiredArgsConstructor;
+import com.mongodb.bulk.BulkWriteError;
+import org.bson.Document;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.TextCriteria;
+import org.springframework.data.mongodb.core.query.TextQuery;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * MongoTemplate based implementation of {@link MenuItemRepositoryCustom}
+ * Picked up automatically by Spring Data as a fragment of MenuItemRepository
+ */
+@RequiredArgsConstructor
+public class MenuItemRepositoryImpl implements MenuItemRepositoryCustom {
+
+    private static final String RANK_FIELD = "rank";
+
+    /** Fields a dish search result needs, by stored name */
+    private static final List<String> DISH_FIELDS = List.of("restaurant_id", "name", "description", "price",
+            "discounted_price", "dietary_type", "is_bestseller", "image_url", "average_rating", "total_ratings");
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public Map<String, Long> countItemsByCategory(String restaurantId) {
+        TypedAggregation<MenuItem> aggregation = Aggregation.newAggregation(MenuItem.class,
+                Aggregation.match(Criteria.where("restaurantId").is(restaurantId)),
+                Aggregation.group("categoryId").count().as("count"));
+
+        Map<String, Long> counts = new HashMap<>();
+        for (Document result : mongoTemplate.aggregate(aggregation, Document.class)) {
+            Object categoryId = result.get("_id");
+            if (categoryId != null) {
+                counts.put(categoryId.toString(), ((Number) result.get("count")).longValue());
+            }
+        }
+        return counts;
+    }
+
+    @Override
+    public List<MenuItem> searchByText(String restaurantId, String text) {
+        String terms = SearchTokens.toTextQuery(text);
+        if (terms.isEmpty()) {
+            return List.of();
+        }
+
+        TextQuery query = TextQuery.queryText(TextCriteria.forDefaultLanguage().matching(terms));
+        query.sortByScore();
+        query.addCriteria(Criteria.where("restaurantId").is(restaurantId).and("isAvailable").is(true));
+
+        return mongoTemplate.find(query, MenuItem.class);
+    }
+
+    @Override
+    public List<MenuItem> findTopByNamePrefixes(List<DishSearchRestaurant> restaurants, String text,
+                                                double bestsellerBoost, int limit) {
+        List<String> terms = SearchTokens.prefixTerms(text);
+        if (terms.isEmpty() || restaurants.isEmpty()) {
+            return List.of();
+        }
+
+        // Per-restaurant ranking inputs as parallel arrays, looked up by the position of the item's restaurant
+        List<String> ids = new ArrayList<>(restaurants.size());
+        List<Double> distances = new ArrayList<>(restaurants.size());
+        List<Double> ratings = new ArrayList<>(restaurants.size());
+        for (DishSearchRestaurant restaurant : restaurants) {
+            ids.add(restaurant.getId());
+            distances.add(restaurant.getDistanceKm());
+            ratings.add(restaurant.getRating());
+        }
+
+        Document rating = new Document("$cond", List.of(
+                new Document("$gt", List.of(new Document("$ifNull", List.of("$total_ratings", 0)), 0)),
+                new Document("$ifNull", List.of("$average_rating", 0)),
+                new Document("$arrayElemAt", List.of(new Document("$literal", ratings), "$$slot"))));
+        Document boost = new Document("$cond", List.of(
+                new Document("$eq", List.of("$is_bestseller", true)), bestsellerBoost, 1));
+        Document rank = new Document("$let", new Document()
+                .append("vars", new Document("slot",
+                        new Document("$indexOfArray", List.of(new Document("$literal", ids), "$restaurant_id"))))
+                .append("in", new Document("$divide", List.of(
+                        new Document("$multiply", List.of(new Document("$add", List.of(1, rating)), boost)),
+                        new Document("$add", List.of(1,
+                                new Document("$arrayElemAt", List.of(new Document("$literal", distances), "$$slot"))))))));
+
+        Document projection = new Document();
+        DISH_FIELDS.forEach(field -> projection.append(field, 1));
+
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("restaurantId").in(ids)
+                        .and("searchPrefixes").all(terms)
+                        .and("isAvailable").is(true)),
+                Aggregation.stage(new Document("$addFields", new Document(RANK_FIELD, rank))),
+                // $sort followed by $limit keeps only the top limit in memory
+                Aggregation.stage(new Document("$sort", new Document(RANK_FIELD, -1).append("_id", 1))),
+                Aggregation.limit(limit),
+                Aggregation.stage(new Document("$project", projection)));
+
+        return mongoTemplate.aggregate(aggregation, MenuItem.class, MenuItem.class).getMappedResults();
+    }
+
+    @Override
+    public Set<String> findNamesByRestaurantId(String restaurantId) {
+        Query query = new Query(Criteria.where("restaurantId").is(restaurantId));
+        // Only indexed fields and no _id, so MongoDB answers from the index without fetching documents
+        query.fields().include("name").exclude("id");
+
+        Set<String> names = new HashSet<>();
+        for (MenuItem item : mongoTemplate.find(query, MenuItem.class)) {
+            names.add(item.getName());
+        }
+        return names;
+    }
+
+    @Override
+    public Map<Integer, String> bulkInsert(List<MenuItem> items) {
+        if (items.isEmpty()) {
+            return Map.of();
+        }
+
+        try {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, MenuItem.class).insert(items).execute();
+            return Map.of();
+        } catch (BulkOperationException e) {
+            Map<Integer, String> failures = new HashMap<>();
+            for (BulkWriteError error : e.getErrors()) {
+                failures.put(error.getIndex(), error.getMessage());
+            }
+            return failures;
+        }
+    }
+}
@@ -0,0 +1,614 @@
+package com.foodexpress.restaurant.repository.impl;
+
+import com.foodexpress.restaurant.dto.request.RestaurantSearchRequest;
+import com.foodexpress.restaurant.dto.response.SearchFacetsResponse;
+import com.foodexpress.restaurant.entity.Restaurant;
+import com.foodexpress.restaurant.entity.enums.CuisineType;
+import com.foodexpress.restaurant.exception.ResourceNotFoundException;
+import com.foodexpress.restaurant.exception.BadRequestException;
+import com.foodexpress.restaurant.geo.GeoGrid;
+import com.foodexpress.restaurant.geo.GeoGridIndex;
+import com.foodexpress.restaurant.geo.GeoHit;
+import com.foodexpress.restaurant.repository.KeysetCursor;
+import com.foodexpress.restaurant.repository.KeysetWindow;
+import com.foodexpress.restaurant.repository.RestaurantRepositoryCustom;
+import com.foodexpress.restaurant.repository.RestaurantSearchResult;
+import com.foodexpress.restaurant.search.SearchTokens;
+import org.bson.Document;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.geo.Circle;
+import org.springframework.data.geo.Distance;
+import org.springframework.data.geo.GeoResult;
+import org.springframework.data.geo.GeoResults;
+import org.springframework.data.geo.Metrics;
+import org.springframework.data.geo.Point;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mapping.PersistentPropertyAccessor;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.NearQuery;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.TextCriteria;
+import org.springframework.data.mongodb.core.query.TextQuery;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * MongoTemplate based implementation of {@link RestaurantRepositoryCustom}
+ * Picked up automatically by Spring Data as a fragment of RestaurantRepository
+ */
+public class RestaurantRepositoryImpl implements RestaurantRepositoryCustom {
+
+    /** Properties needed to build a RestaurantSummaryResponse; everything else stays on the server */
+    private static final String[] SUMMARY_FIELDS = {
+            "name", "description", "cuisineTypes", "averageRating", "totalRatings",
+            "isAcceptingOrders", "logoUrl", "city"
+    };
+
+    private static final String DISTANCE_FIELD = "distance";
+
+    /** Lower bounds of the minRating chips; the last boundary only closes the top band */
+    private static final List<Double> RATING_BANDS = List.of(3.0, 3.5, 4.0, 4.5);
+    private static final double RATING_UPPER_BOUND = 6.0;
+
+    /** Lower bound of each delivery fee band; fees of 60 and above fall into the default band */
+    private static final SortedMap<Double, String> DELIVERY_FEE_BANDS = new TreeMap<>(Map.of(
+            0.0, "FREE", 0.01, "UNDER_20", 20.0, "20_TO_40", 40.0, "40_TO_60"));
+    private static final double DELIVERY_FEE_UPPER_BOUND = 60.0;
+    private static final String DELIVERY_FEE_DEFAULT_BAND = "60_PLUS";
+
+    private static final String BELOW_RATING_BANDS = "BELOW";
+
+    private static final Sort CITY_SORT = Sort.by(Sort.Direction.DESC, "averageRating").and(Sort.by(Sort.Direction.DESC, "id"));
+
+    private static final String NEARBY_SORT = "distance:ASC";
+
+    /**
+     * Distances round-trip through km and meters as doubles; rows this close to the cursor's
+     * distance are resumed from slightly before it and filtered by id instead
+     */
+    private static final double DISTANCE_TOLERANCE_KM = 1e-6;
+
+    private final MongoTemplate mongoTemplate;
+
+    private final GeoGridIndex geoGridIndex;
+
+    private final QueryMapper queryMapper;
+
+    private final MongoPersistentEntity<?> restaurantEntity;
+
+    /** SUMMARY_FIELDS mapped to stored field names, for pipelines that bypass the query mapper */
+    private final Document summaryProjection;
+
+    public RestaurantRepositoryImpl(MongoTemplate mongoTemplate, GeoGridIndex geoGridIndex) {
+        this.mongoTemplate = mongoTemplate;
+        this.geoGridIndex = geoGridIndex;
+        this.queryMapper = new QueryMapper(mongoTemplate.getConverter());
+        this.restaurantEntity = mongoTemplate.getConverter().getMappingContext().getRequiredPersistentEntity(Restaurant.class);
+        this.summaryProjection = queryMapper.getMappedFields(summaryQuery(new Query()).getFieldsObject(), restaurantEntity);
+    }
+
+    @Override
+    public Page<Restaurant> search(RestaurantSearchRequest request, Pageable pageable) {
+        Query query = summaryQuery(textQuery(request.getName(), pageable.getSort()))
+                .addCriteria(buildSearchCriteria(request))
+                .with(withoutRelevance(pageable));
+        includeSortKeys(query, pageable.getSort());
+        List<Restaurant> content = mongoTemplate.find(query, Restaurant.class);
+
+        // Count runs as a separate query without skip/limit, and only when the page itself can't tell the total
+        return PageableExecutionUtils.getPage(content, pageable,
+                () -> mongoTemplate.count(Query.of(query).limit(-1).skip(-1), Restaurant.class));
+    }
+
+    @Override
+    public KeysetWindow<Restaurant> searchAfter(RestaurantSearchRequest request, Sort sort, int size) {
+        if (!isKeysetSort(sort)) {
+            throw new BadRequestException("Cursor paging is only supported when sorting by rating; use page for other sorts");
+        }
+
+        Query filter = textQuery(request.getName(), sort).addCriteria(buildSearchCriteria(request));
+        return findAfter(filter, sort, request.getCursor(), size, Boolean.TRUE.equals(request.getIncludeTotal()));
+    }
+
+    @Override
+    public String cursorAfter(Restaurant last, Sort sort) {
+        if (!isKeysetSort(sort)) {
+            return null;
+        }
+        PersistentPropertyAccessor<Restaurant> accessor = restaurantEntity.getPropertyAccessor(last);
+        Document position = new Document();
+        for (Sort.Order order : sort) {
+            Object value = accessor.getProperty(restaurantEntity.getRequiredPersistentProperty(order.getProperty()));
+            position.append(order.getProperty(), mongoTemplate.getConverter().convertToMongoType(value));
+        }
+        return new KeysetCursor(sortKey(sort), position).encode();
+    }
+
+    @Override
+    public RestaurantSearchResult searchWithFacets(RestaurantSearchRequest request, Pageable pageable) {
+        String terms = SearchTokens.toTextQuery(request.getName());
+        boolean byRelevance = !terms.isEmpty() && pageable.getSort().getOrderFor(RELEVANCE) != null;
+
+        List<AggregationOperation> stages = new ArrayList<>();
+        if (!terms.isEmpty()) {
+            // $text has to be in the first stage of the pipeline
+            stages.add(Aggregation.match(TextCriteria.forDefaultLanguage().matching(terms)));
+        }
+        stages.add(Aggregation.match(buildSearchCriteria(request)));
+        stages.add(Aggregation.facet(pageStages(pageable, byRelevance)).as("results")
+                .and(Aggregation.count().as("count")).as("total")
+                .and(Aggregation.unwind("cuisineTypes"),
+                        Aggregation.group("cuisineTypes").count().as("count")).as("cuisines")
+                .and(Aggregation.bucket("averageRating")
+                        .withBoundaries(bucketBoundaries(RATING_BANDS, RATING_UPPER_BOUND))
+                        .withDefaultBucket(BELOW_RATING_BANDS)
+                        .andOutputCount().as("count")).as("ratings")
+                .and(Aggregation.match(Criteria.where("isAcceptingOrders").is(true)),
+                        Aggregation.count().as("count")).as("acceptingOrders")
+                .and(Aggregation.bucket(ConditionalOperators.ifNull("deliveryFee").then(0))
+                        .withBoundaries(bucketBoundaries(DELIVERY_FEE_BANDS.keySet(), DELIVERY_FEE_UPPER_BOUND))
+                        .withDefaultBucket(DELIVERY_FEE_DEFAULT_BAND)
+                        .andOutputCount().as("count")).as("deliveryFees"));
+
+        Document result = mongoTemplate.aggregate(Aggregation.newAggregation(Restaurant.class, stages), Document.class)
+                .getUniqueMappedResult();
+
+        List<Restaurant> content = new ArrayList<>();
+        for (Document document : result.getList("results", Document.class)) {
+            content.add(mongoTemplate.getConverter().read(Restaurant.class, document));
+        }
+        long total = firstCount(result.getList("total", Document.class));
+
+        SearchFacetsResponse facets = SearchFacetsResponse.builder()
+                .cuisines(cuisineCounts(result.getList("cuisines", Document.class)))
+                .minRatings(minRatingCounts(result.getList("ratings", Document.class)))
+                .acceptingOrders(firstCount(result.getList("acceptingOrders", Document.class)))
+                .deliveryFees(deliveryFeeCounts(result.getList("deliveryFees", Document.class)))
+                .build();
+
+        return new RestaurantSearchResult(new PageImpl<>(content, pageable, total), facets);
+    }
+
+    @Override
+    public GeoResults<Restaurant> findNearby(double latitude, double longitude, double radiusKm, int limit) {
+        return new GeoResults<>(geoNear(latitude, longitude, radiusKm, null, limit), Metrics.KILOMETERS);
+    }
+
+    @Override
+    public KeysetWindow<GeoResult<Restaurant>> findNearby(double latitude, double longitude, double radiusKm,
+                                                          String cursor, int limit, boolean includeTotal) {
+        KeysetCursor after = cursor == null ? null : decodeNearbyCursor(cursor);
+        List<GeoResult<Restaurant>> results = geoNear(latitude, longitude, radiusKm, after, limit + 1);
+
+        String nextCursor = null;
+        if (results.size() > limit) {
+            results = results.subList(0, limit);
+            nextCursor = nearbyCursor(results, after);
+        }
+
+        Long total = null;
+        if (includeTotal && geoGridIndex.isReady()) {
+            total = geoGridIndex.count(latitude, longitude, radiusKm);
+        } else if (includeTotal) {
+            Circle area = new Circle(new Point(longitude, latitude), new Distance(radiusKm, Metrics.KILOMETERS));
+            total = mongoTemplate.count(new Query(Criteria.where("isActive").is(true).and("isVerified").is(true)
+                    .and("location").withinSphere(area)), Restaurant.class);
+        }
+        return new KeysetWindow<>(results, nextCursor, total);
+    }
+
+    @Override
+    public KeysetWindow<Restaurant> findSummariesByCity(String city, String cursor, int size, boolean includeTotal) {
+        Query filter = new Query(Criteria.where("cityKey").is(SearchTokens.cityKey(city))
+                .and("isVerified").is(true)
+                .and("isActive").is(true));
+
+        return findAfter(filter, CITY_SORT, cursor, size, includeTotal);
+    }
+
+    @Override
+    public List<Restaurant> searchByText(String text, int limit) {
+        String terms = SearchTokens.toTextQuery(text);
+        if (terms.isEmpty()) {
+            return List.of();
+        }
+
+        Query query = summaryQuery(textQuery(terms, Sort.by(RELEVANCE)))
+                .addCriteria(Criteria.where("isActive").is(true))
+                .limit(limit);
+
+        return mongoTemplate.find(query, Restaurant.class);
+    }
+
+    @Override
+    public long incrementMenuVersion(String restaurantId) {
+        Query query = new Query(Criteria.where("id").is(restaurantId));
+        query.fields().include("menuVersion");
+
+        Restaurant updated = mongoTemplate.findAndModify(query,
+                new Update().inc("menuVersion", 1),
+                FindAndModifyOptions.options().returnNew(true),
+                Restaurant.class);
+
+        if (updated == null) {
+            throw new ResourceNotFoundException("Restaurant not found with ID: " + restaurantId);
+        }
+        return updated.getMenuVersion();
+    }
+
+    @Override
+    public Optional<Long> findMenuVersion(String restaurantId) {
+        Query query = new Query(Criteria.where("id").is(restaurantId));
+        query.fields().include("menuVersion");
+
+        return Optional.ofNullable(mongoTemplate.findOne(query, Restaurant.class))
+                .map(Restaurant::getMenuVersion);
+    }
+
+    /**
+     * The page of the filter's matches that follows the cursor in the given sort, fetching one extra row to detect the end
+     */
+    private KeysetWindow<Restaurant> findAfter(Query filter, Sort sort, String cursor, int size, boolean includeTotal) {
+        Query query = summaryQuery(Query.of(filter)).with(sort).limit(size + 1);
+        includeSortKeys(query, sort);
+        if (cursor != null) {
+            query.addCriteria(keysetCriteria(sort, KeysetCursor.decode(cursor, sortKey(sort), cursorFields(sort)).getPosition()));
+        }
+
+        List<Restaurant> content = mongoTemplate.find(query, Restaurant.class);
+        String nextCursor = null;
+        if (content.size() > size) {
+            content = content.subList(0, size);
+            nextCursor = cursorAfter(content.get(size - 1), sort);
+        }
+
+        Long total = includeTotal ? mongoTemplate.count(Query.of(filter), Restaurant.class) : null;
+        return new KeysetWindow<>(content, nextCursor, total);
+    }
+
+    /**
+     * Rows strictly after the position in the sort: (k1 beyond v1) or (k1 = v1 and k2 beyond v2) or ...
+     */
+    private Criteria keysetCriteria(Sort sort, Document position) {
+        List<Sort.Order> orders = sort.toList();
+        List<Criteria> branches = new ArrayList<>();
+        for (int i = 0; i < orders.size(); i++) {
+            Criteria beyond = beyond(orders.get(i), position.get(orders.get(i).getProperty()));
+            if (beyond == null) {
+                continue;
+            }
+            List<Criteria> branch = new ArrayList<>();
+            for (int j = 0; j < i; j++) {
+                String property = orders.get(j).getProperty();
+                branch.add(Criteria.where(property).is(position.get(property)));
+            }
+            branch.add(beyond);
+            branches.add(branch.size() == 1 ? branch.get(0) : new Criteria().andOperator(branch));
+        }
+        return new Criteria().orOperator(branches);
+    }
+
+    /**
+     * Values after the given one in the order's direction; null sorts before every other value,
+     * and range operators never match null, so it gets explicit conditions
+     */
+    private Criteria beyond(Sort.Order order, Object value) {
+        String property = order.getProperty();
+        if (order.isAscending()) {
+            return value == null ? Criteria.where(property).ne(null) : Criteria.where(property).gt(value);
+        }
+        return value == null ? null : new Criteria().orOperator(
+                Criteria.where(property).lt(value), Criteria.where(property).is(null));
+    }
+
+    /**
+     * $geoNear of active, verified restaurants, projected to summary fields, resuming after the cursor if given
+     * Answered from the in-memory grid instead once it is built
+     */
+    private List<GeoResult<Restaurant>> geoNear(double latitude, double longitude, double radiusKm,
+                                                KeysetCursor after, int limit) {
+        if (geoGridIndex.isReady()) {
+            return gridNear(latitude, longitude, radiusKm, after, limit);
+        }
+
+        NearQuery nearQuery = NearQuery.near(new GeoJsonPoint(longitude, latitude))
+                .spherical(true)
+                .maxDistance(new Distance(radiusKm, Metrics.KILOMETERS))
+                .query(new Query(Criteria.where("isActive").is(true).and("isVerified").is(true)));
+
+        List<AggregationOperation> stages = new ArrayList<>();
+        if (after == null) {
+            stages.add(Aggregation.geoNear(nearQuery, DISTANCE_FIELD));
+        } else {
+            double lastDistance = after.getPosition().getDouble(DISTANCE_FIELD);
+            nearQuery.minDistance(new Distance(Math.max(0, lastDistance - DISTANCE_TOLERANCE_KM), Metrics.KILOMETERS));
+            stages.add(Aggregation.geoNear(nearQuery, DISTANCE_FIELD));
+            // Rows at the cursor's distance were returned already unless their id is new
+            stages.add(Aggregation.match(new Criteria().orOperator(
+                    Criteria.where(DISTANCE_FIELD).gt(lastDistance + DISTANCE_TOLERANCE_KM),
+                    Criteria.where("id").nin(after.getPosition().getList("ids", String.class)))));
+        }
+        stages.add(Aggregation.limit(limit));
+        // MongoTemplate.geoNear can't project, so $geoNear is followed by a $project of the summary fields
+        stages.add(Aggregation.stage(new Document("$project", new Document(summaryProjection).append(DISTANCE_FIELD, 1))));
+
+        List<GeoResult<Restaurant>> results = new ArrayList<>();
+        for (Document document : mongoTemplate.aggregate(Aggregation.newAggregation(stages), Restaurant.class, Document.class)) {
+            double distance = ((Number) document.get(DISTANCE_FIELD)).doubleValue();
+            results.add(new GeoResult<>(mongoTemplate.getConverter().read(Restaurant.class, document),
+                    new Distance(distance, Metrics.KILOMETERS)));
+        }
+        return results;
+    }
+
+    /**
+     * Same rows as the $geoNear pipeline, with ids and distances taken from the in-memory grid
+     * MongoDB only serves _id lookups of the summary fields. Rows deactivated since the grid saw them are
+     * dropped and replaced by further hits, so fewer than limit rows means the grid has no more in range
+     */
+    private List<GeoResult<Restaurant>> gridNear(double latitude, double longitude, double radiusKm,
+                                                 KeysetCursor after, int limit) {
+        GeoGrid.HitFilter resume = afterCursor(after);
+        Set<String> considered = new HashSet<>();
+        List<GeoResult<Restaurant>> results = new ArrayList<>(limit);
+
+        while (results.size() < limit) {
+            int wanted = limit - results.size();
+            List<GeoHit> hits = geoGridIndex.nearest(latitude, longitude, radiusKm,
+                    (entry, distanceKm) -> !considered.contains(entry.getRestaurantId()) && resume.test(entry, distanceKm),
+                    wanted);
+            if (hits.isEmpty()) {
+                break;
+            }
+
+            List<String> ids = hits.stream().map(hit -> hit.getEntry().getRestaurantId()).toList();
+            considered.addAll(ids);
+            Query query = summaryQuery(new Query(Criteria.where("id").in(ids).and("isActive").is(true).and("isVerified").is(true)));
+            Map<String, Restaurant> restaurants = mongoTemplate.find(query, Restaurant.class).stream()
+                    .collect(Collectors.toMap(Restaurant::getId, restaurant -> restaurant));
+
+            for (GeoHit hit : hits) {
+                Restaurant restaurant = restaurants.get(hit.getEntry().getRestaurantId());
+                if (restaurant != null) {
+                    results.add(new GeoResult<>(restaurant, new Distance(hit.getDistanceKm(), Metrics.KILOMETERS)));
+                }
+            }
+            if (hits.size() < wanted) {
+                break; // Nothing further in range
+            }
+        }
+        return results;
+    }
+
+    /**
+     * In-memory equivalent of the minDistance + $match resume of the $geoNear pipeline
+     */
+    private static GeoGrid.HitFilter afterCursor(KeysetCursor after) {
+        if (after == null) {
+            return GeoGrid.HitFilter.ALL;
+        }
+        double lastDistance = after.getPosition().getDouble(DISTANCE_FIELD);
+        Set<String> returned = Set.copyOf(after.getPosition().getList("ids", String.class));
+        return (entry, distanceKm) -> distanceKm >= lastDistance - DISTANCE_TOLERANCE_KM
+                && (distanceKm > lastDistance + DISTANCE_TOLERANCE_KM || !returned.contains(entry.getRestaurantId()));
+    }
+
+    /**
+     * Cursor after the last row: its distance, and the ids of every row returned within tolerance of it
+     */
+    private String nearbyCursor(List<GeoResult<Restaurant>> page, KeysetCursor previous) {
+        double lastDistance = page.get(page.size() - 1).getDistance().getValue();
+        List<String> ids = new ArrayList<>();
+        if (previous != null && previous.getPosition().getDouble(DISTANCE_FIELD) >= lastDistance - DISTANCE_TOLERANCE_KM) {
+            ids.addAll(previous.getPosition().getList("ids", String.class));
+        }
+        for (GeoResult<Restaurant> result : page) {
+            if (result.getDistance().getValue() >= lastDistance - DISTANCE_TOLERANCE_KM) {
+                ids.add(result.getContent().getId());
+            }
+        }
+        return new KeysetCursor(NEARBY_SORT, new Document(DISTANCE_FIELD, lastDistance).append("ids", ids)).encode();
+    }
+
+    /**
+     * A nearby cursor must hold the last distance and the ids returned at it; anything else is rejected with a 400
+     */
+    private static KeysetCursor decodeNearbyCursor(String cursor) {
+        KeysetCursor after = KeysetCursor.decode(cursor, NEARBY_SORT, Map.of(DISTANCE_FIELD, Double.class, "ids", List.class));
+        if (!((List<?>) after.getPosition().get("ids")).stream().allMatch(String.class::isInstance)) {
+            throw new BadRequestException("Invalid cursor");
+        }
+        return after;
+    }
+
+    /**
+     * Rating then id, in one direction: the sort the search indexes end with, so pages are range seeks
+     * Other sorts would be a blocking SORT over every match on each page, so they are offset-only
+     */
+    private static boolean isKeysetSort(Sort sort) {
+        List<Sort.Order> orders = sort.toList();
+        return orders.size() == 2
+                && orders.get(0).getProperty().equals("averageRating")
+                && orders.get(1).getProperty().equals("id")
+                && orders.get(0).getDirection() == orders.get(1).getDirection();
+    }
+
+    /**
+     * Every sort property must be in the cursor position; its value may be null (a row without that field)
+     */
+    private static Map<String, Class<?>> cursorFields(Sort sort) {
+        Map<String, Class<?>> fields = new LinkedHashMap<>();
+        sort.forEach(order -> fields.put(order.getProperty(), Object.class));
+        return fields;
+    }
+
+    private static String sortKey(Sort sort) {
+        return sort.stream()
+                .map(order -> order.getProperty() + ":" + order.getDirection())
+                .collect(Collectors.joining(","));
+    }
+
+    /**
+     * Sort keys have to be loaded to build the next cursor from the last row
+     */
+    private void includeSortKeys(Query query, Sort sort) {
+        sort.stream()
+                .map(Sort.Order::getProperty)
+                .filter(property -> !RELEVANCE.equals(property))
+                .forEach(property -> query.fields().include(property));
+    }
+
+    /**
+     * A $text query for the given input, or a plain query when the input has no searchable tokens
+     * Relevance ordering is applied here, since a textScore sort can't be expressed as a Sort order
+     */
+    private Query textQuery(String input, Sort sort) {
+        String terms = SearchTokens.toTextQuery(input);
+        if (terms.isEmpty()) {
+            return new Query();
+        }
+
+        TextQuery query = TextQuery.queryText(TextCriteria.forDefaultLanguage().matching(terms));
+        if (sort.getOrderFor(RELEVANCE) != null) {
+            query.sortByScore();
+        }
+        return query;
+    }
+
+    private Pageable withoutRelevance(Pageable pageable) {
+        Sort sort = Sort.by(pageable.getSort().filter(order -> !RELEVANCE.equals(order.getProperty())).toList());
+        return PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), sort);
+    }
+
+    private AggregationOperation[] pageStages(Pageable pageable, boolean byRelevance) {
+        List<AggregationOperation> stages = new ArrayList<>();
+        Sort sort = withoutRelevance(pageable).getSort();
+        if (byRelevance) {
+            // Sort documents can't express $meta, so the relevance sort is written out (score first, then the rest)
+            Document relevance = new Document("score", new Document("$meta", "textScore"));
+            relevance.putAll(queryMapper.getMappedSort(new Query().with(sort).getSortObject(), restaurantEntity));
+            stages.add(Aggregation.stage(new Document("$sort", relevance)));
+        } else if (sort.isSorted()) {
+            stages.add(Aggregation.sort(sort));
+        }
+        stages.add(Aggregation.skip(pageable.getOffset()));
+        stages.add(Aggregation.limit(pageable.getPageSize()));
+        stages.add(Aggregation.stage(new Document("$project", summaryProjection)));
+        return stages.toArray(AggregationOperation[]::new);
+    }
+
+    private static Object[] bucketBoundaries(Collection<Double> lowerBounds, double upperBound) {
+        List<Object> boundaries = new ArrayList<>(lowerBounds);
+        boundaries.add(upperBound);
+        return boundaries.toArray();
+    }
+
+    private static long firstCount(List<Document> counts) {
+        return counts.isEmpty() ? 0 : ((Number) counts.get(0).get("count")).longValue();
+    }
+
+    private static Map<CuisineType, Long> cuisineCounts(List<Document> groups) {
+        Map<CuisineType, Long> counts = new LinkedHashMap<>();
+        groups.stream()
+                .sorted((a, b) -> Long.compare(((Number) b.get("count")).longValue(), ((Number) a.get("count")).longValue()))
+                .forEach(group -> {
+                    try {
+                        counts.put(CuisineType.valueOf(String.valueOf(group.get("_id"))),
+                                ((Number) group.get("count")).longValue());
+                    } catch (IllegalArgumentException e) {
+                        // Skip values that are no longer valid cuisine types
+                    }
+                });
+        return counts;
+    }
+
+    /**
+     * Buckets are disjoint ranges; a minRating chip counts everything at or above its bound
+     */
+    private static Map<String, Long> minRatingCounts(List<Document> buckets) {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (int i = RATING_BANDS.size() - 1; i >= 0; i--) {
+            double bound = RATING_BANDS.get(i);
+            long atLeast = buckets.stream()
+                    .filter(bucket -> bucket.get("_id") instanceof Number lower && lower.doubleValue() >= bound)
+                    .mapToLong(bucket -> ((Number) bucket.get("count")).longValue())
+                    .sum();
+            counts.put(String.valueOf(bound), atLeast);
+        }
+        return counts;
+    }
+
+    private static Map<String, Long> deliveryFeeCounts(List<Document> buckets) {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        DELIVERY_FEE_BANDS.values().forEach(band -> counts.put(band, 0L));
+        counts.put(DELIVERY_FEE_DEFAULT_BAND, 0L);
+        for (Document bucket : buckets) {
+            String band = bucket.get("_id") instanceof Number lower
+                    ? DELIVERY_FEE_BANDS.get(lower.doubleValue())
+                    : DELIVERY_FEE_DEFAULT_BAND;
+            counts.put(band, ((Number) bucket.get("count")).longValue());
+        }
+        return counts;
+    }
+
+    private Query summaryQuery(Query query) {
+        query.fields().include(SUMMARY_FIELDS);
+        return query;
+    }
+
+    private Criteria buildSearchCriteria(RestaurantSearchRequest request) {
+        List<Criteria> filters = new ArrayList<>();
+        filters.add(Criteria.where("isActive").is(true));
+        filters.add(Criteria.where("isVerified").is(true));
+
+        if (hasText(request.getCity())) {
+            // Equality on the normalized copy; a case-insensitive regex can't bound the city_key scan
+            filters.add(Criteria.where("cityKey").is(SearchTokens.cityKey(request.getCity())));
+        }
+        if (request.getCuisineType() != null) {
+            // Equality on an array field matches any element, through the multikey search_cuisine_rating_idx
+            filters.add(Criteria.where("cuisineTypes").is(request.getCuisineType()));
+        }
+        if (request.getAcceptingOrders() != null) {
+            filters.add(Criteria.where("isAcceptingOrders").is(request.getAcceptingOrders()));
+        }
+        if (request.getMinRating() != null) {
+            filters.add(Criteria.where("averageRating").gte(request.getMinRating()));
+        }
+        if (request.getLatitude() != null && request.getLongitude() != null && request.getRadiusInKm() != null) {
+            // $geoWithin / $centerSphere, served by the 2dsphere location index
+            Circle area = new Circle(new Point(request.getLongitude(), request.getLatitude()),
+                    new Distance(request.getRadiusInKm(), Metrics.KILOMETERS));
+            filters.add(Criteria.where("location").withinSphere(area));
+        }
+
+        return new Criteria().andOperator(filters);
+    }
+
+    private boolean hasText(String value) {
+        return value != null && !value.isBlank();
+    }
+}
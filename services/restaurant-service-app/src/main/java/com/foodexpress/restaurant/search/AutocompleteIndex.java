@@ -0,0 +1,305 @@
+package com.foodexpress.restaurant.search;
+
+import com.foodexpress.restaurant.dto.response.AutocompleteSuggestionResponse;
+import com.foodexpress.restaurant.dto.response.AutocompleteSuggestionResponse.Type;
+import com.foodexpress.restaurant.entity.MenuItem;
+import com.foodexpress.restaurant.entity.Restaurant;
+import com.foodexpress.restaurant.entity.enums.CuisineType;
+import com.foodexpress.restaurant.event.MenuChangedEvent;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * In-memory typeahead index of restaurant names, cuisines and dish names
+ *
+ * Suggestions are weighted by rating and number of ratings. Cuisines and dishes are
+ * shared across restaurants, so their weight is the sum of what every restaurant
+ * contributes (a dish served in many well rated places ranks higher).
+ * Each name is indexed at every word, so "tikka" also suggests "Paneer Tikka".
+ *
+ * Built once on startup, then refreshed one restaurant at a time on every
+ * {@link MenuChangedEvent}, local or bus-delivered, so lookups never touch MongoDB.
+ * Refreshes run on a single background thread, which keeps them in event order.
+ * A failed build is retried after app.autocomplete.rebuild-retry-delay; until one has
+ * finished the index reports itself as not ready.
+ */
+@Component
+@Slf4j
+public class AutocompleteIndex {
+
+    /** Names longer than this are only indexed from their first words */
+    private static final int MAX_INDEXED_WORDS = 6;
+
+    private static final double BESTSELLER_BOOST = 1.5;
+
+    private final MongoTemplate mongoTemplate;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final SuggestionTrie trie = new SuggestionTrie();
+
+    /** What each restaurant contributes, by suggestion key, so it can be taken back when the restaurant changes */
+    private final Map<String, Map<String, Suggestion>> contributions = new HashMap<>();
+
+    /** Suggestions currently stored in the trie, by key, with their summed weight */
+    private final Map<String, Suggestion> indexed = new HashMap<>();
+
+    private final Duration rebuildRetryDelay;
+
+    private volatile boolean ready;
+
+    private final ScheduledExecutorService refresher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "autocomplete-refresh");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public AutocompleteIndex(MongoTemplate mongoTemplate,
+                             @Value("${app.autocomplete.rebuild-retry-delay:30s}") Duration rebuildRetryDelay) {
+        this.mongoTemplate = mongoTemplate;
+        this.rebuildRetryDelay = rebuildRetryDelay;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Top suggestions for a partially typed query, best first
+     */
+    public List<AutocompleteSuggestionResponse> suggest(String query, int limit) {
+        String prefix = SearchTokens.toTextQuery(query);
+        if (prefix.isEmpty()) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            return trie.top(prefix, limit).stream()
+                    .map(Suggestion::toResponse)
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        refresher.execute(this::rebuild);
+    }
+
+    /**
+     * Handles both locally published and bus-delivered menu changes
+     */
+    @EventListener
+    public void onMenuChanged(MenuChangedEvent event) {
+        refresher.execute(() -> refresh(event.getRestaurantId()));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refresher.shutdownNow();
+    }
+
+    private void rebuild() {
+        try {
+            build();
+            ready = true;
+        } catch (RuntimeException e) {
+            log.warn("Failed to build autocomplete index, retrying in {}", rebuildRetryDelay, e);
+            refresher.schedule(this::rebuild, rebuildRetryDelay.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void build() {
+        Map<String, List<Suggestion>> byRestaurant = new HashMap<>();
+
+        Query restaurants = new Query(Criteria.where("isActive").is(true).and("isVerified").is(true));
+        restaurants.fields().include("name", "cuisineTypes", "averageRating", "totalRatings");
+        try (Stream<Restaurant> stream = mongoTemplate.stream(restaurants, Restaurant.class)) {
+            stream.forEach(restaurant -> byRestaurant.put(restaurant.getId(), restaurantSuggestions(restaurant)));
+        }
+
+        try (Stream<MenuItem> stream = mongoTemplate.stream(menuItemQuery(new Criteria()), MenuItem.class)) {
+            stream.forEach(item -> {
+                List<Suggestion> suggestions = byRestaurant.get(item.getRestaurantId());
+                if (suggestions != null) {
+                    addDishSuggestion(suggestions, item);
+                }
+            });
+        }
+
+        byRestaurant.forEach(this::apply);
+        log.info("Autocomplete index built from {} restaurants ({} entries)", byRestaurant.size(), trie.size());
+    }
+
+    private void refresh(String restaurantId) {
+        try {
+            Query query = new Query(Criteria.where("id").is(restaurantId).and("isActive").is(true).and("isVerified").is(true));
+            query.fields().include("name", "cuisineTypes", "averageRating", "totalRatings");
+            Restaurant restaurant = mongoTemplate.findOne(query, Restaurant.class);
+
+            List<Suggestion> suggestions = new ArrayList<>();
+            if (restaurant != null) {
+                suggestions.addAll(restaurantSuggestions(restaurant));
+                mongoTemplate.find(menuItemQuery(Criteria.where("restaurantId").is(restaurantId)), MenuItem.class)
+                        .forEach(item -> addDishSuggestion(suggestions, item));
+            }
+            apply(restaurantId, suggestions);
+        } catch (RuntimeException e) {
+            log.warn("Failed to refresh autocomplete entries for restaurant ID: {}", restaurantId, e);
+        }
+    }
+
+    private Query menuItemQuery(Criteria criteria) {
+        Query query = new Query(criteria.and("isAvailable").is(true));
+        query.fields().include("restaurantId", "name", "averageRating", "totalRatings", "isBestseller");
+        return query;
+    }
+
+    /**
+     * Replace everything the restaurant contributes with the given suggestions
+     */
+    private void apply(String restaurantId, List<Suggestion> suggestions) {
+        Map<String, Suggestion> added = new HashMap<>();
+        for (Suggestion suggestion : suggestions) {
+            added.merge(suggestion.getKey(), suggestion, (a, b) -> a.withWeight(a.getWeight() + b.getWeight()));
+        }
+
+        lock.writeLock().lock();
+        try {
+            Map<String, Suggestion> removed = added.isEmpty()
+                    ? contributions.remove(restaurantId)
+                    : contributions.put(restaurantId, added);
+
+            Set<String> touched = new HashSet<>(added.keySet());
+            if (removed != null) {
+                touched.addAll(removed.keySet());
+            }
+            for (String key : touched) {
+                double delta = weightOf(added.get(key)) - weightOf(removed == null ? null : removed.get(key));
+                Suggestion latest = added.get(key);
+                reindex(latest != null ? latest : removed.get(key), latest != null, delta);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Apply a weight change to one suggestion; a contributed template also carries its current text,
+     * so a renamed restaurant moves to the paths of its new name
+     */
+    private void reindex(Suggestion template, boolean contributed, double delta) {
+        Suggestion current = indexed.get(template.getKey());
+        double weight = (current == null ? 0 : current.getWeight()) + delta;
+        boolean renamed = contributed && current != null && !current.getText().equals(template.getText());
+
+        if (current != null) {
+            if (delta == 0 && !renamed) {
+                return;
+            }
+            paths(current.getText()).forEach(path -> trie.remove(path, current.getKey()));
+        }
+
+        // Weights are summed and subtracted, so allow for rounding residue once the last contributor is gone
+        if (weight > 1e-9) {
+            Suggestion updated = (contributed || current == null ? template : current).withWeight(weight);
+            indexed.put(updated.getKey(), updated);
+            paths(updated.getText()).forEach(path -> trie.add(path, updated));
+        } else {
+            indexed.remove(template.getKey());
+        }
+    }
+
+    private static double weightOf(Suggestion suggestion) {
+        return suggestion == null ? 0 : suggestion.getWeight();
+    }
+
+    private List<Suggestion> restaurantSuggestions(Restaurant restaurant) {
+        List<Suggestion> suggestions = new ArrayList<>();
+        double weight = popularity(restaurant.getAverageRating(), restaurant.getTotalRatings());
+        if (restaurant.getName() != null) {
+            suggestions.add(new Suggestion("restaurant:" + restaurant.getId(), Type.RESTAURANT,
+                    restaurant.getName(), restaurant.getId(), null, weight));
+        }
+        if (restaurant.getCuisineTypes() != null) {
+            for (CuisineType cuisineType : restaurant.getCuisineTypes()) {
+                suggestions.add(new Suggestion("cuisine:" + cuisineType.name(), Type.CUISINE,
+                        displayName(cuisineType), null, cuisineType, weight));
+            }
+        }
+        return suggestions;
+    }
+
+    private void addDishSuggestion(List<Suggestion> suggestions, MenuItem item) {
+        String name = SearchTokens.toTextQuery(item.getName());
+        if (name.isEmpty()) {
+            return;
+        }
+        double weight = popularity(item.getAverageRating(), item.getTotalRatings());
+        if (Boolean.TRUE.equals(item.getIsBestseller())) {
+            weight *= BESTSELLER_BOOST;
+        }
+        // Dishes are suggested by name, so the same dish from many restaurants is one suggestion
+        suggestions.add(new Suggestion("dish:" + name, Type.DISH, item.getName(), null, null, weight));
+    }
+
+    /**
+     * (1 + rating) scaled by the log of the number of ratings; unrated entries still get a small positive weight
+     */
+    private static double popularity(BigDecimal rating, Integer totalRatings) {
+        double stars = rating == null ? 0 : rating.doubleValue();
+        int count = totalRatings == null ? 0 : totalRatings;
+        return (1 + stars) * Math.log(2 + count);
+    }
+
+    /**
+     * Trie paths for a name: the normalized name starting at each of its words
+     */
+    private static List<String> paths(String text) {
+        List<String> tokens = SearchTokens.tokenize(text);
+        if (tokens.size() > MAX_INDEXED_WORDS) {
+            tokens = tokens.subList(0, MAX_INDEXED_WORDS);
+        }
+        List<String> paths = new ArrayList<>(tokens.size());
+        for (int i = 0; i < tokens.size(); i++) {
+            paths.add(String.join(" ", tokens.subList(i, tokens.size())));
+        }
+        return paths;
+    }
+
+    private static String displayName(CuisineType cuisineType) {
+        StringBuilder name = new StringBuilder();
+        for (String word : cuisineType.name().toLowerCase(Locale.ROOT).split("_")) {
+            if (!name.isEmpty()) {
+                name.append(' ');
+            }
+            name.append(Character.toUpperCase(word.charAt(0))).append(word.substring(1));
+        }
+        return name.toString();
+    }
+}
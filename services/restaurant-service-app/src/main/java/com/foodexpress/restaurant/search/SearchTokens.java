@@ -0,0 +1,88 @@
+package com.foodexpress.restaurant.search;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Tokenizing helpers shared by the text search write and read paths
+ * Tokens are split on anything that is not a letter or digit and lower-cased
+ */
+public final class SearchTokens {
+
+    /** Shortest prefix that is indexed; single letters would match most of the collection */
+    public static final int MIN_PREFIX_LENGTH = 2;
+
+    /** Longer prefixes add index entries without narrowing results; whole words are still indexed in full */
+    public static final int MAX_PREFIX_LENGTH = 15;
+
+    private static final Pattern SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private SearchTokens() {
+    }
+
+    /**
+     * Split text into lower-cased tokens, dropping empty ones
+     */
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        for (String token : SEPARATOR.split(text.toLowerCase(Locale.ROOT))) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Every leading prefix of every token of the given texts, e.g. "Paneer Tikka" -> pa, pan, pane, ..., ti, tik, ...
+     * Stored next to the source fields and covered by the text index, so a partially typed word still matches
+     */
+    public static List<String> prefixes(String... texts) {
+        Set<String> prefixes = new LinkedHashSet<>();
+        for (String text : texts) {
+            for (String token : tokenize(text)) {
+                int maxLength = Math.min(token.length(), MAX_PREFIX_LENGTH);
+                for (int length = MIN_PREFIX_LENGTH; length <= maxLength; length++) {
+                    prefixes.add(token.substring(0, length));
+                }
+            }
+        }
+        return new ArrayList<>(prefixes);
+    }
+
+    /**
+     * Tokens of user input as they appear in a search_prefixes array: too short tokens are
+     * dropped and long ones cut to MAX_PREFIX_LENGTH, whose prefix is indexed in their place
+     */
+    public static List<String> prefixTerms(String input) {
+        Set<String> terms = new LinkedHashSet<>();
+        for (String token : tokenize(input)) {
+            if (token.length() >= MIN_PREFIX_LENGTH) {
+                terms.add(token.length() > MAX_PREFIX_LENGTH ? token.substring(0, MAX_PREFIX_LENGTH) : token);
+            }
+        }
+        return new ArrayList<>(terms);
+    }
+
+    /**
+     * Case- and whitespace-insensitive form of a city, as stored in city_key, e.g. " Pune " -> "pune"
+     */
+    public static String cityKey(String city) {
+        return city == null || city.isBlank() ? null : city.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Normalize user input into a $text search string
+     * Re-joining the tokens drops the quotes and leading dashes $text would read as phrase / negation operators
+     */
+    public static String toTextQuery(String input) {
+        return String.join(" ", tokenize(input));
+    }
+}
@@ -0,0 +1,34 @@
+package com.foodexpress.restaurant.search;
+
+import com.foodexpress.restaurant.dto.response.AutocompleteSuggestionResponse;
+import com.foodexpress.restaurant.entity.enums.CuisineType;
+import lombok.Value;
+
+/**
+ * One autocomplete suggestion as stored in the {@link SuggestionTrie}
+ * The key identifies the suggestion across all the trie paths it is stored under
+ */
+@Value
+class Suggestion {
+
+    String key;
+    AutocompleteSuggestionResponse.Type type;
+    String text;
+    String restaurantId;
+    CuisineType cuisineType;
+    double weight;
+
+    Suggestion withWeight(double newWeight) {
+        return new Suggestion(key, type, text, restaurantId, cuisineType, newWeight);
+    }
+
+    AutocompleteSuggestionResponse toResponse() {
+        return AutocompleteSuggestionResponse.builder()
+                .type(type)
+                .text(text)
+                .restaurantId(restaurantId)
+                .cuisineType(cuisineType)
+                .score(weight)
+                .build();
+    }
+}
@@ -0,0 +1,192 @@
+package com.foodexpress.restaurant.search;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Prefix-compressed (radix) trie of suggestions, answering top-K by weight for a prefix
+ *
+ * Every node keeps the highest weight found in its subtree, so a top-K lookup walks
+ * the subtree best-first and stops as soon as no unvisited branch can beat the K-th result.
+ * A suggestion may be stored under several paths (one per word it starts at); results
+ * are de-duplicated by key. Not thread-safe: {@link AutocompleteIndex} guards access.
+ */
+class SuggestionTrie {
+
+    private static final Comparator<Suggestion> BY_WEIGHT = Comparator.comparingDouble(Suggestion::getWeight);
+
+    private final Node root = new Node("");
+
+    private int size;
+
+    /**
+     * Number of (path, suggestion) pairs stored
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Store the suggestion under the path; to change its weight, remove it first
+     */
+    void add(String path, Suggestion suggestion) {
+        add(root, path, 0, suggestion);
+    }
+
+    void remove(String path, String key) {
+        remove(root, path, 0, key);
+    }
+
+    /**
+     * The highest weighted suggestions stored under a path starting with the prefix, best first
+     */
+    List<Suggestion> top(String prefix, int limit) {
+        Node node = root;
+        int offset = 0;
+        while (offset < prefix.length()) {
+            Node child = node.children.get(prefix.charAt(offset));
+            if (child == null) {
+                return List.of();
+            }
+            int common = commonPrefixLength(child.label, prefix, offset);
+            if (common < child.label.length() && offset + common < prefix.length()) {
+                return List.of();
+            }
+            node = child;
+            offset += common;
+        }
+
+        PriorityQueue<Node> frontier = new PriorityQueue<>(Comparator.comparingDouble((Node n) -> n.maxWeight).reversed());
+        PriorityQueue<Suggestion> best = new PriorityQueue<>(limit + 1, BY_WEIGHT);
+        Set<String> seen = new HashSet<>();
+        frontier.add(node);
+
+        while (!frontier.isEmpty()) {
+            Node next = frontier.poll();
+            if (best.size() == limit && next.maxWeight <= best.peek().getWeight()) {
+                break;
+            }
+            for (Suggestion suggestion : next.suggestions.values()) {
+                if (seen.add(suggestion.getKey())) {
+                    best.add(suggestion);
+                    if (best.size() > limit) {
+                        best.poll();
+                    }
+                }
+            }
+            frontier.addAll(next.children.values());
+        }
+
+        List<Suggestion> result = new ArrayList<>(best);
+        result.sort(BY_WEIGHT.reversed().thenComparing(Suggestion::getText));
+        return result;
+    }
+
+    private void add(Node node, String path, int offset, Suggestion suggestion) {
+        if (offset == path.length()) {
+            if (node.suggestions.put(suggestion.getKey(), suggestion) == null) {
+                size++;
+            }
+        } else {
+            char first = path.charAt(offset);
+            Node child = node.children.get(first);
+            if (child == null) {
+                child = new Node(path.substring(offset));
+                node.children.put(first, child);
+            } else {
+                int common = commonPrefixLength(child.label, path, offset);
+                if (common < child.label.length()) {
+                    child = split(node, child, common);
+                }
+            }
+            add(child, path, offset + child.label.length(), suggestion);
+        }
+        node.maxWeight = Math.max(node.maxWeight, suggestion.getWeight());
+    }
+
+    private boolean remove(Node node, String path, int offset, String key) {
+        boolean removed;
+        if (offset == path.length()) {
+            removed = node.suggestions.remove(key) != null;
+            if (removed) {
+                size--;
+            }
+        } else {
+            char first = path.charAt(offset);
+            Node child = node.children.get(first);
+            if (child == null || !path.startsWith(child.label, offset)) {
+                return false;
+            }
+            removed = remove(child, path, offset + child.label.length(), key);
+            if (removed && child.suggestions.isEmpty()) {
+                if (child.children.isEmpty()) {
+                    node.children.remove(first);
+                } else if (child.children.size() == 1) {
+                    // Re-compress: a node with no suggestions and a single child is just part of an edge
+                    Node grandchild = child.children.values().iterator().next();
+                    grandchild.label = child.label + grandchild.label;
+                    node.children.put(first, grandchild);
+                }
+            }
+        }
+        if (removed) {
+            node.maxWeight = node.computeMaxWeight();
+        }
+        return removed;
+    }
+
+    /**
+     * Split the edge into child after its first length characters, returning the new intermediate node
+     */
+    private Node split(Node parent, Node child, int length) {
+        Node intermediate = new Node(child.label.substring(0, length));
+        child.label = child.label.substring(length);
+        intermediate.children.put(child.label.charAt(0), child);
+        intermediate.maxWeight = child.maxWeight;
+        parent.children.put(intermediate.label.charAt(0), intermediate);
+        return intermediate;
+    }
+
+    private static int commonPrefixLength(String label, String path, int offset) {
+        int max = Math.min(label.length(), path.length() - offset);
+        int i = 0;
+        while (i < max && label.charAt(i) == path.charAt(offset + i)) {
+            i++;
+        }
+        return i;
+    }
+
+    private static final class Node {
+
+        /** Characters on the edge leading into this node */
+        private String label;
+
+        private final Map<Character, Node> children = new HashMap<>(4);
+
+        private final Map<String, Suggestion> suggestions = new HashMap<>(2);
+
+        /** Highest suggestion weight in this subtree */
+        private double maxWeight;
+
+        private Node(String label) {
+            this.label = label;
+        }
+
+        private double computeMaxWeight() {
+            double max = 0;
+            for (Suggestion suggestion : suggestions.values()) {
+                max = Math.max(max, suggestion.getWeight());
+            }
+            for (Node child : children.values()) {
+                max = Math.max(max, child.maxWeight);
+            }
+            return max;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.foodexpress.restaurant.service;
+
+import com.foodexpress.restaurant.dto.response.MenuImportResponse;
+import com.foodexpress.restaurant.menuimport.MenuImportFormat;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Service interface for bulk menu imports
+ */
+public interface MenuImportService {
+
+    /**
+     * Stream menu items from the body into the restaurant's menu
+     * Rows are validated against the restaurant's categories and existing item names, loaded once,
+     * and inserted in unordered bulk writes; invalid rows are reported and skipped
+     */
+    MenuImportResponse importMenuItems(String restaurantId, MenuImportFormat format, Reader body) throws IOException;
+}
@@ -2,7 +2,9 @@ package com.foodexpress.restaurant.service;
 
 import com.foodexpress.restaurant.dto.request.MenuItemRequest;
 import com.foodexpress.restaurant.dto.response.FullMenuResponse;
+import com.foodexpress.restaurant.dto.response.MenuItemPriceResponse;
 import com.foodexpress.restaurant.dto.response.MenuItemResponse;
+import com.foodexpress.restaurant.dto.response.MenuSnapshotResponse;
 import com.foodexpress.restaurant.entity.enums.DietaryType;
 
 import java.math.BigDecimal;
@@ -23,6 +25,12 @@ public interface MenuItemService {
      */
     MenuItemResponse getMenuItemById(String restaurantId, String itemId);
 
+    /**
+     * Get name, price and availability of several items of a restaurant in one query
+     * Unknown item IDs are left out of the result
+     */
+    List<MenuItemPriceResponse> getMenuItemPrices(String restaurantId, List<String> itemIds);
+
     /**
      * Update menu item
      */
@@ -48,6 +56,12 @@ public interface MenuItemService {
      */
     FullMenuResponse getFullMenu(String restaurantId);
 
+    /**
+     * Get the price table of the current menu version
+     * If knownVersion is the current version, only the version is returned
+     */
+    MenuSnapshotResponse getMenuSnapshot(String restaurantId, Long knownVersion);
+
     /**
      * Search menu items by name
      */
@@ -0,0 +1,26 @@
+package com.foodexpress.restaurant.service;
+
+/**
+ * Service interface for tracking menu versions
+ * The menu version of a restaurant changes on every write to the restaurant or its menu
+ */
+public interface MenuVersionService {
+
+    /**
+     * Bump the menu version of a restaurant after a write
+     * and notify all instances so cached menus get invalidated
+     */
+    long bumpMenuVersion(String restaurantId);
+
+    /**
+     * Get the latest known menu version of a restaurant
+     * Served from memory once known, and re-read from MongoDB once app.cache.menu-version.expire-after-write has passed
+     */
+    long getMenuVersion(String restaurantId);
+
+    /**
+     * Get the menu version of a restaurant as stored in MongoDB, bypassing what is known in memory
+     * For callers that must not act on a stale version, like checkout price validation
+     */
+    long getCommittedMenuVersion(String restaurantId);
+}
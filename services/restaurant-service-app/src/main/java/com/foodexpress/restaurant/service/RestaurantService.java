@@ -1,10 +1,13 @@
 package com.foodexpress.restaurant.service;
 
-import com.foodexpress.restaurant.dto.common.PageResponse;
+import com.foodexpress.restaurant.dto.common.CursorPageResponse;
 import com.foodexpress.restaurant.dto.request.RestaurantRegistrationRequest;
 import com.foodexpress.restaurant.dto.request.RestaurantSearchRequest;
 import com.foodexpress.restaurant.dto.request.RestaurantUpdateRequest;
+import com.foodexpress.restaurant.dto.response.AutocompleteSuggestionResponse;
+import com.foodexpress.restaurant.dto.response.NearbyDishResponse;
 import com.foodexpress.restaurant.dto.response.RestaurantResponse;
+import com.foodexpress.restaurant.dto.response.RestaurantSearchResponse;
 import com.foodexpress.restaurant.dto.response.RestaurantSummaryResponse;
 
 import java.util.List;
@@ -40,19 +43,37 @@ public interface RestaurantService {
     List<RestaurantResponse> getRestaurantsByOwner(Long ownerUserId);
 
     /**
-     * Search restaurants with filters
+     * Search restaurants with filters, optionally with facet counts
      */
-    PageResponse<RestaurantSummaryResponse> searchRestaurants(RestaurantSearchRequest request);
+    RestaurantSearchResponse searchRestaurants(RestaurantSearchRequest request);
 
     /**
-     * Get restaurants by city
+     * Get all restaurants in a city, best rated first, as one list
+     * The response shape of GET /city/{city} without paged=true, kept for existing clients
      */
     List<RestaurantSummaryResponse> getRestaurantsByCity(String city);
 
     /**
-     * Get nearby restaurants
+     * Get restaurants by city, best rated first, one cursor page at a time
      */
-    List<RestaurantSummaryResponse> getNearbyRestaurants(Double latitude, Double longitude, Double radiusKm);
+    CursorPageResponse<RestaurantSummaryResponse> getRestaurantsByCity(String city, String cursor, Integer limit, Boolean includeTotal);
+
+    /**
+     * Get nearby restaurants, closest first, one cursor page at a time
+     */
+    CursorPageResponse<RestaurantSummaryResponse> getNearbyRestaurants(Double latitude, Double longitude, Double radiusKm,
+                                                                      Integer limit, String cursor, Boolean includeTotal);
+
+    /**
+     * Dishes matching the query served by restaurants near the point
+     * Ranked by distance, rating and bestseller status
+     */
+    List<NearbyDishResponse> searchNearbyDishes(String query, Double latitude, Double longitude, Double radiusKm, Integer limit);
+
+    /**
+     * Typeahead suggestions (restaurants, cuisines, dishes) for a partially typed query
+     */
+    List<AutocompleteSuggestionResponse> autocomplete(String query, Integer limit);
 
     /**
      * Verify restaurant (admin only)
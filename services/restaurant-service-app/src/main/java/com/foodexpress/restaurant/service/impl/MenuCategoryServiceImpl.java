@@ -4,17 +4,22 @@ import com.foodexpress.restaurant.dto.request.MenuCategoryRequest;
 import com.foodexpress.restaurant.dto.response.MenuCategoryResponse;
 import com.foodexpress.restaurant.entity.MenuCategory;
 import com.foodexpress.restaurant.entity.Restaurant;
+import com.foodexpress.restaurant.exception.BadRequestException;
 import com.foodexpress.restaurant.exception.DuplicateResourceException;
 import com.foodexpress.restaurant.exception.ResourceNotFoundException;
 import com.foodexpress.restaurant.repository.MenuCategoryRepository;
 import com.foodexpress.restaurant.repository.MenuItemRepository;
 import com.foodexpress.restaurant.repository.RestaurantRepository;
 import com.foodexpress.restaurant.service.MenuCategoryService;
+import com.foodexpress.restaurant.service.MenuVersionService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -25,6 +30,7 @@ public class MenuCategoryServiceImpl implements MenuCategoryService {
     private final MenuCategoryRepository menuCategoryRepository;
     private final RestaurantRepository restaurantRepository;
     private final MenuItemRepository menuItemRepository;
+    private final MenuVersionService menuVersionService;
 
     @Override
     public MenuCategoryResponse createCategory(String restaurantId, MenuCategoryRequest request) {
@@ -49,6 +55,7 @@ public class MenuCategoryServiceImpl implements MenuCategoryService {
                 .build();
 
         MenuCategory savedCategory = menuCategoryRepository.save(category);
+        menuVersionService.bumpMenuVersion(restaurantId);
         log.info("Menu category created successfully with ID: {}", savedCategory.getId());
 
         return mapToCategoryResponse(savedCategory);
@@ -90,6 +97,7 @@ public class MenuCategoryServiceImpl implements MenuCategoryService {
         }
 
         MenuCategory updatedCategory = menuCategoryRepository.save(category);
+        menuVersionService.bumpMenuVersion(restaurantId);
         log.info("Category updated successfully with ID: {}", updatedCategory.getId());
 
         return mapToCategoryResponse(updatedCategory);
@@ -103,6 +111,7 @@ public class MenuCategoryServiceImpl implements MenuCategoryService {
                 .orElseThrow(() -> new ResourceNotFoundException("Category not found with ID: " + categoryId));
 
         menuCategoryRepository.delete(category);
+        menuVersionService.bumpMenuVersion(restaurantId);
         log.info("Category deleted successfully with ID: {}", categoryId);
     }
 
@@ -111,9 +120,7 @@ public class MenuCategoryServiceImpl implements MenuCategoryService {
         log.info("Fetching all categories for restaurant ID: {}", restaurantId);
 
         List<MenuCategory> categories = menuCategoryRepository.findByRestaurantId(restaurantId);
-        return categories.stream()
-                .map(this::mapToCategoryResponse)
-                .collect(Collectors.toList());
+        return mapToCategoryResponses(restaurantId, categories);
     }
 
     @Override
@@ -121,30 +128,54 @@ public class MenuCategoryServiceImpl implements MenuCategoryService {
         log.info("Fetching active categories for restaurant ID: {}", restaurantId);
 
         List<MenuCategory> categories = menuCategoryRepository.findByRestaurantIdAndIsActiveTrueOrderByDisplayOrderAsc(restaurantId);
-        return categories.stream()
-                .map(this::mapToCategoryResponse)
-                .collect(Collectors.toList());
+        return mapToCategoryResponses(restaurantId, categories);
     }
 
     @Override
     public void reorderCategories(String restaurantId, List<String> categoryIds) {
         log.info("Reordering categories for restaurant ID: {}", restaurantId);
 
-        for (int i = 0; i < categoryIds.size(); i++) {
-            String categoryId = categoryIds.get(i);
-            MenuCategory category = menuCategoryRepository.findByIdAndRestaurantId(categoryId, restaurantId)
-                    .orElseThrow(() -> new ResourceNotFoundException("Category not found with ID: " + categoryId));
-            category.setDisplayOrder(i);
-            menuCategoryRepository.save(category);
+        Set<String> uniqueIds = new HashSet<>(categoryIds);
+        if (uniqueIds.size() != categoryIds.size()) {
+            throw new BadRequestException("Category IDs must not contain duplicates");
+        }
+
+        // Validate ownership of every category with one $in query before writing anything
+        Set<String> ownedIds = menuCategoryRepository.findByRestaurantIdAndIdIn(restaurantId, uniqueIds).stream()
+                .map(MenuCategory::getId)
+                .collect(Collectors.toSet());
+        List<String> missingIds = categoryIds.stream()
+                .filter(id -> !ownedIds.contains(id))
+                .collect(Collectors.toList());
+        if (!missingIds.isEmpty()) {
+            throw new ResourceNotFoundException("Category not found with ID: " + String.join(", ", missingIds));
         }
 
+        menuCategoryRepository.updateDisplayOrders(restaurantId, categoryIds);
+        menuVersionService.bumpMenuVersion(restaurantId);
+
         log.info("Categories reordered successfully for restaurant ID: {}", restaurantId);
     }
 
-    // Helper method
+    // Helper methods
     private MenuCategoryResponse mapToCategoryResponse(MenuCategory category) {
-        long itemCount = menuItemRepository.countByCategoryId(category.getId());
+        return mapToCategoryResponse(category, menuItemRepository.countByCategoryId(category.getId()));
+    }
+
+    /**
+     * Map all categories of a restaurant, with item counts from a single aggregation
+     */
+    private List<MenuCategoryResponse> mapToCategoryResponses(String restaurantId, List<MenuCategory> categories) {
+        Map<String, Long> itemCounts = categories.isEmpty()
+                ? Map.of()
+                : menuItemRepository.countItemsByCategory(restaurantId);
+
+        return categories.stream()
+                .map(category -> mapToCategoryResponse(category, itemCounts.getOrDefault(category.getId(), 0L)))
+                .collect(Collectors.toList());
+    }
 
+    private MenuCategoryResponse mapToCategoryResponse(MenuCategory category, long itemCount) {
         return MenuCategoryResponse.builder()
                 .id(category.getId())
                 .name(category.getName())
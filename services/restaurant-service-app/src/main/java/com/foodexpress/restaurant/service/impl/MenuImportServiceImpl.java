@@ -0,0 +1,196 @@
+package com.foodexpress.restaurant.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.foodexpress.restaurant.dto.request.MenuItemRequest;
+import com.foodexpress.restaurant.dto.response.MenuImportResponse;
+import com.foodexpress.restaurant.entity.MenuCategory;
+import com.foodexpress.restaurant.entity.MenuItem;
+import com.foodexpress.restaurant.exception.ResourceNotFoundException;
+import com.foodexpress.restaurant.menuimport.MenuImportFormat;
+import com.foodexpress.restaurant.menuimport.MenuImportRow;
+import com.foodexpress.restaurant.menuimport.MenuImportRowReader;
+import com.foodexpress.restaurant.repository.MenuCategoryRepository;
+import com.foodexpress.restaurant.repository.MenuItemRepository;
+import com.foodexpress.restaurant.repository.RestaurantRepository;
+import com.foodexpress.restaurant.service.MenuImportService;
+import com.foodexpress.restaurant.service.MenuVersionService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+@Service
+@Slf4j
+public class MenuImportServiceImpl implements MenuImportService {
+
+    private final MenuItemRepository menuItemRepository;
+    private final RestaurantRepository restaurantRepository;
+    private final MenuCategoryRepository menuCategoryRepository;
+    private final MenuVersionService menuVersionService;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final int chunkSize;
+    private final int maxReportedErrors;
+
+    // Items rather than requests: onboarding throughput is the rate of menu.import.items{result=imported}
+    private final Counter importedItems;
+    private final Counter failedItems;
+    private final Timer importTimer;
+
+    public MenuImportServiceImpl(MenuItemRepository menuItemRepository,
+                                 RestaurantRepository restaurantRepository,
+                                 MenuCategoryRepository menuCategoryRepository,
+                                 MenuVersionService menuVersionService,
+                                 ObjectMapper objectMapper,
+                                 Validator validator,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${app.menu-import.chunk-size:500}") int chunkSize,
+                                 @Value("${app.menu-import.max-reported-errors:1000}") int maxReportedErrors) {
+        this.menuItemRepository = menuItemRepository;
+        this.restaurantRepository = restaurantRepository;
+        this.menuCategoryRepository = menuCategoryRepository;
+        this.menuVersionService = menuVersionService;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.chunkSize = chunkSize;
+        this.maxReportedErrors = maxReportedErrors;
+        this.importedItems = Counter.builder("menu.import.items").tag("result", "imported").register(meterRegistry);
+        this.failedItems = Counter.builder("menu.import.items").tag("result", "failed").register(meterRegistry);
+        this.importTimer = Timer.builder("menu.import").register(meterRegistry);
+    }
+
+    @Override
+    public MenuImportResponse importMenuItems(String restaurantId, MenuImportFormat format, Reader body) throws IOException {
+        log.info("Importing menu items ({}) for restaurant ID: {}", format, restaurantId);
+        long started = System.nanoTime();
+
+        restaurantRepository.findByIdAndIsActiveTrue(restaurantId)
+                .orElseThrow(() -> new ResourceNotFoundException("Restaurant not found with ID: " + restaurantId));
+
+        // Everything a row is checked against is loaded once, instead of three lookups per item
+        Set<String> categoryIds = menuCategoryRepository.findByRestaurantId(restaurantId).stream()
+                .map(MenuCategory::getId)
+                .collect(Collectors.toSet());
+        Set<String> names = menuItemRepository.findNamesByRestaurantId(restaurantId);
+
+        Progress progress = new Progress();
+        List<MenuImportRow> chunk = new ArrayList<>(chunkSize);
+        MenuImportRowReader reader = MenuImportRowReader.open(format, body, objectMapper);
+        Long menuVersion = null;
+
+        try {
+            MenuImportRow row;
+            while ((row = reader.next()) != null) {
+                progress.totalRows++;
+                String error = row.getError() != null ? row.getError() : validate(row.getRequest(), categoryIds, names);
+                if (error != null) {
+                    progress.fail(row, error);
+                    continue;
+                }
+
+                chunk.add(row);
+                if (chunk.size() == chunkSize) {
+                    insert(restaurantId, chunk, progress);
+                    chunk.clear();
+                }
+            }
+            insert(restaurantId, chunk, progress);
+        } finally {
+            // Chunks written before a failure are live, so cached menus must not keep hiding them
+            if (progress.imported > 0) {
+                menuVersion = menuVersionService.bumpMenuVersion(restaurantId);
+            }
+        }
+
+        long elapsedNanos = System.nanoTime() - started;
+        importTimer.record(elapsedNanos, TimeUnit.NANOSECONDS);
+        importedItems.increment(progress.imported);
+        failedItems.increment(progress.failed);
+
+        double seconds = Math.max(elapsedNanos, 1) / 1e9;
+        double itemsPerSecond = progress.imported / seconds;
+        log.info("Imported {} of {} menu items for restaurant ID: {} in {} ms ({} items/s)",
+                progress.imported, progress.totalRows, restaurantId, TimeUnit.NANOSECONDS.toMillis(elapsedNanos),
+                Math.round(itemsPerSecond));
+
+        progress.errors.sort(Comparator.comparing(MenuImportResponse.RowError::getLine));
+        return MenuImportResponse.builder()
+                .restaurantId(restaurantId)
+                .totalRows(progress.totalRows)
+                .imported(progress.imported)
+                .failed(progress.failed)
+                .durationMs(TimeUnit.NANOSECONDS.toMillis(elapsedNanos))
+                .itemsPerSecond(itemsPerSecond)
+                .menuVersion(menuVersion)
+                .errors(progress.errors)
+                .errorsTruncated(progress.failed > progress.errors.size())
+                .build();
+    }
+
+    /**
+     * The same checks as a single create, against the preloaded sets; claims the name when the row is valid
+     */
+    private String validate(MenuItemRequest request, Set<String> categoryIds, Set<String> names) {
+        Set<ConstraintViolation<MenuItemRequest>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            return violations.stream()
+                    .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining("; "));
+        }
+        if (!categoryIds.contains(request.getCategoryId())) {
+            return "Category not found with ID: " + request.getCategoryId();
+        }
+        if (!names.add(request.getName())) {
+            return "Menu item with name '" + request.getName() + "' already exists for this restaurant";
+        }
+        return null;
+    }
+
+    private void insert(String restaurantId, List<MenuImportRow> rows, Progress progress) {
+        if (rows.isEmpty()) {
+            return;
+        }
+
+        List<MenuItem> items = rows.stream()
+                .map(row -> MenuItemServiceImpl.toMenuItem(restaurantId, row.getRequest().getCategoryId(), row.getRequest()))
+                .collect(Collectors.toList());
+        Map<Integer, String> failures = menuItemRepository.bulkInsert(items);
+
+        progress.imported += rows.size() - failures.size();
+        failures.forEach((index, message) -> progress.fail(rows.get(index), message));
+    }
+
+    /**
+     * Running totals of one import; only the first maxReportedErrors errors are kept
+     */
+    private final class Progress {
+
+        private int totalRows;
+        private int imported;
+        private int failed;
+        private final List<MenuImportResponse.RowError> errors = new ArrayList<>();
+
+        void fail(MenuImportRow row, String message) {
+            failed++;
+            if (errors.size() < maxReportedErrors) {
+                String name = row.getRequest() != null ? row.getRequest().getName() : null;
+                errors.add(new MenuImportResponse.RowError(row.getLine(), name, message));
+            }
+        }
+    }
+}
@@ -1,8 +1,12 @@
 package com.foodexpress.restaurant.service.impl;
 
+import com.foodexpress.restaurant.cache.FullMenuCache;
+import com.foodexpress.restaurant.cache.MenuSnapshotCache;
 import com.foodexpress.restaurant.dto.request.MenuItemRequest;
 import com.foodexpress.restaurant.dto.response.FullMenuResponse;
+import com.foodexpress.restaurant.dto.response.MenuItemPriceResponse;
 import com.foodexpress.restaurant.dto.response.MenuItemResponse;
+import com.foodexpress.restaurant.dto.response.MenuSnapshotResponse;
 import com.foodexpress.restaurant.entity.MenuCategory;
 import com.foodexpress.restaurant.entity.MenuItem;
 import com.foodexpress.restaurant.entity.Restaurant;
@@ -13,13 +17,18 @@ import com.foodexpress.restaurant.repository.MenuCategoryRepository;
 import com.foodexpress.restaurant.repository.MenuItemRepository;
 import com.foodexpress.restaurant.repository.RestaurantRepository;
 import com.foodexpress.restaurant.service.MenuItemService;
+import com.foodexpress.restaurant.service.MenuVersionService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -30,6 +39,9 @@ public class MenuItemServiceImpl implements MenuItemService {
     private final MenuItemRepository menuItemRepository;
     private final RestaurantRepository restaurantRepository;
     private final MenuCategoryRepository menuCategoryRepository;
+    private final MenuVersionService menuVersionService;
+    private final FullMenuCache fullMenuCache;
+    private final MenuSnapshotCache menuSnapshotCache;
 
     @Override
     public MenuItemResponse createMenuItem(String restaurantId, MenuItemRequest request) {
@@ -49,26 +61,10 @@ public class MenuItemServiceImpl implements MenuItemService {
         }
 
         // Create menu item
-        MenuItem menuItem = MenuItem.builder()
-                .restaurantId(restaurantId)
-                .categoryId(category.getId()) // Use ID for reference in Mongo
-                .name(request.getName())
-                .description(request.getDescription())
-                .price(request.getPrice())
-                .discountedPrice(request.getDiscountedPrice())
-                .dietaryType(request.getDietaryType())
-                .spiceLevel(request.getSpiceLevel())
-                .isAvailable(request.getIsAvailable() != null ? request.getIsAvailable() : true)
-                .isBestseller(request.getIsBestseller() != null ? request.getIsBestseller() : false)
-                .imageUrl(request.getImageUrl())
-                .preparationTime(request.getPreparationTime())
-                .calories(request.getCalories())
-                .servesCount(request.getServesCount() != null ? request.getServesCount() : 1)
-                .isVegan(request.getIsVegan() != null ? request.getIsVegan() : false)
-                .isGlutenFree(request.getIsGlutenFree() != null ? request.getIsGlutenFree() : false)
-                .build();
+        MenuItem menuItem = toMenuItem(restaurantId, category.getId(), request);
 
         MenuItem savedItem = menuItemRepository.save(menuItem);
+        menuVersionService.bumpMenuVersion(restaurantId);
         log.info("Menu item created successfully with ID: {}", savedItem.getId());
 
         return mapToMenuItemResponse(savedItem);
@@ -84,6 +80,20 @@ public class MenuItemServiceImpl implements MenuItemService {
         return mapToMenuItemResponse(menuItem);
     }
 
+    @Override
+    public List<MenuItemPriceResponse> getMenuItemPrices(String restaurantId, List<String> itemIds) {
+        log.info("Fetching prices of {} menu items for restaurant ID: {}", itemIds.size(), restaurantId);
+
+        return menuItemRepository.findPricesByIdInAndRestaurantId(new LinkedHashSet<>(itemIds), restaurantId).stream()
+                .map(item -> MenuItemPriceResponse.builder()
+                        .id(item.getId())
+                        .name(item.getName())
+                        .price(item.getEffectivePrice())
+                        .isAvailable(item.getIsAvailable())
+                        .build())
+                .collect(Collectors.toList());
+    }
+
     @Override
     public MenuItemResponse updateMenuItem(String restaurantId, String itemId, MenuItemRequest request) {
         log.info("Updating menu item ID: {} for restaurant ID: {}", itemId, restaurantId);
@@ -147,6 +157,7 @@ public class MenuItemServiceImpl implements MenuItemService {
         }
 
         MenuItem updatedItem = menuItemRepository.save(menuItem);
+        menuVersionService.bumpMenuVersion(restaurantId);
         log.info("Menu item updated successfully with ID: {}", updatedItem.getId());
 
         return mapToMenuItemResponse(updatedItem);
@@ -160,6 +171,7 @@ public class MenuItemServiceImpl implements MenuItemService {
                 .orElseThrow(() -> new ResourceNotFoundException("Menu item not found with ID: " + itemId));
 
         menuItemRepository.delete(menuItem);
+        menuVersionService.bumpMenuVersion(restaurantId);
         log.info("Menu item deleted successfully with ID: {}", itemId);
     }
 
@@ -168,9 +180,7 @@ public class MenuItemServiceImpl implements MenuItemService {
         log.info("Fetching all menu items for restaurant ID: {}", restaurantId);
 
         List<MenuItem> menuItems = menuItemRepository.findByRestaurantIdAndIsAvailableTrue(restaurantId);
-        return menuItems.stream()
-                .map(this::mapToMenuItemResponse)
-                .collect(Collectors.toList());
+        return mapToMenuItemResponses(menuItems);
     }
 
     @Override
@@ -178,25 +188,31 @@ public class MenuItemServiceImpl implements MenuItemService {
         log.info("Fetching menu items for restaurant ID: {} and category ID: {}", restaurantId, categoryId);
 
         List<MenuItem> menuItems = menuItemRepository.findByRestaurantIdAndCategoryIdAndIsAvailableTrue(restaurantId, categoryId);
-        return menuItems.stream()
-                .map(this::mapToMenuItemResponse)
-                .collect(Collectors.toList());
+        return mapToMenuItemResponses(menuItems);
     }
 
     @Override
     public FullMenuResponse getFullMenu(String restaurantId) {
         log.info("Fetching full menu for restaurant ID: {}", restaurantId);
+        return fullMenuCache.get(restaurantId, () -> loadFullMenu(restaurantId));
+    }
 
+    private FullMenuResponse loadFullMenu(String restaurantId) {
         Restaurant restaurant = restaurantRepository.findByIdAndIsActiveTrue(restaurantId)
                 .orElseThrow(() -> new ResourceNotFoundException("Restaurant not found with ID: " + restaurantId));
 
+        // Two bulk reads (categories + items) grouped in memory, instead of one item query per category
         List<MenuCategory> categories = menuCategoryRepository.findByRestaurantIdAndIsActiveTrueOrderByDisplayOrderAsc(restaurantId);
+        Map<String, List<MenuItem>> itemsByCategory = menuItemRepository.findByRestaurantIdAndIsAvailableTrue(restaurantId)
+                .stream()
+                .filter(item -> item.getCategoryId() != null)
+                .collect(Collectors.groupingBy(MenuItem::getCategoryId));
 
         List<FullMenuResponse.MenuCategoryWithItems> categoryWithItemsList = categories.stream()
                 .map(category -> {
-                    List<MenuItem> items = menuItemRepository.findByCategoryIdAndIsAvailableTrue(category.getId());
-                    List<MenuItemResponse> itemResponses = items.stream()
-                            .map(this::mapToMenuItemResponse)
+                    List<MenuItemResponse> itemResponses = itemsByCategory.getOrDefault(category.getId(), List.of())
+                            .stream()
+                            .map(item -> mapToMenuItemResponse(item, category.getName()))
                             .collect(Collectors.toList());
 
                     return FullMenuResponse.MenuCategoryWithItems.builder()
@@ -212,18 +228,46 @@ public class MenuItemServiceImpl implements MenuItemService {
         return FullMenuResponse.builder()
                 .restaurantId(restaurantId)
                 .restaurantName(restaurant.getName())
+                .menuVersion(restaurant.getMenuVersion())
                 .categories(categoryWithItemsList)
                 .build();
     }
 
+    @Override
+    public MenuSnapshotResponse getMenuSnapshot(String restaurantId, Long knownVersion) {
+        log.info("Fetching menu snapshot for restaurant ID: {} (known version {})", restaurantId, knownVersion);
+
+        // Checkout validates prices against this, so ask MongoDB rather than trust a version a lost bus message may have left behind
+        long menuVersion = menuVersionService.getCommittedMenuVersion(restaurantId);
+        if (knownVersion != null && knownVersion == menuVersion) {
+            return MenuSnapshotResponse.unchanged(restaurantId, menuVersion);
+        }
+        return menuSnapshotCache.get(restaurantId, menuVersion, () -> loadMenuSnapshot(restaurantId));
+    }
+
+    private MenuSnapshotResponse loadMenuSnapshot(String restaurantId) {
+        // Read the version before the items: writes save items first, so the table is never older than its version
+        Restaurant restaurant = restaurantRepository.findByIdAndIsActiveTrue(restaurantId)
+                .orElseThrow(() -> new ResourceNotFoundException("Restaurant not found with ID: " + restaurantId));
+
+        Map<String, MenuSnapshotResponse.Item> items = menuItemRepository.findByRestaurantIdAndIsAvailableTrue(restaurantId)
+                .stream()
+                .collect(Collectors.toUnmodifiableMap(MenuItem::getId,
+                        item -> new MenuSnapshotResponse.Item(item.getName(), item.getEffectivePrice())));
+
+        return MenuSnapshotResponse.builder()
+                .restaurantId(restaurantId)
+                .menuVersion(restaurant.getMenuVersion())
+                .items(items)
+                .build();
+    }
+
     @Override
     public List<MenuItemResponse> searchMenuItems(String restaurantId, String name) {
         log.info("Searching menu items for restaurant ID: {} with name: {}", restaurantId, name);
 
-        List<MenuItem> menuItems = menuItemRepository.searchByName(restaurantId, name);
-        return menuItems.stream()
-                .map(this::mapToMenuItemResponse)
-                .collect(Collectors.toList());
+        List<MenuItem> menuItems = menuItemRepository.searchByText(restaurantId, name);
+        return mapToMenuItemResponses(menuItems);
     }
 
     @Override
@@ -231,9 +275,7 @@ public class MenuItemServiceImpl implements MenuItemService {
         log.info("Fetching menu items for restaurant ID: {} with dietary type: {}", restaurantId, dietaryType);
 
         List<MenuItem> menuItems = menuItemRepository.findByRestaurantIdAndDietaryTypeAndIsAvailableTrue(restaurantId, dietaryType);
-        return menuItems.stream()
-                .map(this::mapToMenuItemResponse)
-                .collect(Collectors.toList());
+        return mapToMenuItemResponses(menuItems);
     }
 
     @Override
@@ -241,9 +283,7 @@ public class MenuItemServiceImpl implements MenuItemService {
         log.info("Fetching bestseller items for restaurant ID: {}", restaurantId);
 
         List<MenuItem> menuItems = menuItemRepository.findByRestaurantIdAndIsBestsellerTrueAndIsAvailableTrue(restaurantId);
-        return menuItems.stream()
-                .map(this::mapToMenuItemResponse)
-                .collect(Collectors.toList());
+        return mapToMenuItemResponses(menuItems);
     }
 
     @Override
@@ -251,9 +291,7 @@ public class MenuItemServiceImpl implements MenuItemService {
         log.info("Fetching discounted items for restaurant ID: {}", restaurantId);
 
         List<MenuItem> menuItems = menuItemRepository.findDiscountedItems(restaurantId);
-        return menuItems.stream()
-                .map(this::mapToMenuItemResponse)
-                .collect(Collectors.toList());
+        return mapToMenuItemResponses(menuItems);
     }
 
     @Override
@@ -261,9 +299,7 @@ public class MenuItemServiceImpl implements MenuItemService {
         log.info("Fetching items for restaurant ID: {} within price range {} - {}", restaurantId, minPrice, maxPrice);
 
         List<MenuItem> menuItems = menuItemRepository.findByPriceRange(restaurantId, minPrice, maxPrice);
-        return menuItems.stream()
-                .map(this::mapToMenuItemResponse)
-                .collect(Collectors.toList());
+        return mapToMenuItemResponses(menuItems);
     }
 
     @Override
@@ -275,12 +311,37 @@ public class MenuItemServiceImpl implements MenuItemService {
 
         menuItem.setIsAvailable(!menuItem.getIsAvailable());
         MenuItem updatedItem = menuItemRepository.save(menuItem);
+        menuVersionService.bumpMenuVersion(restaurantId);
 
         log.info("Menu item availability toggled to: {}", updatedItem.getIsAvailable());
         return mapToMenuItemResponse(updatedItem);
     }
 
-    // Helper method
+    // Helper methods
+    /**
+     * New menu item from a create request; shared with the bulk import so both create items the same way
+     */
+    static MenuItem toMenuItem(String restaurantId, String categoryId, MenuItemRequest request) {
+        return MenuItem.builder()
+                .restaurantId(restaurantId)
+                .categoryId(categoryId) // Use ID for reference in Mongo
+                .name(request.getName())
+                .description(request.getDescription())
+                .price(request.getPrice())
+                .discountedPrice(request.getDiscountedPrice())
+                .dietaryType(request.getDietaryType())
+                .spiceLevel(request.getSpiceLevel())
+                .isAvailable(request.getIsAvailable() != null ? request.getIsAvailable() : true)
+                .isBestseller(request.getIsBestseller() != null ? request.getIsBestseller() : false)
+                .imageUrl(request.getImageUrl())
+                .preparationTime(request.getPreparationTime())
+                .calories(request.getCalories())
+                .servesCount(request.getServesCount() != null ? request.getServesCount() : 1)
+                .isVegan(request.getIsVegan() != null ? request.getIsVegan() : false)
+                .isGlutenFree(request.getIsGlutenFree() != null ? request.getIsGlutenFree() : false)
+                .build();
+    }
+
     private MenuItemResponse mapToMenuItemResponse(MenuItem menuItem) {
         // Resolve Category Name
         String categoryName = null;
@@ -291,6 +352,31 @@ public class MenuItemServiceImpl implements MenuItemService {
              }
         }
 
+        return mapToMenuItemResponse(menuItem, categoryName);
+    }
+
+    /**
+     * Map a list of items, resolving all their category names with a single $in query
+     */
+    private List<MenuItemResponse> mapToMenuItemResponses(List<MenuItem> menuItems) {
+        Set<String> categoryIds = menuItems.stream()
+                .map(MenuItem::getCategoryId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+
+        Map<String, String> categoryNames = categoryIds.isEmpty()
+                ? Map.of()
+                : menuCategoryRepository.findAllById(categoryIds).stream()
+                        .filter(category -> category.getName() != null)
+                        .collect(Collectors.toMap(MenuCategory::getId, MenuCategory::getName));
+
+        return menuItems.stream()
+                .map(item -> mapToMenuItemResponse(item,
+                        item.getCategoryId() != null ? categoryNames.get(item.getCategoryId()) : null))
+                .collect(Collectors.toList());
+    }
+
+    private MenuItemResponse mapToMenuItemResponse(MenuItem menuItem, String categoryName) {
         return MenuItemResponse.builder()
                 .id(menuItem.getId())
                 .name(menuItem.getName())
@@ -0,0 +1,93 @@
+package com.foodexpress.restaurant.service.impl;
+
+import com.foodexpress.restaurant.event.MenuChangedEvent;
+import com.foodexpress.restaurant.exception.ResourceNotFoundException;
+import com.foodexpress.restaurant.repository.RestaurantRepository;
+import com.foodexpress.restaurant.service.MenuVersionService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.bus.BusProperties;
+import org.springframework.cloud.bus.event.Destination;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+
+@Service
+@Slf4j
+public class MenuVersionServiceImpl implements MenuVersionService {
+
+    private final RestaurantRepository restaurantRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final BusProperties busProperties;
+    private final Destination.Factory destinationFactory;
+
+    // Latest menu version seen per restaurant, kept current by MenuChangedEvents
+    private final Cache<String, Long> latestVersions;
+
+    @Value("${spring.application.name}")
+    private String applicationName;
+
+    public MenuVersionServiceImpl(RestaurantRepository restaurantRepository,
+                                  ApplicationEventPublisher eventPublisher,
+                                  BusProperties busProperties,
+                                  Destination.Factory destinationFactory,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${app.cache.menu-version.max-size:10000}") long maxSize,
+                                  @Value("${app.cache.menu-version.expire-after-write:30s}") Duration expireAfterWrite) {
+        this.restaurantRepository = restaurantRepository;
+        this.eventPublisher = eventPublisher;
+        this.busProperties = busProperties;
+        this.destinationFactory = destinationFactory;
+        this.latestVersions = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(expireAfterWrite) // Re-read from MongoDB, so a lost bus message can't pin an old version
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, latestVersions, "menuVersion");
+    }
+
+    @Override
+    public long bumpMenuVersion(String restaurantId) {
+        long menuVersion = restaurantRepository.incrementMenuVersion(restaurantId);
+        log.debug("Menu version for restaurant ID: {} is now {}", restaurantId, menuVersion);
+
+        // Delivered to local listeners and, through the bus, to every other restaurant-service instance
+        eventPublisher.publishEvent(new MenuChangedEvent(this, busProperties.getId(),
+                destinationFactory.getDestination(applicationName + ":**"), restaurantId, menuVersion));
+        return menuVersion;
+    }
+
+    @Override
+    public long getMenuVersion(String restaurantId) {
+        Long known = latestVersions.getIfPresent(restaurantId);
+        if (known != null) {
+            return known;
+        }
+
+        long menuVersion = restaurantRepository.findMenuVersion(restaurantId)
+                .orElseThrow(() -> new ResourceNotFoundException("Restaurant not found with ID: " + restaurantId));
+        return latestVersions.asMap().merge(restaurantId, menuVersion, Math::max);
+    }
+
+    @Override
+    public long getCommittedMenuVersion(String restaurantId) {
+        long menuVersion = restaurantRepository.findMenuVersion(restaurantId)
+                .orElseThrow(() -> new ResourceNotFoundException("Restaurant not found with ID: " + restaurantId));
+        latestVersions.asMap().merge(restaurantId, menuVersion, Math::max);
+        return menuVersion;
+    }
+
+    /**
+     * Handles both locally published and bus-delivered menu changes
+     */
+    @EventListener
+    public void onMenuChanged(MenuChangedEvent event) {
+        latestVersions.asMap().merge(event.getRestaurantId(), event.getMenuVersion(), Math::max);
+    }
+}
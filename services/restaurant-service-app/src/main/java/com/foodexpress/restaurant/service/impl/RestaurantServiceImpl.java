@@ -1,27 +1,48 @@
 package com.foodexpress.restaurant.service.impl;
 
 import com.foodexpress.restaurant.dto.common.AddressDTO;
+import com.foodexpress.restaurant.dto.common.CursorPageResponse;
 import com.foodexpress.restaurant.dto.common.GeoLocationDTO;
 import com.foodexpress.restaurant.dto.common.PageResponse;
 import com.foodexpress.restaurant.dto.request.RestaurantRegistrationRequest;
 import com.foodexpress.restaurant.dto.request.RestaurantSearchRequest;
 import com.foodexpress.restaurant.dto.request.RestaurantUpdateRequest;
+import com.foodexpress.restaurant.dto.response.AutocompleteSuggestionResponse;
+import com.foodexpress.restaurant.dto.response.NearbyDishResponse;
 import com.foodexpress.restaurant.dto.response.RestaurantResponse;
+import com.foodexpress.restaurant.dto.response.RestaurantSearchResponse;
 import com.foodexpress.restaurant.dto.response.RestaurantSummaryResponse;
+import com.foodexpress.restaurant.entity.MenuItem;
 import com.foodexpress.restaurant.entity.Restaurant;
+import com.foodexpress.restaurant.exception.BadRequestException;
 import com.foodexpress.restaurant.exception.DuplicateResourceException;
 import com.foodexpress.restaurant.exception.ResourceNotFoundException;
+import com.foodexpress.restaurant.exception.ServiceUnavailableException;
+import com.foodexpress.restaurant.repository.DishSearchRestaurant;
+import com.foodexpress.restaurant.repository.KeysetWindow;
+import com.foodexpress.restaurant.repository.MenuItemRepository;
 import com.foodexpress.restaurant.repository.RestaurantRepository;
+import com.foodexpress.restaurant.repository.RestaurantRepositoryCustom;
+import com.foodexpress.restaurant.repository.RestaurantSearchResult;
+import com.foodexpress.restaurant.search.AutocompleteIndex;
+import com.foodexpress.restaurant.search.SearchTokens;
+import com.foodexpress.restaurant.service.MenuVersionService;
 import com.foodexpress.restaurant.service.RestaurantService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.geo.GeoResult;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -29,7 +50,31 @@ import java.util.stream.Collectors;
 @Slf4j
 public class RestaurantServiceImpl implements RestaurantService {
 
+    private static final int MAX_PAGE_SIZE = 100;
+
+    private static final int MAX_SUGGESTIONS = 20;
+
+    /** Dish search fan-out: closest restaurants considered */
+    private static final int MAX_DISH_RESTAURANTS = 200;
+
+    private static final double BESTSELLER_BOOST = 1.25;
+
+    /**
+     * Sort options accepted by the search endpoint, mapped to Restaurant properties
+     */
+    private static final Map<String, String> SEARCH_SORT_FIELDS = Map.of(
+            "rating", "averageRating",
+            "averageRating", "averageRating",
+            "totalRatings", "totalRatings",
+            "name", "name",
+            "deliveryFee", "deliveryFee",
+            "createdAt", "createdAt",
+            "relevance", RestaurantRepositoryCustom.RELEVANCE);
+
     private final RestaurantRepository restaurantRepository;
+    private final MenuItemRepository menuItemRepository;
+    private final MenuVersionService menuVersionService;
+    private final AutocompleteIndex autocompleteIndex;
 
     @Override
     public RestaurantResponse registerRestaurant(RestaurantRegistrationRequest request) {
@@ -58,8 +103,6 @@ public class RestaurantServiceImpl implements RestaurantService {
                 .city(address.getCity())
                 .state(address.getState())
                 .pincode(address.getPincode())
-                .latitude(BigDecimal.valueOf(request.getLocation().getLatitude()))
-                .longitude(BigDecimal.valueOf(request.getLocation().getLongitude()))
                 .phone(request.getPhoneNumber())
                 .email(request.getEmail())
                 .openingTime(request.getOpeningTime())
@@ -72,8 +115,9 @@ public class RestaurantServiceImpl implements RestaurantService {
                 .isAcceptingOrders(false) // Need verification first
                 .build();
 
-        // Set cuisine types
-        restaurant.setCuisineTypesList(request.getCuisineTypes());
+        // Set cuisine types and coordinates
+        restaurant.setCuisineTypes(request.getCuisineTypes());
+        restaurant.setCoordinates(request.getLocation().getLatitude(), request.getLocation().getLongitude());
 
         // Save restaurant
         Restaurant savedRestaurant = restaurantRepository.save(restaurant);
@@ -118,11 +162,10 @@ public class RestaurantServiceImpl implements RestaurantService {
             restaurant.setPincode(address.getPincode());
         }
         if (request.getLocation() != null) {
-            restaurant.setLatitude(BigDecimal.valueOf(request.getLocation().getLatitude()));
-            restaurant.setLongitude(BigDecimal.valueOf(request.getLocation().getLongitude()));
+            restaurant.setCoordinates(request.getLocation().getLatitude(), request.getLocation().getLongitude());
         }
         if (request.getCuisineTypes() != null) {
-            restaurant.setCuisineTypesList(request.getCuisineTypes());
+            restaurant.setCuisineTypes(request.getCuisineTypes());
         }
         if (request.getPhoneNumber() != null) {
             restaurant.setPhone(request.getPhoneNumber());
@@ -153,6 +196,7 @@ public class RestaurantServiceImpl implements RestaurantService {
         }
 
         Restaurant updatedRestaurant = restaurantRepository.save(restaurant);
+        menuVersionService.bumpMenuVersion(id);
         log.info("Restaurant updated successfully with ID: {}", updatedRestaurant.getId());
 
         return mapToRestaurantResponse(updatedRestaurant);
@@ -168,6 +212,7 @@ public class RestaurantServiceImpl implements RestaurantService {
         restaurant.setIsActive(false);
         restaurant.setIsAcceptingOrders(false);
         restaurantRepository.save(restaurant);
+        menuVersionService.bumpMenuVersion(id);
 
         log.info("Restaurant soft deleted successfully with ID: {}", id);
     }
@@ -182,82 +227,148 @@ public class RestaurantServiceImpl implements RestaurantService {
     }
 
     @Override
-    public PageResponse<RestaurantSummaryResponse> searchRestaurants(RestaurantSearchRequest request) {
+    public RestaurantSearchResponse searchRestaurants(RestaurantSearchRequest request) {
         log.info("Searching restaurants with filters");
 
         // Create pageable
         int page = request.getPage() != null ? request.getPage() : 0;
         int size = request.getSize() != null ? request.getSize() : 20;
-        String sortBy = request.getSortBy() != null ? request.getSortBy() : "averageRating";
+        boolean hasQuery = request.getName() != null && !request.getName().isBlank();
+        String sortBy = request.getSortBy() != null ? request.getSortBy() : (hasQuery ? "relevance" : "rating");
         String direction = request.getSortDirection() != null ? request.getSortDirection() : "desc";
 
-        Sort sort = direction.equalsIgnoreCase("asc") ? Sort.by(sortBy).ascending() : Sort.by(sortBy).descending();
-        Pageable pageable = PageRequest.of(page, size, sort);
+        if (page < 0 || size < 1 || size > MAX_PAGE_SIZE) {
+            throw new BadRequestException("Page must be >= 0 and size between 1 and " + MAX_PAGE_SIZE);
+        }
 
-        // For now, return all active restaurants (implement filtering later)
-        List<Restaurant> restaurants = restaurantRepository.findByIsVerifiedTrueAndIsActiveTrue();
+        String sortField = SEARCH_SORT_FIELDS.get(sortBy);
+        if (sortField == null) {
+            throw new BadRequestException("Unsupported sort field: " + sortBy + ". Allowed: " + SEARCH_SORT_FIELDS.keySet());
+        }
+        if (sortField.equals(RestaurantRepositoryCustom.RELEVANCE) && !hasQuery) {
+            throw new BadRequestException("Sorting by relevance requires a name to search for");
+        }
 
-        // Apply filters manually (this is simplified - in production use Specifications or MongoTemplate criteria)
-        List<Restaurant> filtered = restaurants.stream()
-                .filter(r -> request.getName() == null || r.getName().toLowerCase().contains(request.getName().toLowerCase()))
-                .filter(r -> request.getCity() == null || r.getCity().equalsIgnoreCase(request.getCity()))
-                .filter(r -> request.getAcceptingOrders() == null || r.getIsAcceptingOrders().equals(request.getAcceptingOrders()))
-                .collect(Collectors.toList());
+        // Sort by id as a tie-breaker so pages stay stable when many restaurants share a rating
+        Sort.Direction sortDirection = direction.equalsIgnoreCase("asc") ? Sort.Direction.ASC : Sort.Direction.DESC;
+        Sort sort = Sort.by(sortDirection, sortField).and(Sort.by(sortDirection, "id"));
+        Pageable pageable = PageRequest.of(page, size, sort);
 
-        List<RestaurantSummaryResponse> content = filtered.stream()
-                .map(this::mapToRestaurantSummaryResponse)
-                .collect(Collectors.toList());
+        // Filtering, sorting, paging and counting all happen in MongoDB
+        if (request.getCursor() != null) {
+            if (Boolean.TRUE.equals(request.getIncludeFacets())) {
+                throw new BadRequestException("Facets are only returned with offset pages, not with a cursor");
+            }
+            KeysetWindow<Restaurant> window = restaurantRepository.searchAfter(request, sort, size);
+            return RestaurantSearchResponse.builder()
+                    .window(toCursorPage(window, size, this::mapToRestaurantSummaryResponse))
+                    .build();
+        }
 
-        return PageResponse.<RestaurantSummaryResponse>builder()
-                .content(content)
-                .pageNumber(page)
-                .pageSize(size)
-                .totalElements(content.size())
-                .totalPages((int) Math.ceil((double) content.size() / size))
-                .first(page == 0)
-                .last(page >= (int) Math.ceil((double) content.size() / size) - 1)
+        if (Boolean.TRUE.equals(request.getIncludeFacets())) {
+            RestaurantSearchResult result = restaurantRepository.searchWithFacets(request, pageable);
+            return RestaurantSearchResponse.builder()
+                    .page(toPageResponse(result.getPage(), sort))
+                    .facets(result.getFacets())
+                    .build();
+        }
+
+        return RestaurantSearchResponse.builder()
+                .page(toPageResponse(restaurantRepository.search(request, pageable), sort))
                 .build();
     }
 
     @Override
     public List<RestaurantSummaryResponse> getRestaurantsByCity(String city) {
+        log.info("Fetching all restaurants in city: {}", city);
+
+        // Walks the cursor pages, so every query stays a bounded range seek however big the city
+        List<RestaurantSummaryResponse> restaurants = new ArrayList<>();
+        String cursor = null;
+        do {
+            KeysetWindow<Restaurant> window = restaurantRepository.findSummariesByCity(city, cursor, MAX_PAGE_SIZE, false);
+            window.getContent().forEach(restaurant -> restaurants.add(mapToRestaurantSummaryResponse(restaurant)));
+            cursor = window.getNextCursor();
+        } while (cursor != null);
+        return restaurants;
+    }
+
+    @Override
+    public CursorPageResponse<RestaurantSummaryResponse> getRestaurantsByCity(String city, String cursor, Integer limit,
+                                                                             Boolean includeTotal) {
         log.info("Fetching restaurants in city: {}", city);
-        List<Restaurant> restaurants = restaurantRepository.findByCityAndIsVerifiedTrueAndIsActiveTrue(city);
-        return restaurants.stream()
-                .map(this::mapToRestaurantSummaryResponse)
-                .collect(Collectors.toList());
+
+        if (limit == null || limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new BadRequestException("Limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+
+        KeysetWindow<Restaurant> window = restaurantRepository.findSummariesByCity(city, cursor, limit,
+                Boolean.TRUE.equals(includeTotal));
+        return toCursorPage(window, limit, this::mapToRestaurantSummaryResponse);
     }
 
     @Override
-    public List<RestaurantSummaryResponse> getNearbyRestaurants(Double latitude, Double longitude, Double radiusKm) {
+    public CursorPageResponse<RestaurantSummaryResponse> getNearbyRestaurants(Double latitude, Double longitude, Double radiusKm,
+                                                                             Integer limit, String cursor, Boolean includeTotal) {
         log.info("Fetching nearby restaurants at {}, {} within {} km", latitude, longitude, radiusKm);
 
-        // Simple bounding box calculation
-        // 1 degree latitude ≈ 111 km
-        // 1 degree longitude ≈ 111 km * cos(latitude)
-        double latRange = radiusKm / 111.0;
-        double lngRange = radiusKm / (111.0 * Math.cos(Math.toRadians(latitude)));
+        if (limit == null || limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new BadRequestException("Limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+
+        // $geoNear computes distances, applies the radius, sorts and limits in MongoDB
+        KeysetWindow<GeoResult<Restaurant>> window = restaurantRepository.findNearby(latitude, longitude, radiusKm,
+                cursor, limit, Boolean.TRUE.equals(includeTotal));
 
-        double minLat = latitude - latRange;
-        double maxLat = latitude + latRange;
-        double minLng = longitude - lngRange;
-        double maxLng = longitude + lngRange;
+        return toCursorPage(window, limit, result -> {
+            RestaurantSummaryResponse response = mapToRestaurantSummaryResponse(result.getContent());
+            response.setDistanceInKm(result.getDistance().getValue());
+            return response;
+        });
+    }
 
-        List<Restaurant> restaurants = restaurantRepository.findNearby(minLat, maxLat, minLng, maxLng);
+    @Override
+    public List<NearbyDishResponse> searchNearbyDishes(String query, Double latitude, Double longitude,
+                                                       Double radiusKm, Integer limit) {
+        log.info("Searching dishes matching '{}' at {}, {} within {} km", query, latitude, longitude, radiusKm);
 
-        return restaurants.stream()
-                .map(r -> {
-                    RestaurantSummaryResponse response = mapToRestaurantSummaryResponse(r);
-                    // Calculate distance
-                    double distance = calculateDistance(latitude, longitude,
-                            r.getLatitude().doubleValue(), r.getLongitude().doubleValue());
-                    response.setDistanceInKm(distance);
-                    return response;
-                })
-                .sorted((r1, r2) -> Double.compare(r1.getDistanceInKm(), r2.getDistanceInKm()))
+        if (limit == null || limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new BadRequestException("Limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        if (SearchTokens.prefixTerms(query).isEmpty()) {
+            throw new BadRequestException("Query must contain a word of at least " + SearchTokens.MIN_PREFIX_LENGTH + " characters");
+        }
+
+        // One $geoNear for the closest restaurants, then one indexed lookup of matching dishes in just those,
+        // ranked by rating, bestseller boost and distance in MongoDB before the limit
+        Map<String, GeoResult<Restaurant>> nearby = new HashMap<>();
+        List<DishSearchRestaurant> candidates = new ArrayList<>();
+        for (GeoResult<Restaurant> result : restaurantRepository.findNearby(latitude, longitude, radiusKm, MAX_DISH_RESTAURANTS)) {
+            Restaurant restaurant = result.getContent();
+            nearby.put(restaurant.getId(), result);
+            candidates.add(new DishSearchRestaurant(restaurant.getId(), result.getDistance().getValue(),
+                    restaurant.getAverageRating() != null ? restaurant.getAverageRating().doubleValue() : 0));
+        }
+
+        return menuItemRepository.findTopByNamePrefixes(candidates, query, BESTSELLER_BOOST, limit).stream()
+                .map(item -> mapToNearbyDishResponse(item, nearby.get(item.getRestaurantId())))
                 .collect(Collectors.toList());
     }
 
+    @Override
+    public List<AutocompleteSuggestionResponse> autocomplete(String query, Integer limit) {
+        if (limit == null || limit < 1 || limit > MAX_SUGGESTIONS) {
+            throw new BadRequestException("Limit must be between 1 and " + MAX_SUGGESTIONS);
+        }
+
+        // Served entirely from memory; the index follows restaurant and menu writes through MenuChangedEvents
+        if (!autocompleteIndex.isReady()) {
+            // Lets clients tell an index that is still being built apart from an empty answer
+            throw new ServiceUnavailableException("Autocomplete is not available yet, please retry shortly");
+        }
+        return autocompleteIndex.suggest(query, limit);
+    }
+
     @Override
     public RestaurantResponse verifyRestaurant(String id) {
         log.info("Verifying restaurant with ID: {}", id);
@@ -268,6 +379,7 @@ public class RestaurantServiceImpl implements RestaurantService {
         restaurant.setIsVerified(true);
         restaurant.setIsAcceptingOrders(true);
         Restaurant verifiedRestaurant = restaurantRepository.save(restaurant);
+        menuVersionService.bumpMenuVersion(id);
 
         log.info("Restaurant verified successfully with ID: {}", id);
         return mapToRestaurantResponse(verifiedRestaurant);
@@ -282,6 +394,7 @@ public class RestaurantServiceImpl implements RestaurantService {
 
         restaurant.setIsAcceptingOrders(!restaurant.getIsAcceptingOrders());
         Restaurant updatedRestaurant = restaurantRepository.save(restaurant);
+        menuVersionService.bumpMenuVersion(id);
 
         log.info("Restaurant accepting orders status toggled to: {}", updatedRestaurant.getIsAcceptingOrders());
         return mapToRestaurantResponse(updatedRestaurant);
@@ -306,7 +419,7 @@ public class RestaurantServiceImpl implements RestaurantService {
                         .latitude(restaurant.getLatitude().doubleValue())
                         .longitude(restaurant.getLongitude().doubleValue())
                         .build())
-                .cuisineTypes(restaurant.getCuisineTypesList())
+                .cuisineTypes(restaurant.getCuisineTypes())
                 .openingTime(restaurant.getOpeningTime())
                 .closingTime(restaurant.getClosingTime())
                 .rating(restaurant.getAverageRating())
@@ -318,12 +431,59 @@ public class RestaurantServiceImpl implements RestaurantService {
                 .build();
     }
 
+    private PageResponse<RestaurantSummaryResponse> toPageResponse(Page<Restaurant> page, Sort sort) {
+        PageResponse<RestaurantSummaryResponse> response = PageResponse.of(page.map(this::mapToRestaurantSummaryResponse));
+        // Lets infinite scroll continue with cursor pages after the first offset page
+        if (page.hasNext() && page.hasContent()) {
+            List<Restaurant> content = page.getContent();
+            response.setNextCursor(restaurantRepository.cursorAfter(content.get(content.size() - 1), sort));
+        }
+        return response;
+    }
+
+    private <T> CursorPageResponse<RestaurantSummaryResponse> toCursorPage(
+            KeysetWindow<T> window, int size, Function<T, RestaurantSummaryResponse> mapper) {
+        return CursorPageResponse.<RestaurantSummaryResponse>builder()
+                .content(window.getContent().stream().map(mapper).collect(Collectors.toList()))
+                .pageSize(size)
+                .last(window.getNextCursor() == null)
+                .nextCursor(window.getNextCursor())
+                .totalElements(window.getTotalElements())
+                .build();
+    }
+
+    /**
+     * Better rated dishes rank higher, bestsellers get a boost, and the score halves at 1 km
+     * Dishes without ratings of their own are rated by their restaurant
+     */
+    private NearbyDishResponse mapToNearbyDishResponse(MenuItem item, GeoResult<Restaurant> restaurantResult) {
+        Restaurant restaurant = restaurantResult.getContent();
+        boolean rated = item.getTotalRatings() != null && item.getTotalRatings() > 0;
+        BigDecimal rating = rated ? item.getAverageRating() : restaurant.getAverageRating();
+
+        return NearbyDishResponse.builder()
+                .menuItemId(item.getId())
+                .name(item.getName())
+                .description(item.getDescription())
+                .price(item.getPrice())
+                .discountedPrice(item.getDiscountedPrice())
+                .dietaryType(item.getDietaryType())
+                .isBestseller(item.getIsBestseller())
+                .imageUrl(item.getImageUrl())
+                .rating(rating)
+                .restaurantId(restaurant.getId())
+                .restaurantName(restaurant.getName())
+                .restaurantRating(restaurant.getAverageRating())
+                .distanceInKm(restaurantResult.getDistance().getValue())
+                .build();
+    }
+
     private RestaurantSummaryResponse mapToRestaurantSummaryResponse(Restaurant restaurant) {
         return RestaurantSummaryResponse.builder()
                 .id(restaurant.getId())
                 .name(restaurant.getName())
                 .description(restaurant.getDescription())
-                .cuisineTypes(restaurant.getCuisineTypesList())
+                .cuisineTypes(restaurant.getCuisineTypes())
                 .rating(restaurant.getAverageRating())
                 .totalRatings(restaurant.getTotalRatings())
                 .acceptingOrders(restaurant.getIsAcceptingOrders())
@@ -331,16 +491,4 @@ public class RestaurantServiceImpl implements RestaurantService {
                 .city(restaurant.getCity())
                 .build();
     }
-
-    private double calculateDistance(double lat1, double lon1, double lat2, double lon2) {
-        // Haversine formula
-        final int R = 6371; // Radius of the earth in km
-        double latDistance = Math.toRadians(lat2 - lat1);
-        double lonDistance = Math.toRadians(lon2 - lon1);
-        double a = Math.sin(latDistance / 2) * Math.sin(latDistance / 2)
-                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
-                * Math.sin(lonDistance / 2) * Math.sin(lonDistance / 2);
-        double c = 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
-        return R * c;
-    }
 }
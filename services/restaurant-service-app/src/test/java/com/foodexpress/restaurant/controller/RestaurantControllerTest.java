@@ -0,0 +1,142 @@
+package com.foodexpress.restaurant.controller;
+
+import com.foodexpress.restaurant.dto.common.CursorPageResponse;
+import com.foodexpress.restaurant.dto.response.RestaurantResponse;
+import com.foodexpress.restaurant.dto.response.RestaurantSummaryResponse;
+import com.foodexpress.restaurant.event.MenuChangedEvent;
+import com.foodexpress.restaurant.repository.RestaurantRepository;
+import com.foodexpress.restaurant.service.RestaurantService;
+import com.foodexpress.restaurant.service.impl.MenuVersionServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cloud.bus.BusProperties;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Conditional GETs of a restaurant against the menu version ETag, and the response shapes of the listings
+ */
+@ExtendWith(MockitoExtension.class)
+class RestaurantControllerTest {
+
+    private static final String RESTAURANT_ID = "r1";
+
+    @Mock
+    private RestaurantService restaurantService;
+
+    @Mock
+    private RestaurantRepository restaurantRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Test
+    void matchingIfNoneMatchIsNotModified() throws Exception {
+        when(restaurantRepository.findMenuVersion(RESTAURANT_ID)).thenReturn(Optional.of(3L));
+        MockMvc mockMvc = mockMvc(menuVersionService(Duration.ofMinutes(5)));
+
+        mockMvc.perform(get("/api/v1/restaurants/{id}", RESTAURANT_ID).header(HttpHeaders.IF_NONE_MATCH, "\"v3\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"v3\""));
+        verify(restaurantService, never()).getRestaurantById(RESTAURANT_ID);
+    }
+
+    @Test
+    void mismatchedIfNoneMatchGetsTheRestaurant() throws Exception {
+        when(restaurantRepository.findMenuVersion(RESTAURANT_ID)).thenReturn(Optional.of(3L));
+        when(restaurantService.getRestaurantById(RESTAURANT_ID)).thenReturn(restaurant());
+        MockMvc mockMvc = mockMvc(menuVersionService(Duration.ofMinutes(5)));
+
+        mockMvc.perform(get("/api/v1/restaurants/{id}", RESTAURANT_ID).header(HttpHeaders.IF_NONE_MATCH, "\"v2\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"v3\""));
+    }
+
+    @Test
+    void aBumpInvalidatesTheOldETag() throws Exception {
+        when(restaurantRepository.findMenuVersion(RESTAURANT_ID)).thenReturn(Optional.of(3L));
+        when(restaurantRepository.incrementMenuVersion(RESTAURANT_ID)).thenReturn(4L);
+        when(restaurantService.getRestaurantById(RESTAURANT_ID)).thenReturn(restaurant());
+        MenuVersionServiceImpl menuVersionService = menuVersionService(Duration.ofMinutes(5));
+        // Local delivery of the bus event, as the application context would do
+        doAnswer(invocation -> {
+            menuVersionService.onMenuChanged(invocation.getArgument(0));
+            return null;
+        }).when(eventPublisher).publishEvent(any(MenuChangedEvent.class));
+        MockMvc mockMvc = mockMvc(menuVersionService);
+
+        mockMvc.perform(get("/api/v1/restaurants/{id}", RESTAURANT_ID).header(HttpHeaders.IF_NONE_MATCH, "\"v3\""))
+                .andExpect(status().isNotModified());
+
+        menuVersionService.bumpMenuVersion(RESTAURANT_ID);
+
+        mockMvc.perform(get("/api/v1/restaurants/{id}", RESTAURANT_ID).header(HttpHeaders.IF_NONE_MATCH, "\"v3\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"v4\""));
+    }
+
+    @Test
+    void aLostBusMessageOnlyLastsUntilTheVersionIsReRead() throws Exception {
+        when(restaurantRepository.findMenuVersion(RESTAURANT_ID)).thenReturn(Optional.of(3L), Optional.of(4L));
+        when(restaurantService.getRestaurantById(RESTAURANT_ID)).thenReturn(restaurant());
+        // Expires at once, so the second request re-reads the version another instance bumped
+        MockMvc mockMvc = mockMvc(menuVersionService(Duration.ZERO));
+
+        mockMvc.perform(get("/api/v1/restaurants/{id}", RESTAURANT_ID).header(HttpHeaders.IF_NONE_MATCH, "\"v3\""))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get("/api/v1/restaurants/{id}", RESTAURANT_ID).header(HttpHeaders.IF_NONE_MATCH, "\"v3\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"v4\""));
+    }
+
+    @Test
+    void nearbyKeepsItsListShapeUnlessPagedIsAsked() throws Exception {
+        CursorPageResponse<RestaurantSummaryResponse> page = CursorPageResponse.<RestaurantSummaryResponse>builder()
+                .content(List.of(RestaurantSummaryResponse.builder().id(RESTAURANT_ID).build()))
+                .pageSize(1)
+                .nextCursor("next")
+                .build();
+        when(restaurantService.getNearbyRestaurants(12.9, 77.6, 5.0, 1, null, false)).thenReturn(page);
+        MockMvc mockMvc = mockMvc(menuVersionService(Duration.ofMinutes(5)));
+
+        mockMvc.perform(get("/api/v1/restaurants/nearby?latitude=12.9&longitude=77.6&limit=1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data[0].id").value(RESTAURANT_ID));
+        mockMvc.perform(get("/api/v1/restaurants/nearby?latitude=12.9&longitude=77.6&limit=1&paged=true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.content[0].id").value(RESTAURANT_ID))
+                .andExpect(jsonPath("$.data.nextCursor").value("next"));
+    }
+
+    private MenuVersionServiceImpl menuVersionService(Duration expireAfterWrite) {
+        return new MenuVersionServiceImpl(restaurantRepository, eventPublisher, new BusProperties(),
+                destination -> () -> destination, new SimpleMeterRegistry(), 100, expireAfterWrite);
+    }
+
+    private MockMvc mockMvc(MenuVersionServiceImpl menuVersionService) {
+        return MockMvcBuilders.standaloneSetup(new RestaurantController(restaurantService, menuVersionService)).build();
+    }
+
+    private static RestaurantResponse restaurant() {
+        return RestaurantResponse.builder().id(RESTAURANT_ID).name("Test Kitchen").build();
+    }
+}
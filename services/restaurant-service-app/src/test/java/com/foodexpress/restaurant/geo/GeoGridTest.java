@@ -0,0 +1,140 @@
+package com.foodexpress.restaurant.geo;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class GeoGridTest {
+
+    @Test
+    void nearestAndCountMatchBruteForce() {
+        Random random = new Random(7);
+        GeoGrid grid = new GeoGrid(0.02);
+        List<GeoEntry> entries = new ArrayList<>();
+        // A city, a high-latitude town and a cluster straddling the antimeridian
+        double[][] centers = {{18.52, 73.85}, {69.65, 18.96}, {-16.5, 179.95}};
+        for (int i = 0; i < 3000; i++) {
+            double[] center = centers[i % centers.length];
+            GeoEntry entry = new GeoEntry("r" + i,
+                    center[0] + (random.nextDouble() - 0.5) * 0.3,
+                    wrap(center[1] + (random.nextDouble() - 0.5) * 0.3),
+                    random.nextDouble() * 5, random.nextBoolean());
+            entries.add(entry);
+            grid.put(entry);
+        }
+
+        for (double[] center : centers) {
+            for (double radiusKm : new double[]{0.5, 3, 5, 12}) {
+                List<GeoHit> expected = bruteForce(entries, center[0], center[1], radiusKm);
+
+                assertEquals(expected.size(), grid.count(center[0], center[1], radiusKm));
+                assertEquals(ids(expected.subList(0, Math.min(25, expected.size()))),
+                        ids(grid.nearest(center[0], center[1], radiusKm, GeoGrid.HitFilter.ALL, 25)));
+                assertEquals(ids(expected.stream().filter(hit -> hit.getEntry().isAcceptingOrders()).limit(10).toList()),
+                        ids(grid.nearest(center[0], center[1], radiusKm, (entry, distanceKm) -> entry.isAcceptingOrders(), 10)));
+            }
+        }
+    }
+
+    @Test
+    void putMovesAndRemoveDropsEntries() {
+        GeoGrid grid = new GeoGrid(0.02);
+        grid.put(new GeoEntry("r1", 18.52, 73.85, 4.2, true));
+        grid.put(new GeoEntry("r2", 18.53, 73.86, 3.9, true));
+
+        grid.put(new GeoEntry("r1", 19.07, 72.88, 4.2, false));
+
+        assertEquals(List.of("r2"), ids(grid.nearest(18.52, 73.85, 5, GeoGrid.HitFilter.ALL, 10)));
+        assertEquals(List.of("r1"), ids(grid.nearest(19.07, 72.88, 5, GeoGrid.HitFilter.ALL, 10)));
+        assertEquals(false, grid.nearest(19.07, 72.88, 5, GeoGrid.HitFilter.ALL, 10).get(0).getEntry().isAcceptingOrders());
+
+        grid.remove("r1");
+        grid.remove("r1");
+        assertEquals(1, grid.size());
+        assertEquals(0, grid.count(19.07, 72.88, 5));
+    }
+
+    @Test
+    void readersSeeEveryEntryExactlyOnceWhileItMoves() throws InterruptedException {
+        GeoGrid grid = new GeoGrid(0.02);
+        for (int i = 0; i < 50; i++) {
+            grid.put(new GeoEntry("r" + i, 18.5 + i * 0.001, 73.8, 4, true));
+        }
+
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicReference<String> failure = new AtomicReference<>();
+        Thread reader = new Thread(() -> {
+            while (running.get()) {
+                List<GeoHit> hits = grid.nearest(18.5, 73.8, 20, GeoGrid.HitFilter.ALL, 100);
+                Set<String> distinct = new HashSet<>(ids(hits));
+                if (hits.size() != 50 || distinct.size() != 50) {
+                    failure.compareAndSet(null, hits.size() + " hits, " + distinct.size() + " distinct");
+                }
+            }
+        });
+        reader.start();
+
+        // Hop r0 back and forth across cell boundaries while the reader queries
+        for (int i = 0; i < 20_000; i++) {
+            grid.put(new GeoEntry("r0", 18.5 + (i % 7) * 0.013, 73.8 + (i % 5) * 0.013, 4, true));
+        }
+        running.set(false);
+        reader.join();
+
+        assertNull(failure.get());
+    }
+
+    @Test
+    void vectorAndScalarKernelsAgree() {
+        Random random = new Random(11);
+        // Odd length, so the vector loop leaves a scalar tail
+        int length = 1001;
+        double[] latitudes = new double[length];
+        double[] longitudes = new double[length];
+        double[] cosLatitudes = new double[length];
+        for (int i = 0; i < length; i++) {
+            latitudes[i] = Math.toRadians((random.nextDouble() - 0.5) * 170);
+            longitudes[i] = Math.toRadians((random.nextDouble() - 0.5) * 360);
+            cosLatitudes[i] = Math.cos(latitudes[i]);
+        }
+        double latitude = Math.toRadians(18.52);
+        double longitude = Math.toRadians(73.85);
+
+        double[] scalar = new double[length];
+        double[] vector = new double[length];
+        HaversineBatch.scalarDistancesKm(latitude, longitude, latitudes, longitudes, cosLatitudes, 0, length, scalar);
+        VectorHaversine.distancesKm(latitude, longitude, latitudes, longitudes, cosLatitudes, length, vector);
+
+        for (int i = 0; i < length; i++) {
+            assertEquals(scalar[i], vector[i], 1e-9);
+            assertEquals(GeoGrid.distanceKm(18.52, 73.85, Math.toDegrees(latitudes[i]), Math.toDegrees(longitudes[i])),
+                    scalar[i], 1e-6);
+        }
+    }
+
+    private static List<GeoHit> bruteForce(List<GeoEntry> entries, double latitude, double longitude, double radiusKm) {
+        return entries.stream()
+                .map(entry -> new GeoHit(entry, GeoGrid.distanceKm(latitude, longitude, entry.getLatitude(), entry.getLongitude())))
+                .filter(hit -> hit.getDistanceKm() <= radiusKm)
+                .sorted(GeoHit.BY_DISTANCE)
+                .toList();
+    }
+
+    private static double wrap(double longitude) {
+        return longitude > 180 ? longitude - 360 : longitude;
+    }
+
+    private static List<String> ids(List<GeoHit> hits) {
+        return hits.stream().map(hit -> hit.getEntry().getRestaurantId()).toList();
+    }
+}
@@ -0,0 +1,54 @@
+package com.foodexpress.restaurant.repository;
+
+import com.foodexpress.restaurant.exception.BadRequestException;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class KeysetCursorTest {
+
+    private static final String NEARBY = "distance:ASC";
+    private static final Map<String, Class<?>> NEARBY_FIELDS = Map.of("distance", Double.class, "ids", List.class);
+
+    @Test
+    void aCursorRoundTripsWithItsPosition() {
+        String cursor = new KeysetCursor(NEARBY, new Document("distance", 1.5).append("ids", List.of("r1"))).encode();
+
+        KeysetCursor decoded = KeysetCursor.decode(cursor, NEARBY, NEARBY_FIELDS);
+
+        assertEquals(1.5, decoded.getPosition().getDouble("distance"));
+        assertEquals(List.of("r1"), decoded.getPosition().getList("ids", String.class));
+    }
+
+    @Test
+    void sortValuesMayBeNullButMustBePresent() {
+        Map<String, Class<?>> fields = Map.of("deliveryFee", Object.class, "id", Object.class);
+        String withNull = new KeysetCursor("deliveryFee:ASC,id:ASC",
+                new Document("deliveryFee", null).append("id", "r1")).encode();
+        String withoutFee = new KeysetCursor("deliveryFee:ASC,id:ASC", new Document("id", "r1")).encode();
+
+        assertNull(KeysetCursor.decode(withNull, "deliveryFee:ASC,id:ASC", fields).getPosition().get("deliveryFee"));
+        assertThrows(BadRequestException.class, () -> KeysetCursor.decode(withoutFee, "deliveryFee:ASC,id:ASC", fields));
+    }
+
+    @Test
+    void tamperedOrForeignCursorsAreBadRequests() {
+        String missingDistance = new KeysetCursor(NEARBY, new Document("ids", List.of("r1"))).encode();
+        String textDistance = new KeysetCursor(NEARBY, new Document("distance", "near").append("ids", List.of())).encode();
+        String otherSort = new KeysetCursor("averageRating:DESC,id:ASC", new Document("averageRating", 4.5)).encode();
+        String notAPosition = Base64.getUrlEncoder().encodeToString(
+                new Document("s", NEARBY).append("p", 3).toJson().getBytes(StandardCharsets.UTF_8));
+
+        for (String cursor : List.of(missingDistance, textDistance, otherSort, notAPosition, "not base64 !")) {
+            assertThrows(BadRequestException.class, () -> KeysetCursor.decode(cursor, NEARBY, NEARBY_FIELDS), cursor);
+        }
+    }
+}
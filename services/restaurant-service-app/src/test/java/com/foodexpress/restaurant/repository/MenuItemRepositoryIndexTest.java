@@ -0,0 +1,238 @@
+package com.foodexpress.restaurant.repository;
+
+import com.foodexpress.restaurant.config.MenuItemDiscountConfig;
+import com.foodexpress.restaurant.config.MongoConfig;
+import com.foodexpress.restaurant.entity.MenuItem;
+import com.foodexpress.restaurant.entity.enums.DietaryType;
+import com.foodexpress.restaurant.repository.impl.MenuItemRepositoryImpl;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.MongoNamespace;
+import com.mongodb.client.FindIterable;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.CountOptions;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.data.mapping.callback.EntityCallbacks;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.core.MongoExceptionTranslator;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.repository.support.MongoRepositoryFactory;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.RETURNS_SELF;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Checks every MenuItemRepository finder against the indexes declared on MenuItem
+ * The repository runs on a stand-in driver that records the filter and sort of every find / count;
+ * each query must be answerable by an index scan over a tight key prefix, with the sort
+ * (if any) served by the index order instead of an in-memory SORT stage
+ */
+class MenuItemRepositoryIndexTest {
+
+    private static final String RESTAURANT_ID = "r1";
+
+    private final List<Document> filters = new ArrayList<>();
+    private final List<Document> sorts = new ArrayList<>();
+    private final List<Document> inserted = new ArrayList<>();
+
+    private List<Document> indexes;
+    private MenuItemRepository menuItemRepository;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        MongoCustomConversions conversions = new MongoConfig().mongoCustomConversions();
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        MappingMongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        converter.setCustomConversions(conversions);
+        converter.afterPropertiesSet();
+
+        // Every collection also has the implicit _id index
+        indexes = Stream.concat(Stream.of(new Document("_id", 1)),
+                        StreamSupport.stream(new MongoPersistentEntityIndexResolver(mappingContext)
+                                        .resolveIndexFor(MenuItem.class).spliterator(), false)
+                                .map(IndexDefinition::getIndexKeys))
+                .filter(keys -> !keys.containsValue("text"))
+                .toList();
+
+        FindIterable<Document> results = mock(FindIterable.class, RETURNS_SELF);
+        when(results.sort(any())).thenAnswer(invocation -> {
+            sorts.add(toDocument(invocation.getArgument(0)));
+            return results;
+        });
+        when(results.iterator()).thenReturn(mock(MongoCursor.class));
+        when(results.cursor()).thenReturn(mock(MongoCursor.class));
+
+        MongoCollection<Document> collection = mock(MongoCollection.class, RETURNS_SELF);
+        when(collection.find(any(Bson.class), eq(Document.class))).thenAnswer(invocation -> {
+            filters.add(toDocument(invocation.getArgument(0)));
+            return results;
+        });
+        when(collection.countDocuments(any(Bson.class), any(CountOptions.class))).thenAnswer(invocation -> {
+            filters.add(toDocument(invocation.getArgument(0)));
+            return 0L;
+        });
+        when(collection.insertOne(any(Document.class))).thenAnswer(invocation -> {
+            inserted.add(invocation.getArgument(0));
+            return null;
+        });
+
+        MongoDatabase database = mock(MongoDatabase.class);
+        when(collection.getNamespace()).thenReturn(new MongoNamespace("foodexpress", "menu_items"));
+        when(collection.getCodecRegistry()).thenReturn(MongoClientSettings.getDefaultCodecRegistry());
+        when(database.getCollection(anyString(), eq(Document.class))).thenReturn(collection);
+        when(database.getCodecRegistry()).thenReturn(MongoClientSettings.getDefaultCodecRegistry());
+        MongoDatabaseFactory databaseFactory = mock(MongoDatabaseFactory.class);
+        when(databaseFactory.getMongoDatabase()).thenReturn(database);
+        when(databaseFactory.getCodecRegistry()).thenReturn(MongoClientSettings.getDefaultCodecRegistry());
+        when(databaseFactory.getExceptionTranslator()).thenReturn(new MongoExceptionTranslator());
+
+        MongoTemplate mongoTemplate = new MongoTemplate(databaseFactory, converter);
+        mongoTemplate.setEntityCallbacks(EntityCallbacks.create(new MenuItemDiscountConfig().menuItemDiscountCallback()));
+        menuItemRepository = new MongoRepositoryFactory(mongoTemplate)
+                .getRepository(MenuItemRepository.class, new MenuItemRepositoryImpl(mongoTemplate));
+    }
+
+    static Stream<Arguments> finders() {
+        return Stream.of(
+                finder("findByRestaurantId", repository -> repository.findByRestaurantId(RESTAURANT_ID)),
+                finder("findByRestaurantIdAndIsAvailableTrue",
+                        repository -> repository.findByRestaurantIdAndIsAvailableTrue(RESTAURANT_ID)),
+                finder("findByCategoryId", repository -> repository.findByCategoryId("c1")),
+                finder("findByCategoryIdAndIsAvailableTrue",
+                        repository -> repository.findByCategoryIdAndIsAvailableTrue("c1")),
+                finder("findByRestaurantIdAndCategoryId",
+                        repository -> repository.findByRestaurantIdAndCategoryId(RESTAURANT_ID, "c1")),
+                finder("findByRestaurantIdAndCategoryIdAndIsAvailableTrue",
+                        repository -> repository.findByRestaurantIdAndCategoryIdAndIsAvailableTrue(RESTAURANT_ID, "c1")),
+                finder("findByRestaurantIdAndIsBestsellerTrueAndIsAvailableTrue",
+                        repository -> repository.findByRestaurantIdAndIsBestsellerTrueAndIsAvailableTrue(RESTAURANT_ID)),
+                finder("findByRestaurantIdAndDietaryTypeAndIsAvailableTrue",
+                        repository -> repository.findByRestaurantIdAndDietaryTypeAndIsAvailableTrue(RESTAURANT_ID, DietaryType.VEGAN)),
+                finder("findByPriceRange",
+                        repository -> repository.findByPriceRange(RESTAURANT_ID, BigDecimal.ONE, BigDecimal.TEN)),
+                finder("findDiscountedItems", repository -> repository.findDiscountedItems(RESTAURANT_ID)),
+                finder("findTopRatedItems", repository -> repository.findTopRatedItems(RESTAURANT_ID, 4.0)),
+                finder("findByIdAndRestaurantId", repository -> repository.findByIdAndRestaurantId("i1", RESTAURANT_ID)),
+                finder("findPricesByIdInAndRestaurantId",
+                        repository -> repository.findPricesByIdInAndRestaurantId(List.of("i1", "i2"), RESTAURANT_ID)),
+                finder("existsByNameAndRestaurantId",
+                        repository -> repository.existsByNameAndRestaurantId("Paneer Tikka", RESTAURANT_ID)));
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("finders")
+    void finderIsAnsweredByAnIndexScanWithoutInMemorySort(String name, Consumer<MenuItemRepository> finder) {
+        finder.accept(menuItemRepository);
+
+        assertEquals(1, filters.size(), "expected a single find for " + name);
+        Document filter = filters.get(0);
+        Document sort = sorts.isEmpty() ? new Document() : sorts.get(0);
+
+        assertFalse(filter.containsKey("$expr"), name + " evaluates $expr per document: " + filter.toJson());
+        Optional<Document> plan = indexes.stream().filter(index -> serves(index, filter, sort)).findFirst();
+        assertTrue(plan.isPresent(), "no index serves " + name + " " + filter.toJson() + " sort " + sort.toJson());
+    }
+
+    @Test
+    void discountFlagIsMaintainedOnSave() {
+        menuItemRepository.save(MenuItem.builder().restaurantId(RESTAURANT_ID).name("Paneer Tikka")
+                .price(new BigDecimal("250")).discountedPrice(new BigDecimal("199")).build());
+        menuItemRepository.save(MenuItem.builder().restaurantId(RESTAURANT_ID).name("Dal Makhani")
+                .price(new BigDecimal("180")).build());
+        menuItemRepository.save(MenuItem.builder().restaurantId(RESTAURANT_ID).name("Jeera Rice")
+                .price(new BigDecimal("120")).discountedPrice(new BigDecimal("120")).build());
+
+        assertEquals(List.of(true, false, false), inserted.stream().map(doc -> doc.get("is_discounted")).toList());
+    }
+
+    /**
+     * Equality-Sort-Range rule: the index must start with the query's equality fields (in any order),
+     * continue with the sort fields in sort order (all in the index direction or all reversed), and
+     * then hold the remaining range fields, so that every predicate bounds the scan and the
+     * index order is the result order
+     * An equality or $in match on _id is a point lookup on the unique _id index, whatever else is filtered
+     */
+    private static boolean serves(Document index, Document filter, Document sort) {
+        List<String> keys = new ArrayList<>(index.keySet());
+        List<String> equality = filter.entrySet().stream().filter(e -> isEquality(e.getValue())).map(Map.Entry::getKey).toList();
+        if (keys.equals(List.of("_id")) && (equality.contains("_id") || isIn(filter.get("_id")))) {
+            return true;
+        }
+        List<String> range = filter.keySet().stream().filter(field -> !equality.contains(field)).toList();
+
+        int position = 0;
+        while (position < keys.size() && equality.contains(keys.get(position))) {
+            position++;
+        }
+        if (position < equality.size()) {
+            return false;
+        }
+
+        Boolean reversed = null;
+        for (Map.Entry<String, Object> sortKey : sort.entrySet()) {
+            if (position >= keys.size() || !keys.get(position).equals(sortKey.getKey())) {
+                return false;
+            }
+            boolean sameDirection = ((Number) index.get(sortKey.getKey())).intValue() == ((Number) sortKey.getValue()).intValue();
+            if (reversed != null && reversed == sameDirection) {
+                return false;
+            }
+            reversed = !sameDirection;
+            position++;
+        }
+
+        List<String> scanned = keys.subList(0, Math.min(position, keys.size()));
+        List<String> remaining = keys.subList(scanned.size(), keys.size());
+        return range.stream().allMatch(field -> remaining.contains(field)
+                || sort.containsKey(field) && scanned.contains(field));
+    }
+
+    private static boolean isEquality(Object value) {
+        return !(value instanceof Document condition)
+                || condition.keySet().stream().noneMatch(key -> key.startsWith("$"))
+                || condition.size() == 1 && condition.containsKey("$eq");
+    }
+
+    private static boolean isIn(Object value) {
+        return value instanceof Document condition && condition.size() == 1 && condition.containsKey("$in");
+    }
+
+    private static Document toDocument(Bson bson) {
+        return bson instanceof Document document ? document : Document.parse(bson.toBsonDocument().toJson());
+    }
+
+    private static Arguments finder(String name, Consumer<MenuItemRepository> finder) {
+        return Arguments.of(name, finder);
+    }
+}
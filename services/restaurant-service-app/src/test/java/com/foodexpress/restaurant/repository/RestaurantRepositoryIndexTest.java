@@ -0,0 +1,216 @@
+package com.foodexpress.restaurant.repository;
+
+import com.foodexpress.restaurant.config.MongoConfig;
+import com.foodexpress.restaurant.dto.request.RestaurantSearchRequest;
+import com.foodexpress.restaurant.entity.Restaurant;
+import com.foodexpress.restaurant.entity.enums.CuisineType;
+import com.foodexpress.restaurant.exception.BadRequestException;
+import com.foodexpress.restaurant.geo.GeoGridIndex;
+import com.foodexpress.restaurant.repository.impl.RestaurantRepositoryImpl;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.MongoNamespace;
+import com.mongodb.client.FindIterable;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
+import com.mongodb.client.MongoDatabase;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.core.MongoExceptionTranslator;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.StreamSupport;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.RETURNS_SELF;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Checks that cursor pages of restaurants are range seeks on an index ending with the cursor sort
+ * Same stand-in driver as MenuItemRepositoryIndexTest: the filter and sort of every find are recorded,
+ * and some index must hold the filter's equality fields followed by the whole sort, tie-breaker included
+ */
+class RestaurantRepositoryIndexTest {
+
+    private static final Sort RATING_SORT = Sort.by(Sort.Direction.DESC, "averageRating").and(Sort.by(Sort.Direction.DESC, "id"));
+
+    private final List<Document> filters = new ArrayList<>();
+    private final List<Document> sorts = new ArrayList<>();
+
+    private List<Document> indexes;
+    private RestaurantRepositoryImpl restaurantRepository;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        MongoCustomConversions conversions = new MongoConfig().mongoCustomConversions();
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        MappingMongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        converter.setCustomConversions(conversions);
+        converter.afterPropertiesSet();
+
+        indexes = StreamSupport.stream(new MongoPersistentEntityIndexResolver(mappingContext)
+                        .resolveIndexFor(Restaurant.class).spliterator(), false)
+                .map(IndexDefinition::getIndexKeys)
+                .toList();
+
+        FindIterable<Document> results = mock(FindIterable.class, RETURNS_SELF);
+        when(results.sort(any())).thenAnswer(invocation -> {
+            sorts.add(toDocument(invocation.getArgument(0)));
+            return results;
+        });
+        when(results.iterator()).thenReturn(mock(MongoCursor.class));
+        when(results.cursor()).thenReturn(mock(MongoCursor.class));
+
+        MongoCollection<Document> collection = mock(MongoCollection.class, RETURNS_SELF);
+        when(collection.find(any(Bson.class), eq(Document.class))).thenAnswer(invocation -> {
+            filters.add(toDocument(invocation.getArgument(0)));
+            return results;
+        });
+
+        MongoDatabase database = mock(MongoDatabase.class);
+        when(collection.getNamespace()).thenReturn(new MongoNamespace("foodexpress", "restaurants"));
+        when(collection.getCodecRegistry()).thenReturn(MongoClientSettings.getDefaultCodecRegistry());
+        when(database.getCollection(anyString(), eq(Document.class))).thenReturn(collection);
+        when(database.getCodecRegistry()).thenReturn(MongoClientSettings.getDefaultCodecRegistry());
+        MongoDatabaseFactory databaseFactory = mock(MongoDatabaseFactory.class);
+        when(databaseFactory.getMongoDatabase()).thenReturn(database);
+        when(databaseFactory.getCodecRegistry()).thenReturn(MongoClientSettings.getDefaultCodecRegistry());
+        when(databaseFactory.getExceptionTranslator()).thenReturn(new MongoExceptionTranslator());
+
+        restaurantRepository = new RestaurantRepositoryImpl(new MongoTemplate(databaseFactory, converter), mock(GeoGridIndex.class));
+    }
+
+    @Test
+    void cityPagesSeekOnTheCityIndex() {
+        String cursor = restaurantRepository.cursorAfter(restaurant(), RATING_SORT);
+
+        restaurantRepository.findSummariesByCity("Bengaluru", null, 20, false);
+        restaurantRepository.findSummariesByCity("Bengaluru", cursor, 20, false);
+
+        assertEquals(2, filters.size());
+        for (int i = 0; i < filters.size(); i++) {
+            assertServedByIndex(filters.get(i), sorts.get(i));
+        }
+    }
+
+    @Test
+    void ratingSearchPagesSeekOnAnIndexInEitherDirection() {
+        Sort ascending = Sort.by(Sort.Direction.ASC, "averageRating").and(Sort.by(Sort.Direction.ASC, "id"));
+        RestaurantSearchRequest byCuisine = RestaurantSearchRequest.builder()
+                .cuisineType(CuisineType.INDIAN)
+                .cursor(restaurantRepository.cursorAfter(restaurant(), RATING_SORT))
+                .build();
+        RestaurantSearchRequest anywhere = RestaurantSearchRequest.builder()
+                .cursor(restaurantRepository.cursorAfter(restaurant(), ascending))
+                .build();
+
+        restaurantRepository.searchAfter(byCuisine, RATING_SORT, 20);
+        restaurantRepository.searchAfter(anywhere, ascending, 20);
+
+        assertServedByIndex(filters.get(0), sorts.get(0));
+        assertServedByIndex(filters.get(1), sorts.get(1));
+    }
+
+    @Test
+    void cityFiltersMatchTheNormalizedCityOnTheCityIndex() {
+        RestaurantSearchRequest byCity = RestaurantSearchRequest.builder()
+                .city(" BENGALURU ")
+                .cursor(restaurantRepository.cursorAfter(restaurant(), RATING_SORT))
+                .build();
+
+        restaurantRepository.searchAfter(byCity, RATING_SORT, 20);
+        restaurantRepository.findSummariesByCity("Bengaluru", null, 20, false);
+
+        assertEquals(2, filters.size());
+        for (int i = 0; i < filters.size(); i++) {
+            assertEquals("bengaluru", cityKey(filters.get(i)), filters.get(i).toJson());
+            assertServedByIndex(filters.get(i), sorts.get(i));
+        }
+    }
+
+    @Test
+    void sortsWithoutAMatchingIndexAreOffsetOnly() {
+        Sort byName = Sort.by(Sort.Direction.ASC, "name").and(Sort.by(Sort.Direction.ASC, "id"));
+        RestaurantSearchRequest request = RestaurantSearchRequest.builder().cursor("any").build();
+
+        assertNull(restaurantRepository.cursorAfter(restaurant(), byName));
+        assertThrows(BadRequestException.class, () -> restaurantRepository.searchAfter(request, byName, 20));
+        assertTrue(filters.isEmpty());
+    }
+
+    /**
+     * The equality fields (in any order), then the sort keys all in the index direction or all reversed;
+     * the cursor's $or only bounds the scan on the sort keys
+     */
+    private void assertServedByIndex(Document filter, Document sort) {
+        List<String> equality = new ArrayList<>();
+        collectEquality(filter, equality);
+        List<String> sortKeys = new ArrayList<>(sort.keySet());
+
+        boolean served = indexes.stream().anyMatch(index -> {
+            List<String> keys = new ArrayList<>(index.keySet());
+            if (keys.size() != equality.size() + sortKeys.size()
+                    || !keys.subList(0, equality.size()).containsAll(equality)
+                    || !keys.subList(equality.size(), keys.size()).equals(sortKeys)) {
+                return false;
+            }
+            long reversed = sortKeys.stream()
+                    .filter(key -> ((Number) index.get(key)).intValue() != ((Number) sort.get(key)).intValue())
+                    .count();
+            return reversed == 0 || reversed == sortKeys.size();
+        });
+        assertTrue(served, "no index serves " + filter.toJson() + " sort " + sort.toJson());
+    }
+
+    private static void collectEquality(Document filter, List<String> equality) {
+        for (Map.Entry<String, Object> entry : filter.entrySet()) {
+            if (entry.getKey().equals("$and")) {
+                ((List<?>) entry.getValue()).forEach(part -> collectEquality((Document) part, equality));
+            } else if (!entry.getKey().startsWith("$") && !(entry.getValue() instanceof Document)) {
+                equality.add(entry.getKey());
+            }
+        }
+    }
+
+    private static Object cityKey(Document filter) {
+        if (filter.containsKey("city_key")) {
+            return filter.get("city_key");
+        }
+        return filter.getList("$and", Document.class, List.of()).stream()
+                .map(RestaurantRepositoryIndexTest::cityKey)
+                .filter(Objects::nonNull)
+                .findFirst()
+                .orElse(null);
+    }
+
+    private static Restaurant restaurant() {
+        return Restaurant.builder().id("r1").name("Test Kitchen").averageRating(new BigDecimal("4.2")).build();
+    }
+
+    private static Document toDocument(Bson bson) {
+        return bson instanceof Document document ? document : Document.parse(bson.toBsonDocument().toJson());
+    }
+}
@@ -0,0 +1,128 @@
+package com.foodexpress.restaurant.repository.impl;
+
+import com.foodexpress.restaurant.config.MongoConfig;
+import com.foodexpress.restaurant.entity.Restaurant;
+import com.foodexpress.restaurant.geo.GeoEntry;
+import com.foodexpress.restaurant.geo.GeoGrid;
+import com.foodexpress.restaurant.geo.GeoGridIndex;
+import com.foodexpress.restaurant.geo.GeoHit;
+import com.foodexpress.restaurant.repository.KeysetWindow;
+import com.mongodb.MongoClientSettings;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.geo.GeoResult;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.core.MongoExceptionTranslator;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.when;
+
+/**
+ * Nearby pages served from the in-memory grid, with MongoDB only asked which of the hits are still live
+ */
+class RestaurantRepositoryImplTest {
+
+    private final GeoGridIndex geoGridIndex = mock(GeoGridIndex.class);
+
+    /** What the grid holds: r0 .. r9, one kilometre apart */
+    private final List<GeoHit> grid = new ArrayList<>();
+
+    /** Deactivated since the grid last saw them */
+    private final Set<String> inactive = new HashSet<>();
+
+    private RestaurantRepositoryImpl restaurantRepository;
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < 10; i++) {
+            grid.add(new GeoHit(new GeoEntry("r" + i, 18.5, 73.8, 4.0, true), i + 1));
+        }
+        when(geoGridIndex.isReady()).thenReturn(true);
+        when(geoGridIndex.nearest(anyDouble(), anyDouble(), anyDouble(), any(GeoGrid.HitFilter.class), anyInt()))
+                .thenAnswer(invocation -> {
+                    GeoGrid.HitFilter filter = invocation.getArgument(3);
+                    int limit = invocation.getArgument(4);
+                    return grid.stream()
+                            .filter(hit -> filter.test(hit.getEntry(), hit.getDistanceKm()))
+                            .sorted(GeoHit.BY_DISTANCE)
+                            .limit(limit)
+                            .toList();
+                });
+
+        MongoCustomConversions conversions = new MongoConfig().mongoCustomConversions();
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        MappingMongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        converter.setCustomConversions(conversions);
+        converter.afterPropertiesSet();
+        MongoDatabaseFactory databaseFactory = mock(MongoDatabaseFactory.class);
+        when(databaseFactory.getCodecRegistry()).thenReturn(MongoClientSettings.getDefaultCodecRegistry());
+        when(databaseFactory.getExceptionTranslator()).thenReturn(new MongoExceptionTranslator());
+
+        // The _id lookup answers with the live rows among the ids asked for
+        MongoTemplate mongoTemplate = spy(new MongoTemplate(databaseFactory, converter));
+        doAnswer(invocation -> {
+            Collection<?> ids = (Collection<?>) invocation.<Query>getArgument(0).getQueryObject().get("id", Document.class).get("$in");
+            return ids.stream()
+                    .map(String.class::cast)
+                    .filter(id -> !inactive.contains(id))
+                    .map(id -> Restaurant.builder().id(id).name("Restaurant " + id).build())
+                    .toList();
+        }).when(mongoTemplate).find(any(Query.class), eq(Restaurant.class));
+
+        restaurantRepository = new RestaurantRepositoryImpl(mongoTemplate, geoGridIndex);
+    }
+
+    @Test
+    void staleGridEntriesAreReplacedSoPagingContinues() {
+        inactive.addAll(Set.of("r1", "r3"));
+
+        KeysetWindow<GeoResult<Restaurant>> first = restaurantRepository.findNearby(18.5, 73.8, 20, null, 3, false);
+
+        assertEquals(List.of("r0", "r2", "r4"), ids(first));
+        assertNotNull(first.getNextCursor(), "live restaurants are still in range");
+
+        KeysetWindow<GeoResult<Restaurant>> second = restaurantRepository.findNearby(18.5, 73.8, 20, first.getNextCursor(), 3, false);
+        assertEquals(List.of("r5", "r6", "r7"), ids(second));
+        KeysetWindow<GeoResult<Restaurant>> last = restaurantRepository.findNearby(18.5, 73.8, 20, second.getNextCursor(), 3, false);
+        assertEquals(List.of("r8", "r9"), ids(last));
+        assertNull(last.getNextCursor());
+    }
+
+    @Test
+    void aPageEndsTheListingOnlyWhenTheGridHasNoMoreHits() {
+        // Every row after the first page is stale
+        inactive.addAll(Set.of("r3", "r4", "r5", "r6", "r7", "r8", "r9"));
+
+        KeysetWindow<GeoResult<Restaurant>> first = restaurantRepository.findNearby(18.5, 73.8, 20, null, 3, false);
+
+        assertEquals(List.of("r0", "r1", "r2"), ids(first));
+        assertNull(first.getNextCursor());
+    }
+
+    private static List<String> ids(KeysetWindow<GeoResult<Restaurant>> window) {
+        return window.getContent().stream().map(result -> result.getContent().getId()).toList();
+    }
+}
@@ -0,0 +1,94 @@
+package com.foodexpress.restaurant.search;
+
+import com.foodexpress.restaurant.dto.response.AutocompleteSuggestionResponse;
+import com.foodexpress.restaurant.entity.MenuItem;
+import com.foodexpress.restaurant.entity.Restaurant;
+import com.foodexpress.restaurant.event.MenuChangedEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AutocompleteIndexTest {
+
+    private static final String RESTAURANT_ID = "r1";
+
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+
+    private final AutocompleteIndex index = new AutocompleteIndex(mongoTemplate, Duration.ofMillis(10));
+
+    @AfterEach
+    void tearDown() {
+        index.shutdown();
+    }
+
+    @Test
+    void aRenamedRestaurantIsOnlySuggestedUnderItsNewName() {
+        when(mongoTemplate.stream(any(Query.class), eq(Restaurant.class))).thenReturn(Stream.of(restaurant("Spice Route")));
+        when(mongoTemplate.stream(any(Query.class), eq(MenuItem.class))).thenReturn(Stream.empty());
+        index.onApplicationReady();
+        await(() -> !index.suggest("spice", 10).isEmpty());
+
+        // Same rating, so the suggestion's weight doesn't change with the name
+        when(mongoTemplate.findOne(any(Query.class), eq(Restaurant.class))).thenReturn(restaurant("Saffron House"));
+        when(mongoTemplate.find(any(Query.class), eq(MenuItem.class))).thenReturn(List.of());
+        index.onMenuChanged(new MenuChangedEvent(this, "test", () -> "**", RESTAURANT_ID, 2L));
+        await(() -> !index.suggest("saffron", 10).isEmpty());
+
+        List<AutocompleteSuggestionResponse> renamed = index.suggest("saffron", 10);
+        assertEquals(1, renamed.size());
+        assertEquals("Saffron House", renamed.get(0).getText());
+        assertEquals(RESTAURANT_ID, renamed.get(0).getRestaurantId());
+        assertEquals("Saffron House", index.suggest("hou", 10).get(0).getText());
+        assertTrue(index.suggest("spice", 10).isEmpty());
+        assertTrue(index.suggest("route", 10).isEmpty());
+    }
+
+    @Test
+    void aFailedBuildIsRetriedAndTheIndexIsNotReadyUntilItSucceeds() {
+        // MongoDB is down for the first build, then back
+        when(mongoTemplate.stream(any(Query.class), eq(Restaurant.class)))
+                .thenThrow(new IllegalStateException("connection refused"))
+                .thenReturn(Stream.of(restaurant("Spice Route")));
+        when(mongoTemplate.stream(any(Query.class), eq(MenuItem.class))).thenReturn(Stream.empty());
+
+        assertFalse(index.isReady());
+        index.onApplicationReady();
+        await(index::isReady);
+
+        assertEquals("Spice Route", index.suggest("spice", 10).get(0).getText());
+    }
+
+    private static Restaurant restaurant(String name) {
+        return Restaurant.builder().id(RESTAURANT_ID).name(name)
+                .averageRating(new BigDecimal("4.2")).totalRatings(120).build();
+    }
+
+    /**
+     * Refreshes run on the index's background thread
+     */
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                fail("Autocomplete index was not refreshed in time");
+            }
+            Thread.onSpinWait();
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.foodexpress.restaurant.search;
+
+import com.foodexpress.restaurant.dto.response.AutocompleteSuggestionResponse.Type;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SuggestionTrieTest {
+
+    @Test
+    void topReturnsBestMatchesForPrefixEndingInsideAnEdge() {
+        SuggestionTrie trie = new SuggestionTrie();
+        trie.add("paneer tikka", dish("paneer tikka", 3));
+        trie.add("tikka", dish("paneer tikka", 3));
+        trie.add("pasta", dish("pasta", 5));
+        trie.add("pav bhaji", dish("pav bhaji", 1));
+
+        assertEquals(List.of("pasta", "paneer tikka", "pav bhaji"), texts(trie.top("pa", 10)));
+        assertEquals(List.of("pasta", "paneer tikka"), texts(trie.top("pa", 2)));
+        assertEquals(List.of("paneer tikka"), texts(trie.top("pan", 10)));
+        assertEquals(List.of("paneer tikka"), texts(trie.top("tik", 10)));
+        assertTrue(trie.top("pz", 10).isEmpty());
+        assertTrue(trie.top("paneer tikka masala", 10).isEmpty());
+    }
+
+    @Test
+    void removeRecompressesEdgesAndLowersSubtreeWeight() {
+        SuggestionTrie trie = new SuggestionTrie();
+        trie.add("burger", dish("burger", 9));
+        trie.add("burrito", dish("burrito", 2));
+        trie.add("bun", dish("bun", 1));
+
+        trie.remove("burger", "burger");
+
+        assertEquals(List.of("burrito", "bun"), texts(trie.top("bu", 10)));
+        assertEquals(List.of("burrito"), texts(trie.top("bu", 1)));
+        assertEquals(2, trie.size());
+
+        trie.remove("burrito", "burrito");
+        trie.remove("bun", "bun");
+        assertEquals(0, trie.size());
+        assertTrue(trie.top("b", 10).isEmpty());
+    }
+
+    @Test
+    void topMatchesBruteForceOnRandomData() {
+        Random random = new Random(42);
+        SuggestionTrie trie = new SuggestionTrie();
+        Map<String, Suggestion> live = new HashMap<>();
+
+        for (int i = 0; i < 5000; i++) {
+            String word = randomWord(random);
+            if (live.containsKey(word) && random.nextBoolean()) {
+                trie.remove(word, word);
+                live.remove(word);
+            } else if (!live.containsKey(word)) {
+                Suggestion suggestion = dish(word, random.nextInt(1000) / 10.0);
+                trie.add(word, suggestion);
+                live.put(word, suggestion);
+            }
+        }
+
+        for (int i = 0; i < 200; i++) {
+            String prefix = randomWord(random).substring(0, 1 + random.nextInt(2));
+            List<Suggestion> expected = live.values().stream()
+                    .filter(s -> s.getText().startsWith(prefix))
+                    .sorted(Comparator.comparingDouble(Suggestion::getWeight).reversed().thenComparing(Suggestion::getText))
+                    .limit(5)
+                    .toList();
+            assertEquals(weights(expected), weights(trie.top(prefix, 5)), "prefix " + prefix);
+        }
+        assertEquals(live.size(), trie.size());
+    }
+
+    private static Suggestion dish(String text, double weight) {
+        return new Suggestion(text, Type.DISH, text, null, null, weight);
+    }
+
+    private static String randomWord(Random random) {
+        StringBuilder word = new StringBuilder();
+        int length = 2 + random.nextInt(5);
+        for (int i = 0; i < length; i++) {
+            word.append((char) ('a' + random.nextInt(4)));
+        }
+        return word.toString();
+    }
+
+    private static List<String> texts(List<Suggestion> suggestions) {
+        return suggestions.stream().map(Suggestion::getText).toList();
+    }
+
+    private static List<Double> weights(List<Suggestion> suggestions) {
+        List<Double> weights = new ArrayList<>();
+        suggestions.forEach(s -> weights.add(s.getWeight()));
+        return weights;
+    }
+}
@@ -0,0 +1,169 @@
+package com.foodexpress.restaurant.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.foodexpress.restaurant.dto.response.MenuImportResponse;
+import com.foodexpress.restaurant.entity.MenuCategory;
+import com.foodexpress.restaurant.entity.MenuItem;
+import com.foodexpress.restaurant.entity.Restaurant;
+import com.foodexpress.restaurant.exception.BadRequestException;
+import com.foodexpress.restaurant.menuimport.MenuImportFormat;
+import com.foodexpress.restaurant.repository.MenuCategoryRepository;
+import com.foodexpress.restaurant.repository.MenuItemRepository;
+import com.foodexpress.restaurant.repository.RestaurantRepository;
+import com.foodexpress.restaurant.service.MenuVersionService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class MenuImportServiceImplTest {
+
+    private static final String RESTAURANT_ID = "r1";
+
+    @Mock
+    private MenuItemRepository menuItemRepository;
+
+    @Mock
+    private RestaurantRepository restaurantRepository;
+
+    @Mock
+    private MenuCategoryRepository menuCategoryRepository;
+
+    @Mock
+    private MenuVersionService menuVersionService;
+
+    private final List<List<MenuItem>> chunks = new ArrayList<>();
+
+    private MenuImportServiceImpl menuImportService;
+
+    @BeforeEach
+    void setUp() {
+        menuImportService = new MenuImportServiceImpl(menuItemRepository, restaurantRepository, menuCategoryRepository,
+                menuVersionService, new ObjectMapper(), Validation.buildDefaultValidatorFactory().getValidator(),
+                new SimpleMeterRegistry(), 2, 100);
+
+        when(restaurantRepository.findByIdAndIsActiveTrue(RESTAURANT_ID))
+                .thenReturn(Optional.of(Restaurant.builder().id(RESTAURANT_ID).build()));
+        when(menuCategoryRepository.findByRestaurantId(RESTAURANT_ID)).thenReturn(List.of(
+                MenuCategory.builder().id("c1").restaurantId(RESTAURANT_ID).build(),
+                MenuCategory.builder().id("c2").restaurantId(RESTAURANT_ID).build()));
+        when(menuItemRepository.findNamesByRestaurantId(RESTAURANT_ID)).thenReturn(new HashSet<>(Set.of("Dal Makhani")));
+    }
+
+    @Test
+    void csvRowsAreValidatedAgainstPreloadedSetsAndInsertedInChunks() throws Exception {
+        stubInsert(Map.of());
+        String csv = "name,Price,discounted_price,categoryId,dietaryType,description\r\n"
+                + "Paneer Tikka,250,199,c1,VEGETARIAN,\"Smoky, charred \"\"tikka\"\"\"\r\n"
+                + "Dal Makhani,180,,c1,VEGETARIAN,\r\n"
+                + "Butter Naan,40,,c9,VEGETARIAN,\r\n"
+                + "\r\n"
+                + "Chicken 65,220,,c2,NON_VEGETARIAN,\"Fried,\nspicy\"\r\n"
+                + "Jeera Rice,,,c2,VEGETARIAN,\r\n"
+                + "Gulab Jamun,90,,c2,VEGETARIAN,\r\n"
+                + "Paneer Tikka,260,,c2,VEGETARIAN,\r\n"
+                + "Lassi,not-a-price,,c2,VEGETARIAN,\r\n"
+                + "Raita,60,,c2,VEGETARIAN\r\n";
+
+        MenuImportResponse response = menuImportService.importMenuItems(RESTAURANT_ID, MenuImportFormat.CSV, new StringReader(csv));
+
+        assertEquals(9, response.getTotalRows());
+        assertEquals(3, response.getImported());
+        assertEquals(6, response.getFailed());
+        assertEquals(List.of(3, 4, 8, 10, 11, 12), response.getErrors().stream().map(MenuImportResponse.RowError::getLine).toList());
+        assertTrue(response.getErrors().get(0).getMessage().contains("already exists"));
+        assertTrue(response.getErrors().get(1).getMessage().contains("Category not found"));
+        assertTrue(response.getErrors().get(2).getMessage().startsWith("price:"));
+        assertTrue(response.getErrors().get(3).getMessage().contains("already exists"));
+        assertTrue(response.getErrors().get(4).getMessage().startsWith("Malformed row"));
+        assertTrue(response.getErrors().get(5).getMessage().contains("columns"));
+
+        // Three valid rows with a chunk size of two: two bulk writes, and not a single per-row lookup
+        assertEquals(List.of(2, 1), chunks.stream().map(List::size).toList());
+        MenuItem tikka = chunks.get(0).get(0);
+        assertEquals("Smoky, charred \"tikka\"", tikka.getDescription());
+        assertEquals(new BigDecimal("199"), tikka.getDiscountedPrice());
+        assertEquals("Fried,\nspicy", chunks.get(0).get(1).getDescription());
+        verify(menuItemRepository, never()).existsByNameAndRestaurantId(anyString(), anyString());
+        verify(menuVersionService, times(1)).bumpMenuVersion(RESTAURANT_ID);
+    }
+
+    @Test
+    void ndjsonRowsReportBulkWriteFailuresByLine() throws Exception {
+        stubInsert(Map.of(1, "E11000 duplicate key error"));
+        String ndjson = """
+                {"name": "Masala Dosa", "price": 120, "categoryId": "c1", "dietaryType": "VEGETARIAN"}
+                {"name": "Idli", "price": 60, "categoryId": "c1", "dietaryType": "VEGETARIAN"}
+
+                {"name": "Vada", "price":
+                {"name": "Upma", "price": 70, "categoryId": "c2", "dietaryType": "VEGAN"}
+                """;
+
+        MenuImportResponse response = menuImportService.importMenuItems(RESTAURANT_ID, MenuImportFormat.NDJSON, new StringReader(ndjson));
+
+        assertEquals(4, response.getTotalRows());
+        assertEquals(2, response.getImported());
+        assertEquals(List.of(2, 4), response.getErrors().stream().map(MenuImportResponse.RowError::getLine).toList());
+        assertEquals("Idli", response.getErrors().get(0).getName());
+        assertEquals("E11000 duplicate key error", response.getErrors().get(0).getMessage());
+        assertTrue(response.getErrors().get(1).getMessage().startsWith("Malformed row"));
+    }
+
+    @Test
+    void unknownCsvColumnsRejectTheImportBeforeAnyWrite() {
+        String csv = "name,prce,categoryId\nPaneer Tikka,250,c1\n";
+
+        assertThrows(BadRequestException.class,
+                () -> menuImportService.importMenuItems(RESTAURANT_ID, MenuImportFormat.CSV, new StringReader(csv)));
+        verify(menuItemRepository, never()).bulkInsert(anyList());
+        verify(menuVersionService, never()).bumpMenuVersion(RESTAURANT_ID);
+    }
+
+    @Test
+    void aFailureMidImportStillBumpsTheVersionForChunksAlreadyWritten() {
+        when(menuItemRepository.bulkInsert(anyList()))
+                .thenReturn(Map.of())
+                .thenThrow(new DataAccessResourceFailureException("connection reset"));
+        String csv = "name,price,categoryId,dietaryType\n"
+                + "Paneer Tikka,250,c1,VEGETARIAN\n"
+                + "Butter Naan,40,c1,VEGETARIAN\n"
+                + "Gulab Jamun,90,c2,VEGETARIAN\n"
+                + "Jeera Rice,120,c2,VEGETARIAN\n";
+
+        assertThrows(DataAccessResourceFailureException.class,
+                () -> menuImportService.importMenuItems(RESTAURANT_ID, MenuImportFormat.CSV, new StringReader(csv)));
+        verify(menuItemRepository, times(2)).bulkInsert(anyList());
+        verify(menuVersionService, times(1)).bumpMenuVersion(RESTAURANT_ID);
+    }
+
+    private void stubInsert(Map<Integer, String> failuresOfFirstChunk) {
+        when(menuItemRepository.bulkInsert(anyList())).thenAnswer(invocation -> {
+            chunks.add(new ArrayList<>(invocation.<List<MenuItem>>getArgument(0)));
+            return chunks.size() == 1 ? failuresOfFirstChunk : Map.of();
+        });
+    }
+}
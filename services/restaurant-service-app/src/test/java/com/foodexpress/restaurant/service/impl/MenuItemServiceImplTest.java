@@ -0,0 +1,219 @@
+package com.foodexpress.restaurant.service.impl;
+
+import com.foodexpress.restaurant.cache.FullMenuCache;
+import com.foodexpress.restaurant.cache.MenuSnapshotCache;
+import com.foodexpress.restaurant.dto.response.FullMenuResponse;
+import com.foodexpress.restaurant.dto.response.MenuItemResponse;
+import com.foodexpress.restaurant.dto.response.MenuSnapshotResponse;
+import com.foodexpress.restaurant.entity.MenuCategory;
+import com.foodexpress.restaurant.entity.MenuItem;
+import com.foodexpress.restaurant.entity.Restaurant;
+import com.foodexpress.restaurant.event.MenuChangedEvent;
+import com.foodexpress.restaurant.repository.MenuCategoryRepository;
+import com.foodexpress.restaurant.repository.MenuItemRepository;
+import com.foodexpress.restaurant.repository.RestaurantRepository;
+import com.foodexpress.restaurant.service.MenuVersionService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anySet;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class MenuItemServiceImplTest {
+
+    private static final String RESTAURANT_ID = "r1";
+
+    @Mock
+    private MenuItemRepository menuItemRepository;
+
+    @Mock
+    private RestaurantRepository restaurantRepository;
+
+    @Mock
+    private MenuCategoryRepository menuCategoryRepository;
+
+    @Mock
+    private MenuVersionService menuVersionService;
+
+    private FullMenuCache fullMenuCache;
+
+    private MenuSnapshotCache menuSnapshotCache;
+
+    private MenuItemServiceImpl menuItemService;
+
+    @BeforeEach
+    void setUp() {
+        fullMenuCache = new FullMenuCache(new SimpleMeterRegistry(), menuVersionService, 100, Duration.ofMinutes(5));
+        menuSnapshotCache = new MenuSnapshotCache(new SimpleMeterRegistry(), 100, Duration.ofMinutes(5));
+        menuItemService = new MenuItemServiceImpl(menuItemRepository, restaurantRepository, menuCategoryRepository,
+                menuVersionService, fullMenuCache, menuSnapshotCache);
+    }
+
+    @Test
+    void getMenuSnapshotSkipsTheTableWhileTheVersionIsUnchanged() {
+        Restaurant restaurant = Restaurant.builder().id(RESTAURANT_ID).name("Test Kitchen").menuVersion(3L).build();
+        when(menuVersionService.getCommittedMenuVersion(RESTAURANT_ID)).thenReturn(3L);
+        when(restaurantRepository.findByIdAndIsActiveTrue(RESTAURANT_ID)).thenReturn(Optional.of(restaurant));
+        when(menuItemRepository.findByRestaurantIdAndIsAvailableTrue(RESTAURANT_ID)).thenReturn(List.of(
+                MenuItem.builder().id("i1").restaurantId(RESTAURANT_ID).name("Paneer Tikka")
+                        .price(new BigDecimal("250")).discountedPrice(new BigDecimal("199")).build(),
+                MenuItem.builder().id("i2").restaurantId(RESTAURANT_ID).name("Dal Makhani")
+                        .price(new BigDecimal("180")).build()));
+
+        MenuSnapshotResponse snapshot = menuItemService.getMenuSnapshot(RESTAURANT_ID, null);
+
+        assertEquals(3L, snapshot.getMenuVersion());
+        assertEquals(new BigDecimal("199"), snapshot.getItems().get("i1").getPrice());
+        assertEquals("Dal Makhani", snapshot.getItems().get("i2").getName());
+        assertSame(snapshot, menuItemService.getMenuSnapshot(RESTAURANT_ID, 2L));
+
+        MenuSnapshotResponse unchanged = menuItemService.getMenuSnapshot(RESTAURANT_ID, 3L);
+        assertTrue(unchanged.isUnchanged());
+        assertNull(unchanged.getItems());
+        verify(menuItemRepository, times(1)).findByRestaurantIdAndIsAvailableTrue(RESTAURANT_ID);
+
+        restaurant.setMenuVersion(4L);
+        when(menuVersionService.getCommittedMenuVersion(RESTAURANT_ID)).thenReturn(4L);
+        menuSnapshotCache.onMenuChanged(new MenuChangedEvent(this, "test", () -> "**", RESTAURANT_ID, 4L));
+
+        assertEquals(4L, menuItemService.getMenuSnapshot(RESTAURANT_ID, 3L).getMenuVersion());
+        verify(menuItemRepository, times(2)).findByRestaurantIdAndIsAvailableTrue(RESTAURANT_ID);
+    }
+
+    @Test
+    void getMenuSnapshotDoesNotNeedTheBusToSeeANewVersion() {
+        Restaurant restaurant = Restaurant.builder().id(RESTAURANT_ID).name("Test Kitchen").menuVersion(3L).build();
+        when(menuVersionService.getCommittedMenuVersion(RESTAURANT_ID)).thenReturn(3L);
+        when(restaurantRepository.findByIdAndIsActiveTrue(RESTAURANT_ID)).thenReturn(Optional.of(restaurant));
+        when(menuItemRepository.findByRestaurantIdAndIsAvailableTrue(RESTAURANT_ID)).thenReturn(List.of(
+                MenuItem.builder().id("i1").restaurantId(RESTAURANT_ID).name("Paneer Tikka").price(new BigDecimal("250")).build()));
+        menuItemService.getMenuSnapshot(RESTAURANT_ID, null);
+
+        // Another instance repriced the item and its bus message never arrived here
+        restaurant.setMenuVersion(4L);
+        when(menuVersionService.getCommittedMenuVersion(RESTAURANT_ID)).thenReturn(4L);
+        when(menuItemRepository.findByRestaurantIdAndIsAvailableTrue(RESTAURANT_ID)).thenReturn(List.of(
+                MenuItem.builder().id("i1").restaurantId(RESTAURANT_ID).name("Paneer Tikka").price(new BigDecimal("275")).build()));
+
+        MenuSnapshotResponse snapshot = menuItemService.getMenuSnapshot(RESTAURANT_ID, 3L);
+
+        assertEquals(4L, snapshot.getMenuVersion());
+        assertEquals(new BigDecimal("275"), snapshot.getItems().get("i1").getPrice());
+        verify(menuVersionService, never()).getMenuVersion(RESTAURANT_ID);
+    }
+
+    @Test
+    void getFullMenuIsServedFromCacheUntilMenuVersionChanges() {
+        Restaurant restaurant = Restaurant.builder().id(RESTAURANT_ID).name("Test Kitchen").menuVersion(3L).build();
+        when(menuVersionService.getMenuVersion(RESTAURANT_ID)).thenReturn(3L);
+        when(restaurantRepository.findByIdAndIsActiveTrue(RESTAURANT_ID)).thenReturn(Optional.of(restaurant));
+        when(menuCategoryRepository.findByRestaurantIdAndIsActiveTrueOrderByDisplayOrderAsc(RESTAURANT_ID)).thenReturn(List.of());
+        when(menuItemRepository.findByRestaurantIdAndIsAvailableTrue(RESTAURANT_ID)).thenReturn(List.of());
+
+        FullMenuResponse first = menuItemService.getFullMenu(RESTAURANT_ID);
+        FullMenuResponse second = menuItemService.getFullMenu(RESTAURANT_ID);
+
+        assertSame(first, second);
+        verify(restaurantRepository, times(1)).findByIdAndIsActiveTrue(RESTAURANT_ID);
+
+        restaurant.setMenuVersion(4L);
+        when(menuVersionService.getMenuVersion(RESTAURANT_ID)).thenReturn(4L);
+        fullMenuCache.onMenuChanged(new MenuChangedEvent(this, "test", () -> "**", RESTAURANT_ID, 4L));
+        FullMenuResponse third = menuItemService.getFullMenu(RESTAURANT_ID);
+
+        assertEquals(4L, third.getMenuVersion());
+        verify(restaurantRepository, times(2)).findByIdAndIsActiveTrue(RESTAURANT_ID);
+    }
+
+    @Test
+    void getFullMenuTreatsARestaurantWithoutAMenuVersionAsVersionZero() {
+        // Saved before menu_version existed: the field is missing from the document
+        Restaurant legacy = Restaurant.builder().id(RESTAURANT_ID).name("Test Kitchen").menuVersion(null).build();
+        when(menuVersionService.getMenuVersion(RESTAURANT_ID)).thenReturn(0L);
+        when(restaurantRepository.findByIdAndIsActiveTrue(RESTAURANT_ID)).thenReturn(Optional.of(legacy));
+        when(menuCategoryRepository.findByRestaurantIdAndIsActiveTrueOrderByDisplayOrderAsc(RESTAURANT_ID)).thenReturn(List.of());
+        when(menuItemRepository.findByRestaurantIdAndIsAvailableTrue(RESTAURANT_ID)).thenReturn(List.of());
+
+        FullMenuResponse menu = menuItemService.getFullMenu(RESTAURANT_ID);
+
+        assertEquals(0L, menu.getMenuVersion());
+        assertSame(menu, menuItemService.getFullMenu(RESTAURANT_ID));
+    }
+
+    @ParameterizedTest
+    @CsvSource({"1, 1", "15, 200", "40, 1000"})
+    void getFullMenuIssuesConstantNumberOfQueries(int categoryCount, int itemCount) {
+        List<MenuCategory> categories = new ArrayList<>();
+        for (int i = 0; i < categoryCount; i++) {
+            categories.add(MenuCategory.builder().id("c" + i).restaurantId(RESTAURANT_ID).name("Category " + i).displayOrder(i).build());
+        }
+        List<MenuItem> items = new ArrayList<>();
+        for (int i = 0; i < itemCount; i++) {
+            items.add(MenuItem.builder().id("i" + i).restaurantId(RESTAURANT_ID).categoryId("c" + (i % categoryCount))
+                    .name("Item " + i).price(BigDecimal.TEN).build());
+        }
+
+        when(restaurantRepository.findByIdAndIsActiveTrue(RESTAURANT_ID))
+                .thenReturn(Optional.of(Restaurant.builder().id(RESTAURANT_ID).name("Test Kitchen").build()));
+        when(menuCategoryRepository.findByRestaurantIdAndIsActiveTrueOrderByDisplayOrderAsc(RESTAURANT_ID)).thenReturn(categories);
+        when(menuItemRepository.findByRestaurantIdAndIsAvailableTrue(RESTAURANT_ID)).thenReturn(items);
+
+        FullMenuResponse menu = menuItemService.getFullMenu(RESTAURANT_ID);
+
+        assertEquals(categoryCount, menu.getCategories().size());
+        assertEquals(itemCount, menu.getCategories().stream().mapToInt(c -> c.getItems().size()).sum());
+        assertEquals("Category 0", menu.getCategories().get(0).getItems().get(0).getCategoryName());
+
+        // Exactly one round trip per collection, whatever the menu size
+        verify(restaurantRepository, times(1)).findByIdAndIsActiveTrue(RESTAURANT_ID);
+        verify(menuCategoryRepository, times(1)).findByRestaurantIdAndIsActiveTrueOrderByDisplayOrderAsc(RESTAURANT_ID);
+        verify(menuItemRepository, times(1)).findByRestaurantIdAndIsAvailableTrue(RESTAURANT_ID);
+        verify(menuCategoryRepository, never()).findById(anyString());
+        verifyNoMoreInteractions(restaurantRepository, menuCategoryRepository, menuItemRepository);
+    }
+
+    @Test
+    void listEndpointsResolveCategoryNamesWithOneBulkQuery() {
+        List<MenuItem> items = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            items.add(MenuItem.builder().id("i" + i).restaurantId(RESTAURANT_ID).categoryId("c" + (i % 5))
+                    .name("Item " + i).price(BigDecimal.TEN).build());
+        }
+        List<MenuCategory> categories = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            categories.add(MenuCategory.builder().id("c" + i).restaurantId(RESTAURANT_ID).name("Category " + i).build());
+        }
+
+        when(menuItemRepository.findByRestaurantIdAndIsAvailableTrue(RESTAURANT_ID)).thenReturn(items);
+        when(menuCategoryRepository.findAllById(anySet())).thenReturn(categories);
+
+        List<MenuItemResponse> responses = menuItemService.getMenuItemsByRestaurant(RESTAURANT_ID);
+
+        assertEquals(50, responses.size());
+        assertEquals("Category 3", responses.get(8).getCategoryName());
+        verify(menuCategoryRepository, times(1)).findAllById(anySet());
+        verify(menuCategoryRepository, never()).findById(anyString());
+    }
+}